@@ -0,0 +1,144 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tau.smlab.syntech.cores.domainagnostic.IntMinimizerFactory;
+import tau.smlab.syntech.cores.domainagnostic.MinimizerFactory;
+import tau.smlab.syntech.cores.domainagnostic.MinimizerType;
+import tau.smlab.syntech.cores.util.Checker;
+import tau.smlab.syntech.cores.util.IntChecker;
+
+/**
+ * Algorithm overhead and memo efficiency of the domain-agnostic minimizers on synthetic monotone checks (see SyntheticCores).
+ * Every invocation minimizes all elements with a fresh checker, so the memo starts empty.
+ * Checks and actual checks are reported as secondary results, their ratio is the memo efficiency.
+ * For the int path, intChecks are the checks that allocated no boxed lists.
+ * 
+ * @author shalom
+ *
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MinimizerBenchmark {
+
+	@Param({ "DDMIN", "LINEARMIN", "QUICKXPLAIN" })
+	public MinimizerType minimizer;
+
+	@Param({ "32", "128" })
+	public int elements;
+
+	@Param({ "2", "8" })
+	public int coreSize;
+
+	@Param({ "1", "4" })
+	public int numCores;
+
+	@Param({ "0", "1000" })
+	public long latency;
+
+	private SyntheticCores cores = null;
+	private List<Integer> all = null;
+
+	/**
+	 * Secondary results, summed over the invocations of an iteration
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counts {
+		public long checks;
+		public long actualChecks;
+		public long intChecks;
+		public long invocations;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			checks = actualChecks = intChecks = invocations = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		cores = new SyntheticCores(elements, coreSize, numCores, latency, 42);
+		all = cores.elements(elements);
+	}
+
+	/**
+	 * the List based minimizers with the generic memo
+	 */
+	@Benchmark
+	public List<Integer> generic(Counts counts) {
+		Checker<Integer> c = cores.checker();
+		List<Integer> core = new MinimizerFactory<Integer>().makeMinimizer(minimizer, c).minimize(new ArrayList<Integer>(all));
+		count(counts, c);
+		return core;
+	}
+
+	/**
+	 * the int minimizers with the int memo
+	 */
+	@Benchmark
+	public List<Integer> ints(Counts counts) {
+		IntChecker c = cores.intChecker();
+		List<Integer> core = new IntMinimizerFactory().makeMinimizer(minimizer, c).minimize(new ArrayList<Integer>(all));
+		count(counts, c);
+		return core;
+	}
+
+	private void count(Counts counts, Checker<Integer> c) {
+		counts.checks += c.getChecks();
+		counts.actualChecks += c.getActualChecks();
+		if (c instanceof IntChecker) {
+			counts.intChecks += ((IntChecker) c).getIntChecks();
+		}
+		counts.invocations++;
+	}
+}
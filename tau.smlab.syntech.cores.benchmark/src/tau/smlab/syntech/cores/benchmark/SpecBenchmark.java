@@ -0,0 +1,235 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import tau.smlab.syntech.bddgenerator.BDDGenerator;
+import tau.smlab.syntech.bddgenerator.BDDGenerator.TraceInfo;
+import tau.smlab.syntech.cores.AllCoresMarco;
+import tau.smlab.syntech.cores.AllUnrealizebleCores;
+import tau.smlab.syntech.cores.QuickCore;
+import tau.smlab.syntech.cores.domainagnostic.MinimizerType;
+import tau.smlab.syntech.cores.util.CheckTelemetry;
+import tau.smlab.syntech.cores.util.Checker;
+import tau.smlab.syntech.cores.util.IncrementalSysBuilder;
+import tau.smlab.syntech.cores.util.IntChecker;
+import tau.smlab.syntech.cores.util.IntSets;
+import tau.smlab.syntech.cores.util.RealizabilityCheck;
+import tau.smlab.syntech.gameinput.model.GameInput;
+import tau.smlab.syntech.gameinputtrans.TranslationProvider;
+import tau.smlab.syntech.gamemodel.GameModel;
+import tau.smlab.syntech.gamemodel.util.SysTraceInfoBuilder;
+import tau.smlab.syntech.gamemodel.util.TraceIdentifier;
+import tau.smlab.syntech.games.gr1.GR1GameExperiments;
+import tau.smlab.syntech.jtlv.BDDPackage;
+import tau.smlab.syntech.jtlv.BDDPackage.BBDPackageVersion;
+import tau.smlab.syntech.jtlv.Env;
+import tau.smlab.syntech.spectragameinput.SpectraInputProvider;
+
+/**
+ * Guarantee cores of the bundled unrealizable specifications (folder specs, or the system property specs.dir).
+ * The specification is loaded again before every invocation, outside of the measurement, so every run starts from a fresh BDD factory.
+ * Checks, actual checks and the peak number of live BDD nodes are reported as secondary results.
+ * The live nodes are sampled after every actual check (see NodePeak).
+ * 
+ * @author shalom
+ *
+ */
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SpecBenchmark {
+
+	@Param({ "Arbiter", "Lamp", "Counter" })
+	public String spec;
+
+	@Param({ "JTLV" })
+	public String bddPackage;
+
+	private GameModel gm = null;
+	// comparison of the last allCoresCompared invocation, printed after the measurement
+	private String comparison = null;
+
+	/**
+	 * Secondary results of an iteration (a single invocation in this mode)
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counts {
+		public long checks;
+		public long actualChecks;
+		public long cores;
+		public long bddNodesPeak;
+		public long punchActualChecks;
+		public long marcoActualChecks;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			checks = actualChecks = cores = bddNodesPeak = punchActualChecks = marcoActualChecks = 0;
+		}
+	}
+
+	/**
+	 * Samples the live BDD nodes whenever a checker reports a built and solved game
+	 */
+	private static class NodePeak extends CheckTelemetry {
+		private final BDDFactory factory;
+		private long peak = 0;
+
+		private NodePeak() {
+			BDD one = Env.TRUE();
+			factory = one.getFactory();
+			one.free();
+		}
+
+		@Override
+		public synchronized void game(long nanos) {
+			super.game(nanos);
+			peak = Math.max(peak, factory.getNodeNum());
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void load() throws Exception {
+		BDDPackage pkg = BDDPackage.valueOf(bddPackage);
+		BDDPackage.setCurrPackage(pkg, pkg.equals(BDDPackage.CUDD) ? BBDPackageVersion.CUDD_3_0 : BBDPackageVersion.DEFAULT);
+		RealizabilityCheck.useCUDD = pkg.equals(BDDPackage.CUDD);
+		GR1GameExperiments.WITH_MEMORY = false;
+		Env.resetEnv();
+
+		File file = new File(System.getProperty("specs.dir", "specs"), spec + ".spectra");
+		GameInput gi = SpectraInputProvider.getGameInput(file.getPath());
+		TranslationProvider.translate(gi);
+		gm = BDDGenerator.generateGameModel(gi, TraceInfo.ALL);
+	}
+
+	@TearDown(Level.Invocation)
+	public void free() {
+		gm.free();
+		if (comparison != null) {
+			System.out.println(spec + ": " + comparison);
+			comparison = null;
+		}
+	}
+
+	@Benchmark
+	public List<Integer> quickCore(Counts counts) {
+		final IncrementalSysBuilder builder = new IncrementalSysBuilder(gm);
+		IntChecker check = new IntChecker() {
+			protected boolean check(int[] sys) {
+				long start = System.nanoTime();
+				GameModel m = builder.build(IntSets.toList(sys));
+				long built = System.nanoTime();
+				boolean res = !RealizabilityCheck.isRealizable(m);
+				builtAndSolved(built - start, System.nanoTime() - built);
+				return res;
+			}
+		};
+		NodePeak peak = new NodePeak();
+		check.setTelemetry(peak);
+		List<Integer> core = new QuickCore(gm, builder, check, MinimizerType.DDMIN).minimize(new TraceIdentifier(gm).getSysTraces());
+		builder.free();
+		count(counts, check, 1, peak);
+		return core;
+	}
+
+	@Benchmark
+	public List<List<Integer>> allCoresPunch(Counts counts) {
+		AllUnrealizebleCores all = new AllUnrealizebleCores(gm, true);
+		NodePeak peak = new NodePeak();
+		all.getChecker().setTelemetry(peak);
+		all.computeAllCores(new SysTraceInfoBuilder(gm).getTraceList());
+		count(counts, all.getChecker(), all.getCoreData().getAllCores().size(), peak);
+		return all.getCoreData().getAllCores();
+	}
+
+	@Benchmark
+	public List<List<Integer>> allCoresMarco(Counts counts) {
+		AllUnrealizebleCores all = new AllUnrealizebleCores(gm, true);
+		NodePeak peak = new NodePeak();
+		all.getChecker().setTelemetry(peak);
+		AllCoresMarco<Integer> marco = all.computeAllCoresMarco(new SysTraceInfoBuilder(gm).getTraceList());
+		count(counts, all.getChecker(), marco.getStats().cores, peak);
+		return all.getCoreData().getAllCores();
+	}
+
+	/**
+	 * PUNCH and MARCO on the same specification, each with a fresh checker so neither gains from the memo of the other.
+	 * The actual checks of each are reported as secondary results, and the comparison of MARCO is printed after the invocation.
+	 */
+	@Benchmark
+	public String allCoresCompared(Counts counts) {
+		List<Integer> traces = new SysTraceInfoBuilder(gm).getTraceList();
+		NodePeak peak = new NodePeak();
+		AllUnrealizebleCores punch = new AllUnrealizebleCores(gm, true);
+		punch.getChecker().setTelemetry(peak);
+		punch.computeAllCores(new ArrayList<Integer>(traces));
+		AllUnrealizebleCores all = new AllUnrealizebleCores(gm, true);
+		all.getChecker().setTelemetry(peak);
+		AllCoresMarco<Integer> marco = all.computeAllCoresMarco(traces);
+		counts.punchActualChecks += punch.actualChecks();
+		counts.marcoActualChecks += marco.actualChecks();
+		counts.cores += marco.getStats().cores;
+		counts.bddNodesPeak = Math.max(counts.bddNodesPeak, peak.peak);
+		comparison = marco.comparison(punch);
+		return comparison;
+	}
+
+	private void count(Counts counts, Checker<Integer> c, int cores, NodePeak peak) {
+		counts.checks += c.getChecks();
+		counts.actualChecks += c.getActualChecks();
+		counts.cores += cores;
+		counts.bddNodesPeak = Math.max(counts.bddNodesPeak, peak.peak);
+	}
+}
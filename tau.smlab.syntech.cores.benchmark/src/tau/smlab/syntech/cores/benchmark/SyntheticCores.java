@@ -0,0 +1,124 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import tau.smlab.syntech.cores.util.Checker;
+import tau.smlab.syntech.cores.util.IntChecker;
+import tau.smlab.syntech.cores.util.IntSets;
+
+/**
+ * Monotone checks with planted cores: a set is positive iff it contains one of the cores.
+ * Every actual check burns a configurable amount of CPU to simulate the latency of a realizability check.
+ * 
+ * @author shalom
+ *
+ */
+
+public class SyntheticCores {
+
+	private int[][] cores = null;
+	private long latency = 0;
+
+	/**
+	 * @param elements number of elements 0..elements-1
+	 * @param coreSize size of every planted core
+	 * @param numCores number of planted cores
+	 * @param latency tokens of CPU work per actual check (see Blackhole.consumeCPU)
+	 * @param seed
+	 */
+	public SyntheticCores(int elements, int coreSize, int numCores, long latency, long seed) {
+		Random r = new Random(seed);
+		cores = new int[numCores][];
+		for (int i = 0; i < numCores; i++) {
+			List<Integer> core = new ArrayList<Integer>();
+			while (core.size() < Math.min(coreSize, elements)) {
+				int e = r.nextInt(elements);
+				if (!core.contains(e)) {
+					core.add(e);
+				}
+			}
+			cores[i] = IntSets.of(core);
+		}
+		this.latency = latency;
+	}
+
+	public List<Integer> elements(int elements) {
+		List<Integer> all = new ArrayList<Integer>();
+		for (int i = 0; i < elements; i++) {
+			all.add(i);
+		}
+		return all;
+	}
+
+	/**
+	 * @param part sorted
+	 * @return true if part contains a planted core
+	 */
+	public boolean check(int[] part) {
+		if (latency > 0) {
+			Blackhole.consumeCPU(latency);
+		}
+		for (int[] core : cores) {
+			if (IntSets.minus(core, part).length == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return a checker with the generic memo
+	 */
+	public Checker<Integer> checker() {
+		return new Checker<Integer>() {
+			@Override
+			protected boolean check(List<Integer> part) {
+				return SyntheticCores.this.check(IntSets.of(part));
+			}
+		};
+	}
+
+	/**
+	 * @return a checker with the int memo
+	 */
+	public IntChecker intChecker() {
+		return new IntChecker() {
+			@Override
+			protected boolean check(int[] part) {
+				return SyntheticCores.this.check(part);
+			}
+		};
+	}
+}
@@ -30,17 +30,27 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 
 import static tau.smlab.syntech.cores.ui.Activator.PLUGIN_NAME;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
 
 import tau.smlab.syntech.bddgenerator.BDDGenerator;
 import tau.smlab.syntech.bddgenerator.BDDGenerator.TraceInfo;
@@ -63,14 +73,31 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import tau.smlab.syntech.ui.extension.SyntechAction;
 import tau.smlab.syntech.ui.jobs.MarkerKind;
 import tau.smlab.syntech.ui.preferences.PreferencePage;
+import tau.smlab.syntech.cores.AllCoresBase;
+import tau.smlab.syntech.cores.AllCoresMarco;
 import tau.smlab.syntech.cores.AllCoresPunchAlgorithm;
 import tau.smlab.syntech.cores.AllUnrealizebleCores;
 import tau.smlab.syntech.cores.DdminUnrealizableVarsCore;
 import tau.smlab.syntech.cores.QuickCore;
+import tau.smlab.syntech.cores.domainagnostic.IntMinimizer;
+import tau.smlab.syntech.cores.domainagnostic.IntMinimizerFactory;
+import tau.smlab.syntech.cores.domainagnostic.MinimizerType;
+import tau.smlab.syntech.cores.util.CheckBudget;
+import tau.smlab.syntech.cores.util.CheckTelemetry;
+import tau.smlab.syntech.cores.util.CheckWorker;
 import tau.smlab.syntech.cores.util.Checker;
+import tau.smlab.syntech.cores.util.CoreListener;
 import tau.smlab.syntech.cores.util.CoreOutput;
+import tau.smlab.syntech.cores.util.IncrementalSysBuilder;
+import tau.smlab.syntech.cores.util.IntChecker;
+import tau.smlab.syntech.cores.util.IntSets;
+import tau.smlab.syntech.cores.util.PersistentMemo;
+import tau.smlab.syntech.cores.util.PooledChecker;
 import tau.smlab.syntech.cores.util.RealizabilityCheck;
 import tau.smlab.syntech.cores.util.RealizabilityCheck.GameType;
+import tau.smlab.syntech.cores.util.SearchBudget;
+import tau.smlab.syntech.cores.util.WarmStartRealizability;
+import tau.smlab.syntech.cores.util.WorkerPool;
 
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
@@ -86,9 +113,18 @@ public class CoreMenu extends SyntechAction<CoresActionID> {
 
 	private static List<Integer> traceIDListInCore = new ArrayList<Integer>();
 	private static TraceIdentifier ti = null;
+	private static PersistentMemo memo = null;
+	private static CheckTelemetry telemetry = null;
+	private static MinimizerType minimizer = MinimizerType.DDMIN;
 
 	protected static IFile previousFileWithMarkers = null;
 
+	// classes that check workers load from bundles other than the cores bundle
+	private static final String[] WORKER_CLASSES = { "tau.smlab.syntech.gameinput.model.GameInput",
+			"tau.smlab.syntech.bddgenerator.BDDGenerator", "tau.smlab.syntech.gamemodel.GameModel",
+			"tau.smlab.syntech.games.gr1.GR1Game", "tau.smlab.syntech.games.rabin.RabinGame",
+			"tau.smlab.syntech.jtlv.Env", "net.sf.javabdd.BDD" };
+
 	@Override
 	public String getPluginName() {
 		return PLUGIN_NAME;
@@ -136,10 +172,21 @@ public void run(CoresActionID actionID, IFile specFile) {
 		PreferencePage.setOptSelection();
 
 		boolean quickCore = tau.smlab.syntech.cores.ui.preferences.PreferencePage.getUseQuickCore();
+		boolean marco = tau.smlab.syntech.cores.ui.preferences.PreferencePage.useMarco();
 		RealizabilityCheck.checkType = (tau.smlab.syntech.cores.ui.preferences.PreferencePage.useGR1Realizability())
 				? GameType.GR1_GAME
 				: GameType.RABIN_GAME;
 		RealizabilityCheck.useCUDD = PreferencePage.getBDDPackageSelection().equals(BDDPackage.CUDD);
+		RealizabilityCheck.useWarmStart = tau.smlab.syntech.cores.ui.preferences.PreferencePage.useWarmStart();
+
+		// fingerprints are computed before any builder changes the model
+		memo = tau.smlab.syntech.cores.ui.preferences.PreferencePage.usePersistentMemo()
+				? new PersistentMemo(gm, specFile.getFullPath().toString(),
+						Activator.getDefault().getStateLocation().append("memo").toFile())
+				: null;
+		telemetry = tau.smlab.syntech.cores.ui.preferences.PreferencePage.getTelemetryFormat().equals("NONE") ? null
+				: new CheckTelemetry();
+		minimizer = MinimizerType.valueOf(tau.smlab.syntech.cores.ui.preferences.PreferencePage.getCoreMinimizer());
 
 		boolean realizable = RealizabilityCheck.isRealizable(gm);
 
@@ -191,6 +238,7 @@ public void writeCore(List<Integer> c, int checks, int actual) {
 
 				DdminUnrealizableVarsCore varsMinimizer = new DdminUnrealizableVarsCore(builder.build(coreGars));
 				List<ModuleBDDField> coreVars = varsMinimizer.minimize(gm.getSys().getNonAuxFields());
+				varsMinimizer.free();
 				if (!coreVars.isEmpty()) {
 					consolePrinter.printlnAndLog(specFile, actionID.toString(),
 							"Found " + coreVars.size() + " unrealizable core system variables.");
@@ -231,14 +279,22 @@ public boolean check(List<Integer> part) {
 						"Specification is not realizable. Cannot compute assumptions cores.");
 			} else {
 				final EnvTraceInfoBuilder ebuilder = new EnvTraceInfoBuilder(gm);
-				AllCoresPunchAlgorithm<Integer> all = new AllCoresPunchAlgorithm<Integer>(new Checker<Integer>() {
+				Checker<Integer> asmCheck = new Checker<Integer>() {
 					@Override
 					public boolean check(List<Integer> part) {
 						return RealizabilityCheck.isRealizable(ebuilder.build(part));
 					}
-				});
+				};
+				asmCheck.setTelemetry(telemetry);
+				AllCoresBase<Integer> all = marco ? new AllCoresMarco<Integer>(asmCheck)
+						: new AllCoresPunchAlgorithm<Integer>(asmCheck);
 				all.setCoreOutput(allCoresOutputLog);
+				all.setBudget(budget());
+				addProgress(all);
 				all.computeAllCores(ebuilder.getTraceList());
+				if (marco) {
+					printMarcoStats((AllCoresMarco<Integer>) all);
+				}
 				List<List<Integer>> allCores = all.getCoreData().getAllCores();
 
 				consolePrinter.println("\nFinal results:\n");
@@ -269,9 +325,27 @@ public boolean check(List<Integer> part) {
 				consolePrinter.printlnAndLog(specFile, actionID.toString(),
 						"Specification is realizable. Cannot compute guarantees core.");
 			} else {
-				AllUnrealizebleCores glb = new AllUnrealizebleCores(gm, quickCore);
-
-				glb.computeAllCores(builder.getTraceList());
+				WorkerPool pool = startWorkers(gi);
+				AllUnrealizebleCores glb = pool == null ? new AllUnrealizebleCores(gm, quickCore)
+						: new AllUnrealizebleCores(gm, quickCore, new PooledChecker(pool));
+				glb.setMinimizerType(minimizer);
+				glb.setBudget(budget());
+				addProgress(glb);
+
+				glb.getChecker().setTelemetry(telemetry);
+				glb.getChecker().setCheckBudget(checkBudget());
+				loadMemo(glb.getChecker());
+				try {
+					if (marco) {
+						printMarcoStats(glb.computeAllCoresMarco(builder.getTraceList()));
+					} else {
+						glb.computeAllCores(builder.getTraceList());
+					}
+				} finally {
+					stopWorkers(pool);
+				}
+				saveMemo(glb.getChecker());
+				printDeferred(glb.getChecker());
 				List<Integer> globalCore = glb.getCoreData().getGlobalCore();
 				consolePrinter.printlnAndLog(specFile, actionID.toString(),
 						"Found a global unrealizable core with " + globalCore.size() + " elements, at lines "
@@ -336,10 +410,28 @@ public boolean check(List<Integer> part) {
 				consolePrinter.printlnAndLog(specFile, actionID.toString(),
 						"Specification is realizable. Cannot compute guarantees core.");
 			} else {
-				AllUnrealizebleCores all = new AllUnrealizebleCores(gm, quickCore);
+				WorkerPool pool = startWorkers(gi);
+				AllUnrealizebleCores all = pool == null ? new AllUnrealizebleCores(gm, quickCore)
+						: new AllUnrealizebleCores(gm, quickCore, new PooledChecker(pool));
+				all.setMinimizerType(minimizer);
 				all.setCoreOutput(allCoresOutputLog);
-
-				all.computeAllCores(builder.getTraceList());
+				all.setBudget(budget());
+				addProgress(all);
+
+				all.getChecker().setTelemetry(telemetry);
+				all.getChecker().setCheckBudget(checkBudget());
+				loadMemo(all.getChecker());
+				try {
+					if (marco) {
+						printMarcoStats(all.computeAllCoresMarco(builder.getTraceList()));
+					} else {
+						all.computeAllCores(builder.getTraceList());
+					}
+				} finally {
+					stopWorkers(pool);
+				}
+				saveMemo(all.getChecker());
+				printDeferred(all.getChecker());
 				List<List<Integer>> allCores = all.getCoreData().getAllCores();
 
 				consolePrinter.println("\nFinal results:\n");
@@ -368,6 +460,7 @@ public boolean check(List<Integer> part) {
 		default:
 			break;
 		}
+		writeTelemetry(specFile, actionID);
 		gm.free();
 		GR1GameExperiments.WITH_MEMORY = prevUseMemory; // restore previous choice
 	}
@@ -382,27 +475,227 @@ public boolean check(List<Integer> part) {
 	 * @return
 	 */
 	private List<Integer> computeGarCore(GameModel gm, SysTraceInfoBuilder builder, boolean quickCore) {
-		Checker<Integer> check = new Checker<Integer>() {
-			protected boolean check(List<Integer> sys) {
-				return !RealizabilityCheck.isRealizable(builder.build(sys));
+		final WarmStartRealizability warm = RealizabilityCheck.useWarmStart ? new WarmStartRealizability() : null;
+		final IncrementalSysBuilder incBuilder = new IncrementalSysBuilder(gm);
+		IntChecker check = new IntChecker() {
+			protected boolean check(int[] sys) {
+				long start = System.nanoTime();
+				GameModel m = incBuilder.build(IntSets.toList(sys));
+				long built = System.nanoTime();
+				RealizabilityCheck.Result res = warm != null ? warm.check(m, sys, checkBudget) : RealizabilityCheck.check(m, checkBudget);
+				builtAndSolved(built - start, System.nanoTime() - built);
+				return res == RealizabilityCheck.Result.UNKNOWN ? unknown() : res == RealizabilityCheck.Result.UNREALIZABLE;
 			}
 		};
+		check.setTelemetry(telemetry);
+		check.setCheckBudget(checkBudget());
+		loadMemo(check);
 		List<Integer> coreGars = new ArrayList<Integer>();
 		if (quickCore) {
-			QuickCore qc = new QuickCore(gm, check);
-			coreGars.addAll(qc.minimize(ti.getSysTraces()));
+			coreGars.addAll(check.minimizeWithRetries(part -> new QuickCore(gm, incBuilder, check, minimizer).minimize(part), ti.getSysTraces()));
 		} else {
-			AbstractDdmin<Integer> ucmin = new AbstractDdmin<Integer>() {
-				@Override
-				public boolean check(List<Integer> part) {
-					return !RealizabilityCheck.isRealizable(builder.build(part));
-				}
-			};
-			coreGars.addAll(ucmin.minimize(builder.getTraceList()));
+			IntMinimizer m = new IntMinimizerFactory().makeMinimizer(minimizer, check);
+			coreGars.addAll(check.minimizeWithRetries(m::minimize, builder.getTraceList()));
 		}
+		printDeferred(check);
+		saveMemo(check);
+		if (warm != null) {
+			warm.free();
+		}
+		incBuilder.free();
 		return coreGars;
 	}
 
+	/**
+	 * register results of realizability checks of guarantees from previous runs, if enabled
+	 * 
+	 * @param check
+	 */
+	private void loadMemo(IntChecker check) {
+		if (memo != null) {
+			int loaded = memo.load(check);
+			if (loaded > 0) {
+				consolePrinter.println("Reusing " + loaded + " realizability checks from previous runs.");
+			}
+		}
+	}
+
+	/**
+	 * Start processes that check realizability in parallel, if enabled. Each one is given the loaded specification.
+	 * 
+	 * @param gi the translated specification
+	 * @return the workers, or null if checks are done in this process
+	 */
+	private WorkerPool startWorkers(GameInput gi) {
+		int size = tau.smlab.syntech.cores.ui.preferences.PreferencePage.getCheckWorkers();
+		if (size <= 0) {
+			return null;
+		}
+		try {
+			WorkerPool pool = new WorkerPool(size, workerClassPath(), gi,
+					PreferencePage.getBDDPackageSelection(), PreferencePage.getBDDPackageVersionSelection());
+			consolePrinter.println("Checking realizability in " + size + " parallel processes.");
+			return pool;
+		} catch (IOException e) {
+			consolePrinter.println("Could not start realizability check processes (" + e.getMessage() + "), checking in Eclipse.");
+			return null;
+		}
+	}
+
+	private void stopWorkers(WorkerPool pool) {
+		if (pool != null) {
+			pool.free();
+		}
+	}
+
+	/**
+	 * The workers need the bundles of the classes they load (see WORKER_CLASSES) and the bundles these require.
+	 * The requirements of the cores bundle itself are not followed, since most of them are for Eclipse.
+	 * 
+	 * @return
+	 */
+	private String workerClassPath() {
+		Bundle cores = FrameworkUtil.getBundle(CheckWorker.class);
+		Set<Bundle> bundles = new LinkedHashSet<Bundle>();
+		bundles.add(cores);
+		for (String name : WORKER_CLASSES) {
+			try {
+				addRequired(FrameworkUtil.getBundle(cores.loadClass(name)), bundles);
+			} catch (ClassNotFoundException e) {
+				// not installed, the worker cannot use it either
+			}
+		}
+		List<String> cp = new ArrayList<String>();
+		for (Bundle b : bundles) {
+			try {
+				File f = FileLocator.getBundleFile(b);
+				cp.add(f.getAbsolutePath());
+				File bin = new File(f, "bin"); // bundles from the workspace when running in a development environment
+				if (bin.isDirectory()) {
+					cp.add(bin.getAbsolutePath());
+				}
+			} catch (IOException e) {
+				// bundles without a location are not needed
+			}
+		}
+		return String.join(File.pathSeparator, cp);
+	}
+
+	/**
+	 * add b and, recursively, the bundles that its wiring requires
+	 * 
+	 * @param b
+	 * @param bundles
+	 */
+	private void addRequired(Bundle b, Set<Bundle> bundles) {
+		if (b == null || b.getBundleId() == 0 || !bundles.add(b)) {
+			return; // the system bundle is the JVM of the worker
+		}
+		BundleWiring wiring = b.adapt(BundleWiring.class);
+		if (wiring == null) {
+			return;
+		}
+		for (BundleWire w : wiring.getRequiredWires(null)) {
+			addRequired(w.getProviderWiring().getBundle(), bundles);
+		}
+	}
+
+	/**
+	 * @return the budget for all cores computations from the preferences, null if unlimited
+	 */
+	private SearchBudget budget() {
+		int seconds = tau.smlab.syntech.cores.ui.preferences.PreferencePage.getAllCoresTimeLimit();
+		int checks = tau.smlab.syntech.cores.ui.preferences.PreferencePage.getAllCoresMaxChecks();
+		if (seconds <= 0 && checks <= 0) {
+			return null;
+		}
+		return new SearchBudget(Math.max(seconds, 0) * 1000L, Math.max(checks, 0));
+	}
+
+	/**
+	 * @return limits of every realizability check from the preferences, or null for no limit
+	 */
+	private CheckBudget checkBudget() {
+		int millis = tau.smlab.syntech.cores.ui.preferences.PreferencePage.getCheckTimeLimit();
+		int nodes = tau.smlab.syntech.cores.ui.preferences.PreferencePage.getCheckMaxNodes();
+		if (millis <= 0 && nodes <= 0) {
+			return null;
+		}
+		return new CheckBudget(Math.max(millis, 0), Math.max(nodes, 0));
+	}
+
+	private void printDeferred(Checker<Integer> c) {
+		if (c.getDeferredChecks() > 0) {
+			consolePrinter.printlnAndLog(specFile, actionID.toString(), c.getDeferredChecks()
+					+ " realizability checks exceeded the check budget (" + c.getCheckBudget() + ") and were deferred. "
+					+ (c.getUnresolved() == 0 ? "All were resolved with larger budgets."
+							: c.getUnresolved() + " remained unknown, so results may not be minimal."));
+		}
+	}
+
+	/**
+	 * report the progress of an all cores search as cores are found, and why it stopped if it did not complete
+	 */
+	private void addProgress(final AllCoresBase<Integer> all) {
+		all.addListener(new CoreListener<Integer>() {
+			private int found = 0;
+
+			@Override
+			public void coreFound(List<Integer> core, int checks, int actualChecks) {
+				found++;
+				consolePrinter.println("Found " + found + (found == 1 ? " core" : " cores") + " so far ("
+						+ actualChecks + " realizability checks).");
+			}
+
+			@Override
+			public void searchEnded(boolean complete, String reason, int pending) {
+				if (!complete) {
+					consolePrinter.printlnAndLog(specFile, actionID.toString(), "Stopped early (" + reason
+							+ ") after finding " + found + " cores. Results are partial; " + pending
+							+ " parts of the search were not completed.");
+				}
+			}
+		});
+	}
+
+	private void printMarcoStats(AllCoresMarco<Integer> marco) {
+		consolePrinter.println("MARCO explored " + marco.getStats().seeds + " seeds (" + marco.getStats().cores + " cores, "
+				+ marco.getStats().maximalSets + " maximal sets) with " + marco.checks() + " checks, "
+				+ marco.actualChecks() + " actual.");
+	}
+
+	/**
+	 * write statistics of the checks of this run, if enabled, to the state location of the plug-in
+	 * 
+	 * @param specFile
+	 * @param actionID
+	 */
+	private void writeTelemetry(IFile specFile, CoresActionID actionID) {
+		if (telemetry == null || telemetry.getActualChecks() == 0) {
+			return;
+		}
+		boolean json = tau.smlab.syntech.cores.ui.preferences.PreferencePage.getTelemetryFormat().equals("JSON");
+		File folder = Activator.getDefault().getStateLocation().append("telemetry").toFile();
+		folder.mkdirs();
+		File file = new File(folder, specFile.getName() + "-" + actionID + "-" + System.currentTimeMillis() + (json ? ".json" : ".csv"));
+		try (PrintStream out = new PrintStream(file)) {
+			if (json) {
+				telemetry.writeJson(out);
+			} else {
+				telemetry.writeCsv(out);
+			}
+			consolePrinter.println("Check statistics written to " + file.getAbsolutePath());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void saveMemo(IntChecker check) {
+		if (memo != null) {
+			memo.save(check);
+		}
+	}
+
 	private void writeSpecElements(List<Integer> elems, MarkerKind k, boolean mark) {
 		try {
 			for (Integer b : elems) {
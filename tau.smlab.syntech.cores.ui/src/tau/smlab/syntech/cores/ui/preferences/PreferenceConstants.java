@@ -33,4 +33,24 @@ public class PreferenceConstants {
 	public static final String USE_QUICKCORE = "QuickCore";
 	
 	public static final String REALIZABILITY_CHECK = "Check";
+
+	public static final String PERSISTENT_MEMO = "PersistentMemo";
+
+	public static final String WARM_START = "WarmStart";
+
+	public static final String ALL_CORES_ALGORITHM = "AllCoresAlgorithm";
+
+	public static final String ALL_CORES_TIME_LIMIT = "AllCoresTimeLimit";
+
+	public static final String ALL_CORES_MAX_CHECKS = "AllCoresMaxChecks";
+
+	public static final String CHECK_WORKERS = "CheckWorkers";
+
+	public static final String TELEMETRY = "Telemetry";
+
+	public static final String CORE_MINIMIZER = "CoreMinimizer";
+
+	public static final String CHECK_TIME_LIMIT = "CheckTimeLimit";
+
+	public static final String CHECK_MAX_NODES = "CheckMaxNodes";
 }
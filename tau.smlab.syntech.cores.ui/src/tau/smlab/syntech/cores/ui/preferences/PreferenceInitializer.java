@@ -48,6 +48,16 @@ public void initializeDefaultPreferences() {
 		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
 		store.setDefault(PreferenceConstants.USE_QUICKCORE, true);
 		store.setDefault(PreferenceConstants.REALIZABILITY_CHECK, "GR(1)");
+		store.setDefault(PreferenceConstants.PERSISTENT_MEMO, true);
+		store.setDefault(PreferenceConstants.WARM_START, false);
+		store.setDefault(PreferenceConstants.ALL_CORES_ALGORITHM, "PUNCH");
+		store.setDefault(PreferenceConstants.ALL_CORES_TIME_LIMIT, 0);
+		store.setDefault(PreferenceConstants.ALL_CORES_MAX_CHECKS, 0);
+		store.setDefault(PreferenceConstants.CHECK_WORKERS, 0);
+		store.setDefault(PreferenceConstants.TELEMETRY, "NONE");
+		store.setDefault(PreferenceConstants.CORE_MINIMIZER, "DDMIN");
+		store.setDefault(PreferenceConstants.CHECK_TIME_LIMIT, 0);
+		store.setDefault(PreferenceConstants.CHECK_MAX_NODES, 0);
 	}
 
 }
\ No newline at end of file
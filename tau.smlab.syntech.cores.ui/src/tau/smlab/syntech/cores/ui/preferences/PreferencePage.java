@@ -30,6 +30,7 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.RadioGroupFieldEditor;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
@@ -62,6 +63,16 @@ public PreferencePage() {
 
 	private BooleanFieldEditor useQC;
 	private RadioGroupFieldEditor game;
+	private BooleanFieldEditor persistentMemo;
+	private BooleanFieldEditor warmStart;
+	private RadioGroupFieldEditor allCores;
+	private IntegerFieldEditor timeLimit;
+	private IntegerFieldEditor maxChecks;
+	private IntegerFieldEditor checkWorkers;
+	private RadioGroupFieldEditor telemetry;
+	private RadioGroupFieldEditor minimizer;
+	private IntegerFieldEditor checkTimeLimit;
+	private IntegerFieldEditor checkMaxNodes;
 
 	public void createFieldEditors() {
 		useQC = new BooleanFieldEditor(PreferenceConstants.USE_QUICKCORE,
@@ -71,8 +82,52 @@ public void createFieldEditors() {
 					new String[][] { { "GR(1)", "GR1" }, { "Rabin", "RABIN" }},
 					getFieldEditorParent(), true);
 		
+		persistentMemo = new BooleanFieldEditor(PreferenceConstants.PERSISTENT_MEMO,
+				"Remember realizability checks of guarantees between runs", getFieldEditorParent());
+
+		warmStart = new BooleanFieldEditor(PreferenceConstants.WARM_START,
+				"Start GR(1) checks from winning regions of previous checks", getFieldEditorParent());
+
+		allCores = new RadioGroupFieldEditor(PreferenceConstants.ALL_CORES_ALGORITHM, "Algorithm to use for computing all cores", 1,
+					new String[][] { { "PUNCH", "PUNCH" }, { "MARCO", "MARCO" }},
+					getFieldEditorParent(), true);
+
+		timeLimit = new IntegerFieldEditor(PreferenceConstants.ALL_CORES_TIME_LIMIT,
+				"Stop computing all cores after seconds (0 for no limit)", getFieldEditorParent());
+
+		maxChecks = new IntegerFieldEditor(PreferenceConstants.ALL_CORES_MAX_CHECKS,
+				"Stop computing all cores after realizability checks (0 for no limit)", getFieldEditorParent());
+
+		checkWorkers = new IntegerFieldEditor(PreferenceConstants.CHECK_WORKERS,
+				"Parallel realizability check processes for all cores (0 to check in Eclipse)", getFieldEditorParent());
+
+		telemetry = new RadioGroupFieldEditor(PreferenceConstants.TELEMETRY, "Write statistics of realizability checks after each run", 1,
+					new String[][] { { "No", "NONE" }, { "JSON", "JSON" }, { "CSV", "CSV" }},
+					getFieldEditorParent(), true);
+
+		minimizer = new RadioGroupFieldEditor(PreferenceConstants.CORE_MINIMIZER, "Minimizer to use for core searches", 1,
+					new String[][] { { "DDMin", "DDMIN" }, { "Linear", "LINEARMIN" }, { "QuickXplain", "QUICKXPLAIN" },
+							{ "Adaptive (chosen by a probe of the checks)", "ADAPTIVE" }},
+					getFieldEditorParent(), true);
+
+		checkTimeLimit = new IntegerFieldEditor(PreferenceConstants.CHECK_TIME_LIMIT,
+				"Defer a realizability check after milliseconds (0 for no limit)", getFieldEditorParent());
+
+		checkMaxNodes = new IntegerFieldEditor(PreferenceConstants.CHECK_MAX_NODES,
+				"Defer a realizability check above live BDD nodes (0 for no limit)", getFieldEditorParent());
+
 		addField(useQC);
 		addField(game);
+		addField(persistentMemo);
+		addField(warmStart);
+		addField(allCores);
+		addField(timeLimit);
+		addField(maxChecks);
+		addField(checkWorkers);
+		addField(telemetry);
+		addField(minimizer);
+		addField(checkTimeLimit);
+		addField(checkMaxNodes);
 	}
 
   /*
@@ -87,6 +142,68 @@ public static boolean getUseQuickCore() {
 		return Activator.getDefault().getPreferenceStore().getBoolean(PreferenceConstants.USE_QUICKCORE);
 	}
 	
+	public static boolean usePersistentMemo() {
+		return Activator.getDefault().getPreferenceStore().getBoolean(PreferenceConstants.PERSISTENT_MEMO);
+	}
+	
+	public static boolean useWarmStart() {
+		return Activator.getDefault().getPreferenceStore().getBoolean(PreferenceConstants.WARM_START);
+	}
+	
+	public static boolean useMarco() {
+		return Activator.getDefault().getPreferenceStore().getString(PreferenceConstants.ALL_CORES_ALGORITHM)
+				.equals("MARCO");
+	}
+	
+	/**
+	 * @return time limit for all cores in seconds, 0 for no limit
+	 */
+	public static int getAllCoresTimeLimit() {
+		return Activator.getDefault().getPreferenceStore().getInt(PreferenceConstants.ALL_CORES_TIME_LIMIT);
+	}
+	
+	/**
+	 * @return limit on realizability checks for all cores, 0 for no limit
+	 */
+	public static int getAllCoresMaxChecks() {
+		return Activator.getDefault().getPreferenceStore().getInt(PreferenceConstants.ALL_CORES_MAX_CHECKS);
+	}
+	
+	/**
+	 * @return number of worker processes for realizability checks, 0 for checking in this process
+	 */
+	public static int getCheckWorkers() {
+		return Activator.getDefault().getPreferenceStore().getInt(PreferenceConstants.CHECK_WORKERS);
+	}
+	
+	/**
+	 * @return NONE, JSON or CSV
+	 */
+	public static String getTelemetryFormat() {
+		return Activator.getDefault().getPreferenceStore().getString(PreferenceConstants.TELEMETRY);
+	}
+	
+	/**
+	 * @return name of a MinimizerType
+	 */
+	public static String getCoreMinimizer() {
+		return Activator.getDefault().getPreferenceStore().getString(PreferenceConstants.CORE_MINIMIZER);
+	}
+	
+	/**
+	 * @return time limit of a single realizability check in milliseconds, 0 for no limit
+	 */
+	public static int getCheckTimeLimit() {
+		return Activator.getDefault().getPreferenceStore().getInt(PreferenceConstants.CHECK_TIME_LIMIT);
+	}
+	
+	/**
+	 * @return limit on live BDD nodes during a realizability check, 0 for no limit
+	 */
+	public static int getCheckMaxNodes() {
+		return Activator.getDefault().getPreferenceStore().getInt(PreferenceConstants.CHECK_MAX_NODES);
+	}
+	
 	public static boolean useGR1Realizability() {
 		return Activator.getDefault().getPreferenceStore().getString(PreferenceConstants.REALIZABILITY_CHECK)
 				.equals("GR1");
@@ -35,21 +35,31 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
  * Abstract class for algorithms that compute and return all cores and a global core
  * It has a check performed by a checker for memoization. The check should be monotonic.
  * The checker has statistics for the number of all checks of the property, and checks actually performed.
+ * Cores are passed to listeners as soon as they are found. With a budget the search may stop early (anytime), 
+ * keeping the cores found so far and reporting how much of the search space was left unexplored.
  * 
  * @author shalom
  */
 
+import java.util.ArrayList;
 import java.util.List;
 
+import tau.smlab.syntech.cores.util.CheckBudget;
 import tau.smlab.syntech.cores.util.Checker;
 import tau.smlab.syntech.cores.util.CoreData;
+import tau.smlab.syntech.cores.util.CoreListener;
 import tau.smlab.syntech.cores.util.CoreOutput;
+import tau.smlab.syntech.cores.util.SearchBudget;
 
 public abstract class AllCoresBase<T> {
 
 	protected CoreData<T> data = null;
 	protected CoreOutput<T> output = null;
 	protected Checker<T> checker = null;
+	protected List<CoreListener<T>> listeners = new ArrayList<CoreListener<T>>();
+	protected SearchBudget budget = null;
+	protected String stopReason = null;
+	protected int pending = 0;
 	
 	protected AllCoresBase(Checker<T> c) {
 		data = new CoreData<T>();
@@ -68,7 +78,48 @@ public CoreData<T> getCoreData() {
 		return data;
 	}
 	
+	public void addListener(CoreListener<T> listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Limit the search. When the budget is used up the search stops with the cores found so far.
+	 * 
+	 * @param budget null for no limit
+	 */
+	public void setBudget(SearchBudget budget) {
+		this.budget = budget;
+		checker.setBudget(budget);
+	}
+	
+	/**
+	 * @return true if the last search found all cores
+	 */
+	public boolean isComplete() {
+		return stopReason == null;
+	}
+	
+	/**
+	 * @return why the last search stopped early, or null if it is complete
+	 */
+	public String getStopReason() {
+		return stopReason;
+	}
+	
+	/**
+	 * @return the parts of the search space the last search did not (fully) explore. 
+	 * Its meaning depends on the algorithm, 0 if complete.
+	 */
+	public int getPending() {
+		return pending;
+	}
+	
 	protected void start() {
+		stopReason = null;
+		pending = 0;
+		if (budget!=null) {
+			budget.start(actualChecks());
+		}
 		if (output!=null) {
 			output.writeBegin();
 		}
@@ -79,6 +130,23 @@ protected void registerCore(List<T> core) {
 		if (output!=null) {
 			output.writeCore(core, checks(), actualChecks());
 		}
+		for (CoreListener<T> l : listeners) {
+			l.coreFound(core, checks(), actualChecks());
+		}
+	}
+	
+	/**
+	 * The search stopped because the budget is exhausted
+	 * 
+	 * @param e
+	 * @param pending unexplored parts of the search space
+	 */
+	protected void stopped(SearchBudget.Exhausted e, int pending) {
+		stopReason = e.getMessage();
+		this.pending = pending;
+		if (output!=null) {
+			output.writeStopped(stopReason, pending, checks(), actualChecks());
+		}
 	}
 
 	protected void setIntersection(List<T> inter) {
@@ -92,6 +160,9 @@ protected void setIntersection(List<T> inter) {
 	}
 	
 	protected void end() {
+		for (CoreListener<T> l : listeners) {
+			l.searchEnded(isComplete(), stopReason, pending);
+		}
 		if (output!=null) {
 			output.writeEnd();
 		}
@@ -123,5 +194,32 @@ public int actualChecks() {
 	protected boolean acCheck(List<T> part) {
 		return checker.wrappedCheck(part);
 	}
+	
+	/**
+	 * Check via the checker and, while the check is deferred (see CheckBudget), check again with a larger check budget
+	 * 
+	 * @param part
+	 * @return the check, false if still deferred
+	 */
+	protected boolean acCheckRetrying(List<T> part) {
+		boolean res = acCheck(part);
+		CheckBudget initial = checker.getCheckBudget();
+		for (int retry = 0; retry < Checker.MAX_RETRIES && checker.isDeferred(part); retry++) {
+			checker.setCheckBudget(checker.getCheckBudget().larger());
+			res = acCheck(part);
+		}
+		checker.setCheckBudget(initial);
+		return res;
+	}
+
+	/**
+	 * Check independent parts via the checker, which may check them in parallel
+	 * 
+	 * @param parts
+	 * @return the check of every part
+	 */
+	protected boolean[] acCheckAll(List<List<T>> parts) {
+		return checker.wrappedCheckAll(parts);
+	}
 
 }
@@ -0,0 +1,273 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import tau.smlab.syntech.checks.ddmin.AbstractDdmin;
+import tau.smlab.syntech.cores.util.Checker;
+import tau.smlab.syntech.cores.util.SearchBudget;
+
+/**
+ * A second algorithm for all cores and the cores intersection, following MARCO (Liffiton et al., "Fast, flexible MUS enumeration").
+ * 
+ * We keep a map of the explored part of the power set: every found core blocks all its supersets, 
+ * and every maximal set that does not satisfy the check blocks all its subsets.
+ * Each round takes a maximal unexplored seed from the map. If it satisfies the check we minimize it to a new core, 
+ * otherwise it is a maximal set that does not satisfy the check (because all its supersets contain cores).
+ * So every seed is explored once, and we stop when the map has no unexplored seed.
+ * 
+ * The map is explicit (no SAT solver). A seed is found by a backtracking search over the elements that prefers adding elements.
+ * The check must be monotone.
+ * A seed check that exceeds the check budget of the checker is retried at once with larger budgets, and stops the search if it remains unknown.
+ * 
+ * @author shalom
+ *
+ * @param <T>
+ */
+public class AllCoresMarco<T> extends AllCoresBase<T> {
+
+	private List<T> elements = null;
+	// indices of elements of each core (the seed must miss one of them)
+	private List<int[]> coreClauses = null;
+	// indices of elements outside each maximal set (the seed must contain one of them)
+	private List<int[]> mssClauses = null;
+	private Stats stats = null;
+
+	public class Stats {
+		public int seeds;
+		public int cores;
+		public int maximalSets;
+	}
+
+	public AllCoresMarco(Checker<T> c) {
+		super(c);
+		stats = new Stats();
+	}
+
+	public Stats getStats() {
+		return stats;
+	}
+
+	@Override
+	public void computeAllCores(List<T> superSet) {
+		start();
+		elements = new ArrayList<T>(superSet);
+		coreClauses = new ArrayList<int[]>();
+		mssClauses = new ArrayList<int[]>();
+
+		try {
+			enumerate();
+			setIntersection(intersection());
+		} catch (SearchBudget.Exhausted e) {
+			stopped(e, 1); // the map still has unexplored seeds
+		}
+		end();
+	}
+
+	private void enumerate() {
+		boolean[] seed;
+		while ((seed = nextSeed()) != null) {
+			stats.seeds++;
+			List<T> seedSet = toSet(seed);
+			if (acCheckRetrying(seedSet)) {
+				List<T> core = new ArrayList<T>(checker.minimizeWithRetries(this::minimize, seedSet));
+				registerCore(core);
+				checker.register(true, core); // cores are added to the set of positives for memoization
+				coreClauses.add(indices(core, true));
+				stats.cores++;
+			} else if (checker.isDeferred(seedSet)) {
+				// the seed can be neither blocked nor minimized
+				throw new SearchBudget.Exhausted("the check of a seed exceeded the check budget");
+			} else {
+				// all supersets of a maximal seed are blocked, i.e., contain a core
+				mssClauses.add(indices(seedSet, false));
+				stats.maximalSets++;
+			}
+		}
+	}
+
+	/**
+	 * Minimize a seed that satisfies the check to a core. The default is ddmin.
+	 * 
+	 * @param seed
+	 * @return a core
+	 */
+	protected List<T> minimize(List<T> seed) {
+		AbstractDdmin<T> minimizer = new AbstractDdmin<T>() {
+			@Override
+			protected boolean check(List<T> part) {
+				return acCheck(part);
+			}
+		};
+		return minimizer.minimize(seed);
+	}
+
+	/**
+	 * A report that compares the checks of this run with another all cores algorithm (e.g., PUNCH) run on the same elements
+	 * 
+	 * @param other
+	 * @return
+	 */
+	public String comparison(AllCoresBase<T> other) {
+		return "MARCO: " + data.getAllCores().size() + " cores, " + checks() + " checks, " + actualChecks() + " actual checks, "
+				+ stats.seeds + " seeds; other: " + other.getCoreData().getAllCores().size() + " cores, " + other.checks()
+				+ " checks, " + other.actualChecks() + " actual checks; same cores: " + sameCores(other.getCoreData().getAllCores());
+	}
+
+	private boolean sameCores(List<List<T>> others) {
+		Set<Set<T>> mine = new HashSet<Set<T>>();
+		for (List<T> c : data.getAllCores()) {
+			mine.add(new HashSet<T>(c));
+		}
+		Set<Set<T>> theirs = new HashSet<Set<T>>();
+		for (List<T> c : others) {
+			theirs.add(new HashSet<T>(c));
+		}
+		return mine.equals(theirs);
+	}
+
+	private List<T> intersection() {
+		List<T> inter = new ArrayList<T>(elements);
+		for (List<T> core : data.getAllCores()) {
+			inter.retainAll(core);
+		}
+		return data.getAllCores().isEmpty() ? new ArrayList<T>() : inter;
+	}
+
+	/**
+	 * Search for an unexplored seed and grow it to a maximal one
+	 * 
+	 * @return null if the map has no unexplored seed
+	 */
+	private boolean[] nextSeed() {
+		boolean[] in = new boolean[elements.size()];
+		if (!search(in, 0)) {
+			return null;
+		}
+		// adding elements never breaks a maximal set clause, so only core clauses must be kept
+		for (int i = 0; i < in.length; i++) {
+			if (!in[i]) {
+				in[i] = true;
+				if (!missesAllCores(in, in.length)) {
+					in[i] = false;
+				}
+			}
+		}
+		return in;
+	}
+
+	/**
+	 * backtracking search that decides elements in order and prefers adding them
+	 */
+	private boolean search(boolean[] in, int next) {
+		if (!missesAllCores(in, next) || !mayHitAllMaximalSets(in, next)) {
+			return false;
+		}
+		if (next == in.length) {
+			return true;
+		}
+		in[next] = true;
+		if (search(in, next + 1)) {
+			return true;
+		}
+		in[next] = false;
+		return search(in, next + 1);
+	}
+
+	/**
+	 * @return false iff the first decided elements already contain a core
+	 */
+	private boolean missesAllCores(boolean[] in, int decided) {
+		for (int[] core : coreClauses) {
+			boolean contained = true;
+			for (int i : core) {
+				if (i >= decided || !in[i]) {
+					contained = false;
+					break;
+				}
+			}
+			if (contained) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return false iff the first decided elements already exclude all elements outside some maximal set
+	 */
+	private boolean mayHitAllMaximalSets(boolean[] in, int decided) {
+		for (int[] outside : mssClauses) {
+			boolean hit = false;
+			for (int i : outside) {
+				if (i >= decided || in[i]) {
+					hit = true;
+					break;
+				}
+			}
+			if (!hit) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private List<T> toSet(boolean[] in) {
+		List<T> res = new ArrayList<T>();
+		for (int i = 0; i < in.length; i++) {
+			if (in[i]) {
+				res.add(elements.get(i));
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * @param set
+	 * @param inside true for indices of elements in the set, false for those outside of it
+	 * @return
+	 */
+	private int[] indices(List<T> set, boolean inside) {
+		List<Integer> res = new ArrayList<Integer>();
+		for (int i = 0; i < elements.size(); i++) {
+			if (set.contains(elements.get(i)) == inside) {
+				res.add(i);
+			}
+		}
+		int[] arr = new int[res.size()];
+		for (int i = 0; i < arr.length; i++) {
+			arr[i] = res.get(i);
+		}
+		return arr;
+	}
+}
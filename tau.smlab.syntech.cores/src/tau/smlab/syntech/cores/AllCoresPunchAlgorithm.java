@@ -32,7 +32,9 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.List;
 
 import tau.smlab.syntech.checks.ddmin.AbstractDdmin;
+import tau.smlab.syntech.cores.util.CheckBudget;
 import tau.smlab.syntech.cores.util.Checker;
+import tau.smlab.syntech.cores.util.SearchBudget;
 
 /**
  * This is a general algorithm for all cores and global cores computation (I named it "PUNCH algorithm")
@@ -41,6 +43,10 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
  * The core can be found in other ways than ddmin if one overrides "minimize" - must be a local minimum
  * Memoization using lists of known results is used in order to avoid unnecessary checks.
  * 
+ * With a budget the search may stop early. Then pending is the number of subtrees of the recursion that were not completed.
+ * With a check budget of the checker, a punched set whose check is deferred (see CheckBudget) is explored after the rest of the search,
+ * with larger check budgets. Subtrees that remain deferred are pending and the search is not complete.
+ * 
  * Important! Order on T and List<T> for Memoization (implemented in Checker) is defined with toString representation and assumes the string is different for different values
  * 
  * 
@@ -50,16 +56,78 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
  */
 public class AllCoresPunchAlgorithm<T> extends AllCoresBase<T> {
 
+	/**
+	 * a punched set whose check was deferred, with the base of its subtree
+	 */
+	private class Deferred {
+		private List<T> set;
+		private List<T> base;
+		private T punched;
+		private boolean top;
+
+		private Deferred(List<T> set, List<T> base, T punched, boolean top) {
+			this.set = set;
+			this.base = base;
+			this.punched = punched;
+			this.top = top;
+		}
+	}
+
+	private List<Deferred> deferred = new ArrayList<Deferred>();
+	// the intersection waits for deferred checks of the top level
+	private List<T> topBase = null;
+
 	public AllCoresPunchAlgorithm(Checker<T> c) {
 		super(c);
 	}
 	
 	public void computeAllCores(List<T> superSet) {
 		start();
-		computeCoresWithBase(superSet, new ArrayList<T>());
+		pending = 1;
+		// the deferred subtrees of this search (the deferred parts of the checker are kept by the checker)
+		deferred = new ArrayList<Deferred>();
+		topBase = null;
+		try {
+			computeCoresWithBase(superSet, new ArrayList<T>());
+			pending--;
+			retryDeferred();
+			if (topBase != null) {
+				setIntersection(topBase);
+			}
+			if (!deferred.isEmpty()) {
+				stopped(new SearchBudget.Exhausted(deferred.size() + " checks exceeded the check budget"), pending);
+			}
+		} catch (SearchBudget.Exhausted e) {
+			stopped(e, pending);
+		}
 		end();
 	}
 
+	/**
+	 * explore the subtrees of deferred punched sets with larger check budgets
+	 */
+	private void retryDeferred() {
+		CheckBudget initial = checker.getCheckBudget();
+		for (int retry = 0; retry < Checker.MAX_RETRIES && !deferred.isEmpty(); retry++) {
+			checker.setCheckBudget(checker.getCheckBudget().larger());
+			List<Deferred> toRetry = deferred;
+			deferred = new ArrayList<Deferred>();
+			for (Deferred d : toRetry) {
+				if (acCheck(d.set)) {
+					computeCoresWithBase(d.set, d.base);
+				} else if (checker.isDeferred(d.set)) {
+					deferred.add(d);
+					continue;
+				} else if (d.top) {
+					// every core contains the punched element
+					topBase.add(d.punched);
+				}
+				pending--;
+			}
+		}
+		checker.setCheckBudget(initial);
+	}
+
 	protected void computeCoresWithBase(List<T> superSet, List<T> base) {
 		List<T> aCore = findCore(new ArrayList<T>(superSet), base);
 		List<T> continuing = new ArrayList<T>();
@@ -69,14 +137,34 @@ protected void computeCoresWithBase(List<T> superSet, List<T> base) {
 		List<T> coreWithoutBase = new ArrayList<T>(aCore);
 		coreWithoutBase.removeAll(base);
 
+		// punched sets are independent, so the checker may check them in parallel
+		List<List<T>> punched = new ArrayList<List<T>>();
 		for (T elem : coreWithoutBase) {
-			(acCheck(punch(superSet, elem)) ? continuing : newBase).add(elem);
+			punched.add(punch(superSet, elem));
+		}
+		boolean[] results = acCheckAll(punched);
+		List<Integer> later = new ArrayList<Integer>();
+		for (int i = 0; i < results.length; i++) {
+			if (!results[i] && checker.isDeferred(punched.get(i))) {
+				later.add(i);
+			} else {
+				(results[i] ? continuing : newBase).add(coreWithoutBase.get(i));
+			}
 		}
 		
-		setIntersection(newBase);
-
+		boolean top = topBase == null && !data.hasCoresIntersection();
+		if (top && !later.isEmpty()) {
+			topBase = new ArrayList<T>(newBase);
+		} else if (topBase == null) {
+			setIntersection(newBase);
+		}
+		for (int i : later) {
+			deferred.add(new Deferred(punched.get(i), newBase, coreWithoutBase.get(i), top));
+		}
+		pending += later.size() + continuing.size();
 		for (T contElem : continuing) {
 			computeCoresWithBase(punch(superSet, contElem), newBase);
+			pending--;
 		}
 	}
 
@@ -95,7 +183,7 @@ protected List<T> findCore(List<T> set, List<T> base) {
 		}
 		
 		if (found==null) {
-			found = new ArrayList<T>(minimize(set, base));
+			found = new ArrayList<T>(checker.minimizeWithRetries(s -> minimize(new ArrayList<T>(s), base), set));
 			found.addAll(base);
 
 			registerCore(found);
@@ -32,18 +32,28 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.ArrayList;
 import java.util.List;
 
-import tau.smlab.syntech.cores.util.Checker;
+import tau.smlab.syntech.cores.domainagnostic.IntDdmin;
+import tau.smlab.syntech.cores.domainagnostic.IntMinimizerFactory;
+import tau.smlab.syntech.cores.domainagnostic.MinimizerType;
+import tau.smlab.syntech.cores.util.CheckTelemetry;
 import tau.smlab.syntech.cores.util.CoreOutput;
+import tau.smlab.syntech.cores.util.IncrementalSysBuilder;
+import tau.smlab.syntech.cores.util.IntChecker;
+import tau.smlab.syntech.cores.util.IntSets;
 import tau.smlab.syntech.cores.util.RealizabilityCheck;
+import tau.smlab.syntech.cores.util.WarmStartRealizability;
 import tau.smlab.syntech.gamemodel.GameModel;
-import tau.smlab.syntech.gamemodel.util.SysTraceInfoBuilder;
 import tau.smlab.syntech.gamemodel.util.TraceIdentifier;
-import tau.smlab.syntech.gamemodel.util.TraceInfoBuilder;
 
 /**
  * This class is an extension of the punch algorithm for unrealizable cores
  * The Checker implements the unrealizability check and performs memoization and check counting
- * Allows use of QuickCore instead of ddmin for core searches
+ * The checker and ddmin use the int specialization (IntChecker, IntDdmin) for trace IDs
+ * The system module is built incrementally from the checked traces (see IncrementalSysBuilder)
+ * Allows use of QuickCore instead of ddmin for core searches, and of another minimizer type (e.g., ADAPTIVE) in both
+ * All cores can also be computed with MARCO (see AllCoresMarco) instead of PUNCH, with the same checker and core data
+ * If RealizabilityCheck.useWarmStart is set, checks start from the winning regions of earlier checks
+ * With a check budget of the checker, checks that exceed it are deferred and retried with larger budgets (see Checker)
  * 
  * @author shalom
  *
@@ -51,20 +61,89 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 
 public class AllUnrealizebleCores extends AllCoresPunchAlgorithm<Integer> {
 
-	private static TraceInfoBuilder builder = null;
+	private static IncrementalSysBuilder builder = null;
+	private static WarmStartRealizability warm = null;
 	private boolean useQuickCore;
+	private MinimizerType mtype = MinimizerType.DDMIN;
 	
 	public AllUnrealizebleCores(GameModel gm, boolean useQuickCore) {
-		super(new Checker<Integer>() {
-			protected boolean check(List<Integer> sys) {
-				return !RealizabilityCheck.isRealizable(builder.build(sys));	
+		this(gm, useQuickCore, new IntChecker() {
+			protected boolean check(int[] sys) {
+				long start = System.nanoTime();
+				GameModel m = builder.build(IntSets.toList(sys));
+				long built = System.nanoTime();
+				RealizabilityCheck.Result res = warm != null ? warm.check(m, sys, checkBudget) : RealizabilityCheck.check(m, checkBudget);
+				builtAndSolved(built - start, System.nanoTime() - built);
+				return res == RealizabilityCheck.Result.UNKNOWN ? unknown() : res == RealizabilityCheck.Result.UNREALIZABLE;
 			}
 		});
+	}
+
+	/**
+	 * @param gm
+	 * @param useQuickCore
+	 * @param checker checks that sets of guarantees of gm are unrealizable, e.g., a PooledChecker
+	 */
+	public AllUnrealizebleCores(GameModel gm, boolean useQuickCore, IntChecker checker) {
+		super(checker);
 
 		this.useQuickCore = useQuickCore;
-		builder = new SysTraceInfoBuilder(gm);
+		builder = new IncrementalSysBuilder(gm);
+		warm = RealizabilityCheck.useWarmStart ? new WarmStartRealizability() : null;
+	}
+
+	/**
+	 * @param mtype minimizer of core searches (also inside QuickCore), DDMIN by default
+	 */
+	public void setMinimizerType(MinimizerType mtype) {
+		this.mtype = mtype;
+	}
+
+	/**
+	 * Compute all cores with MARCO instead of PUNCH. Cores are registered in the core data of this object.
+	 * 
+	 * @param superSet
+	 * @return the MARCO engine for its statistics
+	 */
+	public AllCoresMarco<Integer> computeAllCoresMarco(List<Integer> superSet) {
+		AllCoresMarco<Integer> marco = new AllCoresMarco<Integer>(checker) {
+			@Override
+			protected List<Integer> minimize(List<Integer> seed) {
+				return AllUnrealizebleCores.this.minimize(seed, new ArrayList<Integer>());
+			}
+		};
+		marco.data = data;
+		marco.setCoreOutput(output);
+		marco.listeners = listeners;
+		marco.budget = budget;
+		marco.computeAllCores(superSet);
+		stopReason = marco.stopReason;
+		pending = marco.pending;
+		release();
+		return marco;
+	}
+
+	@Override
+	protected void end() {
+		release();
+		super.end();
+	}
+
+	private void release() {
+		if (warm != null) {
+			warm.free();
+		}
+		builder.restore();
+		builder.free();
 	}
 	
+	/**
+	 * @return the checker, e.g., for loading and saving its memo
+	 */
+	public IntChecker getChecker() {
+		return (IntChecker) checker;
+	}
+
 	@Override
 	public void setCoreOutput(String specName, PrintStream out) {
 		output = new CoreOutput<Integer>(specName, out) {
@@ -80,11 +159,61 @@ protected List<Integer> minimize(List<Integer> set, List<Integer> base) {
 		return useQuickCore ? quickCore(set, base) : ddmin(set, base);
 	}
 	
+	@Override
+	protected List<Integer> ddmin(List<Integer> set, List<Integer> base) {
+		final IntChecker c = (IntChecker) checker;
+		final int[] baseSet = IntSets.of(base);
+		if (mtype != MinimizerType.DDMIN) {
+			IntChecker withBase = new IntChecker() {
+				@Override
+				protected boolean check(int[] part) {
+					int[] union = IntSets.union(baseSet, part);
+					if (c.wrappedCheck(union)) {
+						return true;
+					}
+					// a deferred check of the union is not a result to memoize for part
+					return c.isDeferred(IntSets.toList(union)) ? unknown() : false;
+				}
+
+				@Override
+				public int firstPositive(int[][] parts) {
+					return c.firstPositive(withBase(baseSet, parts));
+				}
+
+				@Override
+				public CheckTelemetry getTelemetry() {
+					return c.getTelemetry();
+				}
+			};
+			return IntSets.toList(new IntMinimizerFactory().makeMinimizer(mtype, withBase).minimize(IntSets.minus(IntSets.of(set), baseSet)));
+		}
+		IntDdmin minimizer = new IntDdmin() {
+			@Override
+			protected boolean check(int[] part) {
+				return c.wrappedCheck(IntSets.union(baseSet, part));
+			}
+
+			@Override
+			protected int firstPositive(int[][] parts) {
+				return c.firstPositive(withBase(baseSet, parts));
+			}
+		};
+		return IntSets.toList(minimizer.minimize(IntSets.minus(IntSets.of(set), baseSet)));
+	}
+
+	private static int[][] withBase(int[] baseSet, int[][] parts) {
+		int[][] withBase = new int[parts.length][];
+		for (int i = 0; i < parts.length; i++) {
+			withBase[i] = IntSets.union(baseSet, parts[i]);
+		}
+		return withBase;
+	}
+
 	private List<Integer> quickCore(List<Integer> set, List<Integer> base) {
 		List<Integer> min = new ArrayList<Integer>(base);
 
 		// use the same checker so we count also checks by QuickCore
-		QuickCore qc = new QuickCore(builder.restore(), checker);
+		QuickCore qc = new QuickCore(builder.restore(), builder, checker, mtype);
 		qc.setBase(base);
 		set.removeAll(base);
 		min = qc.minimize(set);
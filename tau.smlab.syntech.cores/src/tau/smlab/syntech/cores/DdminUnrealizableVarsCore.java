@@ -32,14 +32,16 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.List;
 
 import tau.smlab.syntech.checks.ddmin.AbstractDdmin;
+import tau.smlab.syntech.cores.util.QuantifiedSysCache;
 import tau.smlab.syntech.cores.util.RealizabilityCheck;
 import tau.smlab.syntech.gamemodel.GameModel;
-import tau.smlab.syntech.gamemodel.util.GameBuilderUtil;
 import tau.smlab.syntech.jtlv.env.module.ModuleBDDField;
 
 /**
  * minimizes set of variables that keep system unrealizable given a minimized
  * set of guarantees.
+ * The system module is quantified via a QuantifiedSysCache, so every check only quantifies the variables 
+ * that are not already quantified in a cached subset of the removed variables.
  * 
  * @author shalom
  * 
@@ -49,6 +51,7 @@ public class DdminUnrealizableVarsCore extends AbstractDdmin<ModuleBDDField> {
 
 	private GameModel model;
 	private List<ModuleBDDField> sysVars;
+	private QuantifiedSysCache cache;
 
 	/**
 	 * This has to be filled by the caller in order to make realizability checks standard and menu opt. sensitive.
@@ -71,6 +74,7 @@ public boolean realizable(GameModel gm) {
 	public DdminUnrealizableVarsCore(GameModel model) {
 		this.model = model;
 		this.sysVars = model.getSys().getNonAuxFields();
+		this.cache = new QuantifiedSysCache(model, sysVars);
 	}
 
 	/**
@@ -84,9 +88,23 @@ protected boolean check(List<ModuleBDDField> part) {
 		List<ModuleBDDField> vars = new ArrayList<ModuleBDDField>(sysVars);
 		vars.removeAll(part);
 
-		GameBuilderUtil.buildQuantifiedSys(model, vars);
+		cache.build(vars);
 
 		return !realizable(model);
 	}
 
+	/**
+	 * @return the cache of quantified system modules, e.g., for its statistics
+	 */
+	public QuantifiedSysCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * free the cached BDDs
+	 */
+	public void free() {
+		cache.free();
+	}
+
 }
@@ -31,16 +31,19 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.ArrayList;
 import java.util.List;
 
+import net.sf.javabdd.BDD;
 import tau.smlab.syntech.checks.ddmin.Minimizer;
-import tau.smlab.syntech.cores.domainagnostic.MinimizerFactory;
+import tau.smlab.syntech.cores.domainagnostic.IntMinimizerFactory;
 import tau.smlab.syntech.cores.domainagnostic.MinimizerType;
+import tau.smlab.syntech.cores.util.CheckTelemetry;
 import tau.smlab.syntech.cores.util.Checker;
+import tau.smlab.syntech.cores.util.IncrementalSysBuilder;
+import tau.smlab.syntech.cores.util.IniMinimizer;
+import tau.smlab.syntech.cores.util.IntChecker;
+import tau.smlab.syntech.cores.util.IntSets;
 import tau.smlab.syntech.gamemodel.GameModel;
 import tau.smlab.syntech.gamemodel.util.EnvTraceInfoBuilder;
-import tau.smlab.syntech.gamemodel.util.SysTraceInfoBuilder;
 import tau.smlab.syntech.gamemodel.util.TraceIdentifier;
-import tau.smlab.syntech.games.gr1.GR1GameExperiments;
-import tau.smlab.syntech.games.gr1.GR1GameImplC;
 
 /**
  * Computes an unrealizable core of specified sys behaviors
@@ -52,6 +55,9 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
  * Inis are minimized using the win region
  * Optional base set of guarantees to build on. Note: Must be a subset of _all_ cores
  * Allows statistics about running times and number of realizability checks.
+ * Internal minimizations run on the int specialization (IntChecker) and so does the given checker if it is an IntChecker.
+ * The system module is built incrementally (see IncrementalSysBuilder). A builder given by the caller is shared with its checker and stays owned by the caller,
+ * otherwise QuickCore creates one and frees its cached BDDs at the end of minimize.
  * 
  * 
  * @author shalom
@@ -63,7 +69,8 @@ public class QuickCore implements Minimizer<Integer> {
 	private GameModel gm = null;
 	private Checker<Integer> checker = null;
 	private TraceIdentifier ti = null;
-	private SysTraceInfoBuilder builder = null;
+	private IncrementalSysBuilder builder = null;
+	private boolean ownBuilder = false;
 	private List<Integer> nonJust = null;
 	private List<Integer> justs = null;
 	private List<Integer> ini = null;
@@ -71,7 +78,7 @@ public class QuickCore implements Minimizer<Integer> {
 	private List<Integer> base = null; // those must be in the core we find, and not in the part we ask to minimize, nor in the result
 	private Stats stats = null;
 	private MinimizerType mtype = null;
-	private MinimizerFactory<Integer> factory = null; 
+	private IntMinimizerFactory factory = null; 
 	
 	public class Stats {
 		public long iniTime;
@@ -86,17 +93,28 @@ public QuickCore(GameModel gm, Checker<Integer> c) {
 	}
 	
 	public QuickCore(GameModel gm, Checker<Integer> c, MinimizerType t) {
+		this(gm, null, c, t);
+	}
+
+	/**
+	 * @param gm
+	 * @param builder builder of gm, e.g., the one the checker builds with (not freed by QuickCore), null to create one
+	 * @param c
+	 * @param t
+	 */
+	public QuickCore(GameModel gm, IncrementalSysBuilder builder, Checker<Integer> c, MinimizerType t) {
 		this.gm = gm;
 		checker = c;
 		ti = new TraceIdentifier(gm);
-		builder = new SysTraceInfoBuilder(gm);
+		ownBuilder = builder == null;
+		this.builder = ownBuilder ? new IncrementalSysBuilder(gm) : builder;
 		nonJust = new ArrayList<Integer>();
 		justs = new ArrayList<Integer>();
 		ini = new ArrayList<Integer>();
 		newEnv = new ArrayList<Integer>();
 		base = new ArrayList<Integer>();
 		mtype = t;
-		factory = new MinimizerFactory<Integer>();
+		factory = new IntMinimizerFactory();
 	}
 
 	/**
@@ -127,22 +145,36 @@ public Stats getStats() {
 	 * @return
 	 */
 	public List<Integer> minimize(List<Integer> part) {
-		if (stats!=null) {
-			long startTime = System.currentTimeMillis();
-			minimizeJustices(part);
-			stats.justTime = System.currentTimeMillis() - startTime;
-			stats.justChecks = checker.getChecks();
-			stats.justActualChecks = checker.getActualChecks();
-			startTime = System.currentTimeMillis();
-			minimizeSafe();
-			stats.safeTime = System.currentTimeMillis() - startTime;
-			startTime = System.currentTimeMillis();
-			minimizeIni();
-			stats.iniTime = System.currentTimeMillis() - startTime;
-		} else {
-			minimizeJustices(part);
-			minimizeSafe();
-			minimizeIni();
+		CheckTelemetry telemetry = checker.getTelemetry();
+		long phaseStart = System.nanoTime();
+		try {
+			if (stats!=null) {
+				long startTime = System.currentTimeMillis();
+				minimizeJustices(part);
+				phaseStart = phase(telemetry, "QuickCore justices", phaseStart);
+				stats.justTime = System.currentTimeMillis() - startTime;
+				stats.justChecks = checker.getChecks();
+				stats.justActualChecks = checker.getActualChecks();
+				startTime = System.currentTimeMillis();
+				minimizeSafe();
+				phaseStart = phase(telemetry, "QuickCore safeties", phaseStart);
+				stats.safeTime = System.currentTimeMillis() - startTime;
+				startTime = System.currentTimeMillis();
+				minimizeIni();
+				phase(telemetry, "QuickCore initials", phaseStart);
+				stats.iniTime = System.currentTimeMillis() - startTime;
+			} else {
+				minimizeJustices(part);
+				phaseStart = phase(telemetry, "QuickCore justices", phaseStart);
+				minimizeSafe();
+				phaseStart = phase(telemetry, "QuickCore safeties", phaseStart);
+				minimizeIni();
+				phase(telemetry, "QuickCore initials", phaseStart);
+			}
+		} finally {
+			if (ownBuilder) {
+				builder.free(); // also when the checker's budget is exhausted
+			}
 		}
 		
 		List<Integer> min = new ArrayList<Integer>(nonJust);
@@ -150,6 +182,19 @@ public List<Integer> minimize(List<Integer> part) {
  		return min;
 	}
 
+	/**
+	 * record a phase that started at start, if telemetry is collected
+	 * 
+	 * @return the end of the phase
+	 */
+	private long phase(CheckTelemetry telemetry, String name, long start) {
+		long end = System.nanoTime();
+		if (telemetry != null) {
+			telemetry.phase(name, end - start);
+		}
+		return end;
+	}
+
 	private void minimizeJustices(List<Integer> part) {
 		checkCondition(!part.removeAll(base), "Base and part must be disjoint"); //verify that base and part are not intersected
 		checkCondition(ti.getSysTraces().containsAll(part), "Part must be included in system"); // the part must be all sys traces
@@ -164,15 +209,8 @@ private void minimizeJustices(List<Integer> part) {
 
 		if (ti.countType(base, TraceIdentifier.Type.JUST)>0 || !unrealizable(newSys)) { // we need some of the justices for unrealizability, compute core of them alone
 			newEnv = ti.getEnvTraces(); // env remains the same
-			Minimizer<Integer> justFinder = factory.makeMinimizer(mtype, new Checker<Integer>() {
-				@Override 
-				public boolean check(List<Integer> part) {
-					List<Integer> checked = new ArrayList<Integer>(nonJust);
-					checked.addAll(base);
-					checked.addAll(part);
-					return unrealizable(checked);
-				}
-			});
+			final int[] nonJustAndBase = IntSets.of(newSys);
+			Minimizer<Integer> justFinder = factory.makeMinimizer(mtype, new WithFixed(nonJustAndBase));
 			
 			justs.addAll(justFinder.minimize(allJusts));
 			newSys.addAll(justs);
@@ -214,43 +252,37 @@ private void minimizeSafe() {
 		for (Integer t : nonJust) {
 			(ti.getType(t)==TraceIdentifier.Type.SAFE || ti.getKind(t)==TraceIdentifier.Kind.COMPLEX ? nonIni : ini).add(t);
 		}
-		Minimizer<Integer> finder = factory.makeMinimizer(mtype, new Checker<Integer>() {
-			@Override 
-			public boolean check(List<Integer> part) {
-				List<Integer> partAndJusts = new ArrayList<Integer>(justs);
-				partAndJusts.addAll(part);
-				partAndJusts.addAll(base);
-				partAndJusts.addAll(ini);
-				return unrealizable(partAndJusts);
-			}					
-		});
+		List<Integer> fixed = new ArrayList<Integer>(justs);
+		fixed.addAll(base);
+		fixed.addAll(ini);
+		final int[] justsBaseAndIni = IntSets.of(fixed);
+		Minimizer<Integer> finder = factory.makeMinimizer(mtype, new WithFixed(justsBaseAndIni));
 		nonJust = new ArrayList<Integer>(finder.minimize(nonIni));
 		nonJust.addAll(ini);
 		buildCurrSys();	
 	}
 
+	/**
+	 * The winning region is computed once for the current system (initials do not affect it),
+	 * initials are then removed with BDD checks only (see IniMinimizer)
+	 */
 	private void minimizeIni() {
-		boolean recycle = GR1GameExperiments.USE_FIXPOINT_RECYCLE;
-		boolean stop = GR1GameExperiments.STOP_WHEN_INITIALS_LOST;
-		
-		GR1GameExperiments.USE_FIXPOINT_RECYCLE = GR1GameExperiments.STOP_WHEN_INITIALS_LOST = false;
-		GR1GameExperiments game = new GR1GameImplC(gm);
-		boolean unreal = !game.checkRealizability();
-		assert(unreal);
-		for (Integer curr : new ArrayList<Integer>(ini)) {
-			nonJust.remove(curr);
-			buildCurrSys();
-			if (game.sysWinAllInitial()) {
-				nonJust.add(curr);
-			}
+		IniMinimizer iniMin = new IniMinimizer(gm);
+		assert(!iniMin.isRealizable());
+		nonJust.removeAll(ini);
+		buildCurrSys();
+		BDD fixed = gm.getSys().initial().id();
+		List<BDD> inis = new ArrayList<BDD>();
+		for (Integer t : ini) {
+			inis.add(builder.getInitial(t));
 		}
+		nonJust.addAll(iniMin.minimize(fixed, ini, inis));
+		fixed.free();
+		iniMin.free();
 		// build again according to found
 		buildCurrSys();
-		GR1GameExperiments.USE_FIXPOINT_RECYCLE = recycle;
-		GR1GameExperiments.STOP_WHEN_INITIALS_LOST = stop;
-		game.free();
 	}
-	
+
 	private void buildCurrSys() {
 		List<Integer> newSys = new ArrayList<Integer>(nonJust);
 		newSys.addAll(justs);
@@ -261,4 +293,46 @@ private void buildCurrSys() {
 	private boolean unrealizable(List<Integer> part) {
 		return checker.wrappedCheck(part);
 	}
+
+	/**
+	 * Checks parts together with fixed elements via the given checker. 
+	 * Independent parts are passed to it together, so a parallel checker can check them concurrently.
+	 */
+	private class WithFixed extends IntChecker {
+		private int[] fixed = null;
+
+		private WithFixed(int[] fixed) {
+			this.fixed = fixed;
+			setTelemetry(checker.getTelemetry());
+		}
+
+		@Override
+		protected boolean check(int[] part) {
+			int[] union = IntSets.union(fixed, part);
+			if (unrealizable(union)) {
+				return true;
+			}
+			// a deferred check of the union is not a result to memoize for part
+			return checker.isDeferred(IntSets.toList(union)) ? unknown() : false;
+		}
+
+		@Override
+		public int firstPositive(int[][] parts) {
+			if (!(checker instanceof IntChecker)) {
+				return super.firstPositive(parts);
+			}
+			int[][] withFixed = new int[parts.length][];
+			for (int i = 0; i < parts.length; i++) {
+				withFixed[i] = IntSets.union(fixed, parts[i]);
+			}
+			return ((IntChecker) checker).firstPositive(withFixed);
+		}
+	}
+
+	private boolean unrealizable(int[] part) {
+		if (checker instanceof IntChecker) {
+			return ((IntChecker) checker).wrappedCheck(part);
+		}
+		return checker.wrappedCheck(IntSets.toList(part));
+	}
 }
@@ -0,0 +1,186 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+package tau.smlab.syntech.cores.domainagnostic;
+
+/**
+ * Choice of a minimizer from a cheap probe of the checker.
+ * 
+ * The probe checks the first half of the elements and the complements of a few elements spread over the input (about sqrt(n) of them).
+ * The fraction of necessary elements among the punched ones estimates the size of the core,
+ * and the latencies of the actual checks at the two sizes give a linear model of the check cost (fixed + per element).
+ * The predicted number of checks of every type is weighted by the predicted cost of its typical check and the cheapest type is chosen.
+ * Probe results are memoized by the checker, so the chosen minimizer gets them for free.
+ * 
+ * @author shalom
+ *
+ */
+
+public class AdaptiveChoice {
+
+	/**
+	 * inputs up to this size are minimized linearly without probing
+	 */
+	public static final int SMALL = 4;
+
+	public static class Decision {
+		public final MinimizerType type;
+		public final int elements;
+		public final double coreSize;
+		public final String reason;
+
+		Decision(MinimizerType type, int elements, double coreSize, String reason) {
+			this.type = type;
+			this.elements = elements;
+			this.coreSize = coreSize;
+			this.reason = reason;
+		}
+
+		@Override
+		public String toString() {
+			return type + ": " + reason;
+		}
+	}
+
+	private final int n;
+	private int punched = 0;
+	private int necessary = 0;
+	// actual check latencies of the half (size n/2) and of the punched sets (size n-1)
+	private long halfNanos = 0;
+	private int halfChecks = 0;
+	private long punchNanos = 0;
+	private int punchChecks = 0;
+
+	/**
+	 * @param n number of elements to minimize
+	 */
+	public AdaptiveChoice(int n) {
+		this.n = n;
+	}
+
+	/**
+	 * @return indices of the elements to punch, spread evenly
+	 */
+	public int[] probeIndices() {
+		if (n <= SMALL) {
+			return new int[0];
+		}
+		int k = Math.max(2, (int) Math.sqrt(n));
+		int[] idx = new int[k];
+		for (int i = 0; i < k; i++) {
+			idx[i] = (int) ((long) i * n / k);
+		}
+		return idx;
+	}
+
+	/**
+	 * @return whether the first half should be probed
+	 */
+	public boolean probeHalf() {
+		return n > SMALL;
+	}
+
+	/**
+	 * record the check of the first half
+	 * 
+	 * @param nanos time of the check
+	 * @param actual if the check was not answered by the memo
+	 */
+	public void half(long nanos, boolean actual) {
+		if (actual) {
+			halfNanos += nanos;
+			halfChecks++;
+		}
+	}
+
+	/**
+	 * record the check of all elements but one
+	 * 
+	 * @param holds check result without the element (false means the element is in every core)
+	 * @param nanos time of the check
+	 * @param actual if the check was not answered by the memo
+	 */
+	public void punched(boolean holds, long nanos, boolean actual) {
+		punched++;
+		if (!holds) {
+			necessary++;
+		}
+		if (actual) {
+			punchNanos += nanos;
+			punchChecks++;
+		}
+	}
+
+	public Decision decide() {
+		if (n <= SMALL) {
+			return new Decision(MinimizerType.LINEARMIN, n, n, n + " elements, linear without probing");
+		}
+
+		// an element is necessary iff it is in every core. Scale the fraction to the input and count at least one.
+		double c = Math.max(1.0, (double) necessary * n / Math.max(1, punched));
+
+		// check cost model: fixed + perElement * size
+		double big = punchChecks == 0 ? 1 : (double) punchNanos / punchChecks;
+		double small = halfChecks == 0 ? big : (double) halfNanos / halfChecks;
+		double perElement = Math.max(0, (big - small) / (n - 1 - n / 2.0));
+		double fixed = Math.max(0, big - perElement * (n - 1));
+		if (fixed + perElement == 0) {
+			fixed = 1;
+		}
+
+		double log = Math.log(n) / Math.log(2);
+		double[] checks = new double[3];
+		double[] sizes = new double[3];
+		// linear: one check per element, sizes shrink from n towards c
+		checks[0] = n;
+		sizes[0] = (n + c) / 2;
+		// quickxplain: divide and conquer per core element
+		checks[1] = c + 2 * c * Math.max(1, Math.log(n / c) / Math.log(2));
+		sizes[1] = (n + c) / 2;
+		// ddmin: subsets and complements per halving, granularity grows with the core
+		checks[2] = Math.min((double) n * n, c * c + 2 * c * log);
+		sizes[2] = (n / log + c) / 2 + c;
+		MinimizerType[] types = { MinimizerType.LINEARMIN, MinimizerType.QUICKXPLAIN, MinimizerType.DDMIN };
+
+		int best = 0;
+		double[] cost = new double[3];
+		for (int i = 0; i < 3; i++) {
+			cost[i] = checks[i] * (fixed + perElement * sizes[i]);
+			if (cost[i] < cost[best]) {
+				best = i;
+			}
+		}
+
+		StringBuilder reason = new StringBuilder();
+		reason.append(String.format("%d elements, %d of %d punched necessary, core ~%.1f; check ~%.0fus + %.2fus/element; predicted",
+				n, necessary, punched, c, fixed / 1000, perElement / 1000));
+		for (int i = 0; i < 3; i++) {
+			reason.append(String.format(" %s %.0f checks %.0fus%s", types[i], checks[i], cost[i] / 1000, i < 2 ? "," : ""));
+		}
+		return new Decision(types[best], n, c, reason.toString());
+	}
+}
@@ -0,0 +1,90 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+package tau.smlab.syntech.cores.domainagnostic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tau.smlab.syntech.checks.ddmin.Minimizer;
+import tau.smlab.syntech.cores.domainagnostic.AdaptiveChoice.Decision;
+import tau.smlab.syntech.cores.util.CheckTelemetry;
+import tau.smlab.syntech.cores.util.Checker;
+
+/**
+ * Minimizer that probes the checker and continues with the minimizer predicted to be cheapest (see AdaptiveChoice).
+ * The decision is kept for the caller and added to the telemetry of the checker, if there is one.
+ * 
+ * @author shalom
+ *
+ * @param <T>
+ */
+
+public class AdaptiveMin<T> implements Minimizer<T> {
+
+	private MinimizerFactory<T> factory = null;
+	private Checker<T> c = null;
+	private Decision decision = null;
+
+	public AdaptiveMin(MinimizerFactory<T> factory, Checker<T> c) {
+		this.factory = factory;
+		this.c = c;
+	}
+
+	@Override
+	public List<T> minimize(List<T> elements) {
+		AdaptiveChoice choice = new AdaptiveChoice(elements.size());
+		if (choice.probeHalf()) {
+			List<T> half = new ArrayList<T>(elements.subList(0, elements.size() / 2));
+			int actual = c.getActualChecks();
+			long start = System.nanoTime();
+			c.wrappedCheck(half);
+			choice.half(System.nanoTime() - start, c.getActualChecks() > actual);
+		}
+		for (int i : choice.probeIndices()) {
+			List<T> punched = new ArrayList<T>(elements);
+			punched.remove(i);
+			int actual = c.getActualChecks();
+			long start = System.nanoTime();
+			boolean holds = c.wrappedCheck(punched);
+			choice.punched(holds, System.nanoTime() - start, c.getActualChecks() > actual);
+		}
+		decision = choice.decide();
+		CheckTelemetry telemetry = c.getTelemetry();
+		if (telemetry != null) {
+			telemetry.decision(decision.toString());
+		}
+		return factory.makeMinimizer(decision.type, c).minimize(elements);
+	}
+
+	/**
+	 * @return the decision of the last minimization, null before
+	 */
+	public Decision getDecision() {
+		return decision;
+	}
+}
@@ -0,0 +1,93 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.domainagnostic;
+
+import java.util.Arrays;
+
+import tau.smlab.syntech.cores.util.IntSets;
+
+/**
+ * Int specialization of ddmin (Zeller's delta debugging) over sorted int arrays
+ * 
+ * @author shalom
+ *
+ */
+
+public abstract class IntDdmin extends IntMinimizer {
+
+	@Override
+	public int[] minimize(int[] elements) {
+		return ddmin(elements, 2);
+	}
+
+	/**
+	 * split elements into n parts and look for a part or a complement of a part that satisfies the check
+	 * 
+	 * @param elements
+	 * @param n
+	 * @return
+	 */
+	private int[] ddmin(int[] elements, int n) {
+		if (elements.length <= 1) {
+			return elements;
+		}
+		int[][] parts = split(elements, n);
+
+		// parts (and complements) are independent so they are looked up together
+		int found = firstPositive(parts);
+		if (found != -1) {
+			return ddmin(parts[found], 2);
+		}
+		if (n > 2) {
+			int[][] complements = new int[n][];
+			for (int i = 0; i < n; i++) {
+				complements[i] = IntSets.minus(elements, parts[i]);
+			}
+			found = firstPositive(complements);
+			if (found != -1) {
+				return ddmin(complements[found], n - 1);
+			}
+		}
+		if (n < elements.length) {
+			return ddmin(elements, Math.min(elements.length, 2 * n));
+		}
+		return elements;
+	}
+
+	private int[][] split(int[] elements, int n) {
+		int[][] parts = new int[n][];
+		int start = 0;
+		for (int i = 0; i < n; i++) {
+			int end = start + (elements.length - start) / (n - i);
+			parts[i] = Arrays.copyOfRange(elements, start, end);
+			start = end;
+		}
+		return parts;
+	}
+}
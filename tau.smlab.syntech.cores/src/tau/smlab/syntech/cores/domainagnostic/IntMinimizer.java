@@ -0,0 +1,79 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.domainagnostic;
+
+import java.util.List;
+
+import tau.smlab.syntech.checks.ddmin.Minimizer;
+import tau.smlab.syntech.cores.util.IntSets;
+
+/**
+ * Base of the int specialization of the domain-agnostic minimizers.
+ * Sets are sorted int arrays. List based minimization is converted once so these can be used wherever a Minimizer of Integer is expected.
+ * 
+ * @author shalom
+ *
+ */
+
+public abstract class IntMinimizer implements Minimizer<Integer> {
+
+	@Override
+	public List<Integer> minimize(List<Integer> elements) {
+		return IntSets.toList(minimize(IntSets.of(elements)));
+	}
+
+	/**
+	 * @param elements sorted
+	 * @return a sorted local minimum
+	 */
+	public abstract int[] minimize(int[] elements);
+
+	/**
+	 * check if part satisfies criterion. Must be monotonic.
+	 * 
+	 * @param part sorted
+	 * @return
+	 */
+	abstract protected boolean check(int[] part);
+
+	/**
+	 * Look for a part that satisfies the check. Minimizers that use a checker may override this to check parts in parallel. 
+	 * 
+	 * @param parts sorted
+	 * @return index of the first positive part, -1 if none
+	 */
+	protected int firstPositive(int[][] parts) {
+		for (int i = 0; i < parts.length; i++) {
+			if (check(parts[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
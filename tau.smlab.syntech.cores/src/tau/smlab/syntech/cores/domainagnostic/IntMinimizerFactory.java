@@ -0,0 +1,85 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.domainagnostic;
+
+import tau.smlab.syntech.cores.util.IntChecker;
+
+/**
+ * Minimizer factory for the int specialization of the domain-agnostic minimizer algorithms
+ * 
+ * @author shalom
+ *
+ */
+
+public class IntMinimizerFactory {
+	public IntMinimizer makeMinimizer(MinimizerType type, IntChecker c) {
+		switch (type) {
+		case DDMIN:
+			return new IntDdmin() {
+
+				@Override
+				protected boolean check(int[] part) {
+					return c.wrappedCheck(part);
+				}
+				
+				@Override
+				protected int firstPositive(int[][] parts) {
+					return c.firstPositive(parts);
+				}
+				
+			};
+			
+		case LINEARMIN:
+			return new IntLinearMin() {
+
+				@Override
+				protected boolean check(int[] part) {
+					return c.wrappedCheck(part);
+				}
+				
+			};
+			
+		case QUICKXPLAIN:
+			return new IntQuickXplain() {
+
+				@Override
+				protected boolean check(int[] part) {
+					return c.wrappedCheck(part);
+				}
+				
+			};
+			
+		case ADAPTIVE:
+			return new IntAdaptiveMin(this, c);
+			
+		default:
+			return null;
+		}
+	}
+}
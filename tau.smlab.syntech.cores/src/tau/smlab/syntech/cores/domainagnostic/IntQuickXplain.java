@@ -0,0 +1,80 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.domainagnostic;
+
+import java.util.Arrays;
+
+import tau.smlab.syntech.cores.util.IntSets;
+
+/**
+ * Int specialization of AbstractQuickXplain over sorted int arrays
+ * 
+ * @author shalom
+ *
+ */
+
+public abstract class IntQuickXplain extends IntMinimizer {
+	private static final int[] EMPTY = new int[0];
+
+	@Override
+	public int[] minimize(int[] analyzed) {
+		//first see if the property holds for the empty set because minimization assumes the core is not of size zero.
+		if (check(EMPTY)) {
+			return EMPTY;
+		}
+		return minimize(analyzed, EMPTY);
+	}
+
+	public int[] minimize(int[] analyzed, int[] background) {
+		if (analyzed.length == 0) {
+			return EMPTY;
+		}
+		int[] result = quickXPlain(analyzed, background, background);
+		// For the case the whole set satisfies the constrains 
+		if (result.length == analyzed.length && !check(IntSets.union(analyzed, background))) {
+			return EMPTY;
+		}
+		return result;
+	}
+
+	private int[] quickXPlain(int[] analyzed, int[] background, int[] checkSet) {
+		if (checkSet.length != 0 && check(background)) {
+			// Background is already enough
+			return EMPTY;
+		}
+		if (analyzed.length == 1) {
+			return analyzed;
+		}
+		int k = analyzed.length / 2;
+		int[] a1 = Arrays.copyOfRange(analyzed, 0, k), a2 = Arrays.copyOfRange(analyzed, k, analyzed.length);
+		int[] res2 = quickXPlain(a2, IntSets.union(a1, background), a1);
+		int[] res1 = quickXPlain(a1, IntSets.union(res2, background), res2);
+		return IntSets.union(res1, res2);
+	}
+}
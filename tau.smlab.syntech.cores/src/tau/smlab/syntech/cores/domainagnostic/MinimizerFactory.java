@@ -74,6 +74,9 @@ protected boolean check(List<T> part) {
 				
 			};
 			
+		case ADAPTIVE:
+			return new AdaptiveMin<T>(this, c);
+			
 		default:
 			return null;
 		}
@@ -38,5 +38,9 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 public enum MinimizerType {
 	DDMIN,
 	LINEARMIN,
-	QUICKXPLAIN;
+	QUICKXPLAIN,
+	/**
+	 * probe a few elements first and continue with the type predicted to be cheapest (see AdaptiveChoice)
+	 */
+	ADAPTIVE;
 }
@@ -0,0 +1,120 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.javabdd.BDD;
+
+/**
+ * Content hash of BDDs that does not depend on node numbers, so it can be compared across sessions.
+ * The hash is computed bottom up over the BDD structure (variable index, low and high successors).
+ * It is the same for the same function as long as the variable order is the same.
+ * 
+ * @author shalom
+ *
+ */
+
+public class BDDFingerprint {
+
+	private static final long ZERO = 0x5bd1e995L;
+	private static final long ONE = 0x27d4eb2fL;
+	private static final long NULL = 0x165667b1L;
+
+	private Map<BDD, Long> seen = new HashMap<BDD, Long>();
+	private List<BDD> created = new ArrayList<BDD>();
+
+	/**
+	 * @param b may be null
+	 * @return the fingerprint of b
+	 */
+	public static long of(BDD b) {
+		if (b == null) {
+			return NULL;
+		}
+		BDDFingerprint f = new BDDFingerprint();
+		long res = f.hash(b);
+		f.free();
+		return res;
+	}
+
+	/**
+	 * Combine two hashes (order sensitive)
+	 * 
+	 * @param h
+	 * @param v
+	 * @return
+	 */
+	public static long combine(long h, long v) {
+		return mix(h * 31 + v);
+	}
+
+	private long hash(BDD b) {
+		if (b.isZero()) {
+			return ZERO;
+		}
+		if (b.isOne()) {
+			return ONE;
+		}
+		Long known = seen.get(b);
+		if (known != null) {
+			return known;
+		}
+		BDD low = b.low();
+		BDD high = b.high();
+		created.add(low);
+		created.add(high);
+		long res = combine(combine(b.var(), hash(low)), hash(high));
+		seen.put(b, res);
+		return res;
+	}
+
+	private void free() {
+		for (BDD b : created) {
+			b.free();
+		}
+		created.clear();
+		seen.clear();
+	}
+
+	/**
+	 * finalizer of MurmurHash3
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,123 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+package tau.smlab.syntech.cores.util;
+
+import net.sf.javabdd.BDD;
+
+/**
+ * Limits on a single check: wall-clock time and live BDD nodes.
+ * A budgeted check polls exceeded() between iterations of its fixpoints and gives up ("unknown") when it returns true,
+ * so a subset that blows up does not block a whole core computation (see Checker for how unknown results are deferred).
+ * A single iteration is not interrupted, so a check may exceed the limits by the time of one iteration.
+ * 
+ * Unlike SearchBudget, which limits a whole search, this limits every check separately. 
+ * Only checks that run in Java can be interrupted, see RealizabilityCheck.check. Check workers (see CheckWorker) receive the budget with every check.
+ * 
+ * @author shalom
+ *
+ */
+
+public class CheckBudget {
+
+	public static final long NO_LIMIT = 0;
+
+	/**
+	 * how much a retry enlarges the limits
+	 */
+	public static final int RETRY_FACTOR = 4;
+
+	private long timeLimit = NO_LIMIT;
+	private int maxNodes = (int) NO_LIMIT;
+	private long deadline = Long.MAX_VALUE;
+	private boolean exceeded = false;
+
+	/**
+	 * @param timeLimit milliseconds per check, or NO_LIMIT
+	 * @param maxNodes live BDD nodes, or NO_LIMIT
+	 */
+	public CheckBudget(long timeLimit, int maxNodes) {
+		this.timeLimit = timeLimit;
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * @return a budget with limits RETRY_FACTOR times larger
+	 */
+	public CheckBudget larger() {
+		return new CheckBudget(timeLimit * RETRY_FACTOR, (int) Math.min((long) maxNodes * RETRY_FACTOR, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * @return milliseconds per check, or NO_LIMIT
+	 */
+	public long getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * @return live BDD nodes, or NO_LIMIT
+	 */
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+
+	/**
+	 * @return true if there is a limit at all
+	 */
+	public boolean isLimited() {
+		return timeLimit != NO_LIMIT || maxNodes != NO_LIMIT;
+	}
+
+	/**
+	 * Start a check now
+	 */
+	public void start() {
+		deadline = timeLimit == NO_LIMIT ? Long.MAX_VALUE : System.currentTimeMillis() + timeLimit;
+		exceeded = false;
+	}
+
+	/**
+	 * Poll the budget during a check. Once exceeded it stays exceeded until the next start.
+	 * 
+	 * @param any a BDD of the check, for its factory
+	 * @return true if the check should give up
+	 */
+	public boolean exceeded(BDD any) {
+		if (!exceeded) {
+			exceeded = System.currentTimeMillis() >= deadline
+					|| (maxNodes != NO_LIMIT && any.getFactory().getNodeNum() > maxNodes);
+		}
+		return exceeded;
+	}
+
+	@Override
+	public String toString() {
+		return (timeLimit == NO_LIMIT ? "no time limit" : timeLimit + " ms") + ", "
+				+ (maxNodes == NO_LIMIT ? "no node limit" : maxNodes + " BDD nodes");
+	}
+}
@@ -0,0 +1,250 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fine grained statistics of the checks of a checker:
+ * latency histogram of actual checks, memo lookups split by positive and negative, sizes of checked parts,
+ * time spent in building the game versus solving it, named phases (e.g., of QuickCore), and decisions of adaptive minimizers.
+ * 
+ * Times are measured with System.nanoTime. Latencies are kept in buckets of powers of 2 microseconds.
+ * The statistics can be written as JSON or as CSV (one row per value).
+ * 
+ * @author shalom
+ *
+ */
+
+public class CheckTelemetry {
+
+	private static final int BUCKETS = 32;
+
+	private long[] latency = new long[BUCKETS];
+	private long checkNanos = 0;
+	private long buildNanos = 0;
+	private long gameNanos = 0;
+
+	private long posLookups = 0;
+	private long posHits = 0;
+	private long negLookups = 0;
+	private long negHits = 0;
+	private long deferred = 0;
+
+	private Map<Integer, Long> lookupSizes = new TreeMap<Integer, Long>();
+	private Map<Integer, Long> checkSizes = new TreeMap<Integer, Long>();
+	private Map<String, Long> phases = new LinkedHashMap<String, Long>();
+	private List<String> decisions = new ArrayList<String>();
+
+	/**
+	 * a memo lookup of a part
+	 * 
+	 * @param size of the part
+	 * @param posHit found a positive subset
+	 * @param negHit found a negative superset (only looked up if there is no positive subset)
+	 */
+	public synchronized void lookup(int size, boolean posHit, boolean negHit) {
+		posLookups++;
+		if (posHit) {
+			posHits++;
+		} else {
+			negLookups++;
+			if (negHit) {
+				negHits++;
+			}
+		}
+		lookupSizes.merge(size, 1L, Long::sum);
+	}
+
+	/**
+	 * an actual check
+	 * 
+	 * @param size of the part
+	 * @param nanos
+	 */
+	public synchronized void check(int size, long nanos) {
+		latency[bucket(nanos)]++;
+		checkNanos += nanos;
+		checkSizes.merge(size, 1L, Long::sum);
+	}
+
+	/**
+	 * an actual check that exceeded the check budget (see CheckBudget)
+	 */
+	public synchronized void deferred() {
+		deferred++;
+	}
+
+	/**
+	 * time spent building the game model of a check
+	 */
+	public synchronized void build(long nanos) {
+		buildNanos += nanos;
+	}
+
+	/**
+	 * time spent solving the game of a check
+	 */
+	public synchronized void game(long nanos) {
+		gameNanos += nanos;
+	}
+
+	/**
+	 * time spent in a named phase, accumulated
+	 */
+	public synchronized void phase(String name, long nanos) {
+		phases.merge(name, nanos, Long::sum);
+	}
+
+	/**
+	 * a minimizer chosen by an adaptive minimizer, with the reason
+	 */
+	public synchronized void decision(String decision) {
+		decisions.add(decision);
+	}
+
+	public synchronized List<String> getDecisions() {
+		return new ArrayList<String>(decisions);
+	}
+
+	private static int bucket(long nanos) {
+		long micros = nanos / 1000;
+		int b = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+		return Math.min(b, BUCKETS - 1);
+	}
+
+	/**
+	 * @param b
+	 * @return upper bound of bucket b in microseconds
+	 */
+	private static long bucketBound(int b) {
+		return 1L << b;
+	}
+
+	public long getActualChecks() {
+		long n = 0;
+		for (long l : latency) {
+			n += l;
+		}
+		return n;
+	}
+
+	public double posHitRate() {
+		return posLookups == 0 ? 0 : (double) posHits / posLookups;
+	}
+
+	public double negHitRate() {
+		return negLookups == 0 ? 0 : (double) negHits / negLookups;
+	}
+
+	public synchronized void writeJson(PrintStream out) {
+		out.println("{");
+		out.println("  \"actualChecks\": " + getActualChecks() + ",");
+		out.println("  \"checkMicros\": " + micros(checkNanos) + ",");
+		out.println("  \"buildMicros\": " + micros(buildNanos) + ",");
+		out.println("  \"gameMicros\": " + micros(gameNanos) + ",");
+		out.println("  \"deferredChecks\": " + deferred + ",");
+		out.println("  \"memo\": {\"posLookups\": " + posLookups + ", \"posHits\": " + posHits + ", \"posHitRate\": " + posHitRate()
+				+ ", \"negLookups\": " + negLookups + ", \"negHits\": " + negHits + ", \"negHitRate\": " + negHitRate() + "},");
+		out.print("  \"latencyMicros\": {");
+		String sep = "";
+		for (int b = 0; b < BUCKETS; b++) {
+			if (latency[b] > 0) {
+				out.print(sep + "\"<" + bucketBound(b) + "\": " + latency[b]);
+				sep = ", ";
+			}
+		}
+		out.println("},");
+		out.println("  \"lookupSizes\": " + json(lookupSizes) + ",");
+		out.println("  \"checkSizes\": " + json(checkSizes) + ",");
+		Map<String, Long> phaseMicros = new LinkedHashMap<String, Long>();
+		phases.forEach((k, v) -> phaseMicros.put(k, micros(v)));
+		out.println("  \"phaseMicros\": " + json(phaseMicros) + ",");
+		out.print("  \"decisions\": [");
+		sep = "";
+		for (String d : decisions) {
+			out.print(sep + quote(d));
+			sep = ", ";
+		}
+		out.println("]");
+		out.println("}");
+	}
+
+	/**
+	 * rows of kind,key,value
+	 * 
+	 * @param out
+	 */
+	public synchronized void writeCsv(PrintStream out) {
+		out.println("kind,key,value");
+		out.println("total,actualChecks," + getActualChecks());
+		out.println("total,checkMicros," + micros(checkNanos));
+		out.println("total,buildMicros," + micros(buildNanos));
+		out.println("total,gameMicros," + micros(gameNanos));
+		out.println("total,deferredChecks," + deferred);
+		out.println("memo,posLookups," + posLookups);
+		out.println("memo,posHits," + posHits);
+		out.println("memo,negLookups," + negLookups);
+		out.println("memo,negHits," + negHits);
+		for (int b = 0; b < BUCKETS; b++) {
+			if (latency[b] > 0) {
+				out.println("latencyMicros,<" + bucketBound(b) + "," + latency[b]);
+			}
+		}
+		lookupSizes.forEach((k, v) -> out.println("lookupSize," + k + "," + v));
+		checkSizes.forEach((k, v) -> out.println("checkSize," + k + "," + v));
+		phases.forEach((k, v) -> out.println("phaseMicros," + k + "," + micros(v)));
+		for (int i = 0; i < decisions.size(); i++) {
+			out.println("decision," + i + ",\"" + decisions.get(i).replace("\"", "\"\"") + "\"");
+		}
+	}
+
+	private static long micros(long nanos) {
+		return nanos / 1000;
+	}
+
+	private static String quote(String s) {
+		return '"' + s.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+
+	private static String json(Map<?, Long> m) {
+		StringBuilder sb = new StringBuilder("{");
+		String sep = "";
+		for (Map.Entry<?, Long> e : m.entrySet()) {
+			sb.append(sep).append('"').append(e.getKey()).append("\": ").append(e.getValue());
+			sep = ", ";
+		}
+		return sb.append('}').toString();
+	}
+}
@@ -0,0 +1,167 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import tau.smlab.syntech.bddgenerator.BDDGenerator;
+import tau.smlab.syntech.bddgenerator.BDDGenerator.TraceInfo;
+import tau.smlab.syntech.cores.util.RealizabilityCheck.GameType;
+import tau.smlab.syntech.cores.util.RealizabilityCheck.Result;
+import tau.smlab.syntech.gameinput.model.GameInput;
+import tau.smlab.syntech.gamemodel.GameModel;
+import tau.smlab.syntech.games.gr1.GR1GameExperiments;
+import tau.smlab.syntech.jtlv.BDDPackage;
+import tau.smlab.syntech.jtlv.BDDPackage.BBDPackageVersion;
+import tau.smlab.syntech.jtlv.Env;
+
+/**
+ * A realizability check worker that runs in its own JVM, and therefore has its own BDD factory (see WorkerPool).
+ * It first reads the translated specification (a serialized GameInput, preceded by its length) from its standard input,
+ * so it neither parses the specification file nor sees a different version of it. 
+ * Then it answers requests: every line has the limits of a check budget and the trace IDs of a set of guarantees, 
+ * and the reply is 1 if the set is unrealizable, 0 if it is realizable, and ? if the check exceeded the budget.
+ * 
+ * Arguments: BDD package, BDD package version, game type, use warm start
+ * 
+ * @author shalom
+ *
+ */
+
+public class CheckWorker {
+
+	public static final String READY = "READY";
+	public static final String QUIT = "QUIT";
+
+	public static void main(String[] args) throws Exception {
+		// loading and solving may print, so only replies go to the original output
+		PrintStream out = System.out;
+		System.setOut(System.err);
+
+		BDDPackage.setCurrPackage(BDDPackage.valueOf(args[0]), BBDPackageVersion.valueOf(args[1]));
+		RealizabilityCheck.checkType = GameType.valueOf(args[2]);
+		RealizabilityCheck.useCUDD = BDDPackage.valueOf(args[0]).equals(BDDPackage.CUDD);
+		GR1GameExperiments.WITH_MEMORY = false;
+
+		// read exactly the specification, the requests that follow are read line by line
+		DataInputStream data = new DataInputStream(System.in);
+		byte[] spec = new byte[data.readInt()];
+		data.readFully(spec);
+		GameInput gi = null;
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(spec))) {
+			gi = (GameInput) ois.readObject();
+		}
+
+		Env.resetEnv();
+		GameModel gm = BDDGenerator.generateGameModel(gi, TraceInfo.ALL);
+
+		IncrementalSysBuilder builder = new IncrementalSysBuilder(gm);
+		WarmStartRealizability warm = Boolean.parseBoolean(args[3]) ? new WarmStartRealizability() : null;
+
+		out.println(READY);
+		out.flush();
+
+		BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+		String line;
+		while ((line = in.readLine()) != null && !line.equals(QUIT)) {
+			String[] request = line.split(";", -1);
+			CheckBudget budget = parseBudget(request[0]);
+			int[] sys = parse(request[1]);
+			GameModel m = builder.build(IntSets.toList(sys));
+			Result res = warm != null ? warm.check(m, sys, budget) : RealizabilityCheck.check(m, budget);
+			out.println(res == Result.UNKNOWN ? "?" : res == Result.UNREALIZABLE ? "1" : "0");
+			out.flush();
+		}
+
+		if (warm != null) {
+			warm.free();
+		}
+		builder.free();
+	}
+
+	/**
+	 * @param part
+	 * @param budget null for no limit
+	 * @return the request line of part
+	 */
+	static String format(int[] part, CheckBudget budget) {
+		StringBuilder sb = new StringBuilder();
+		if (budget == null) {
+			sb.append(CheckBudget.NO_LIMIT).append(' ').append(CheckBudget.NO_LIMIT);
+		} else {
+			sb.append(budget.getTimeLimit()).append(' ').append(budget.getMaxNodes());
+		}
+		sb.append(';');
+		for (int i = 0; i < part.length; i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(part[i]);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param reply
+	 * @return the result of a check from its reply line
+	 */
+	static Result result(String reply) {
+		switch (reply) {
+		case "1":
+			return Result.UNREALIZABLE;
+		case "0":
+			return Result.REALIZABLE;
+		default:
+			return Result.UNKNOWN;
+		}
+	}
+
+	private static CheckBudget parseBudget(String limits) {
+		String[] l = limits.trim().split(" ");
+		CheckBudget budget = new CheckBudget(Long.parseLong(l[0]), Integer.parseInt(l[1]));
+		return budget.isLimited() ? budget : null;
+	}
+
+	private static int[] parse(String line) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (String s : line.trim().split(" ")) {
+			if (!s.isEmpty()) {
+				ids.add(Integer.parseInt(s));
+			}
+		}
+		return IntSets.of(ids);
+	}
+}
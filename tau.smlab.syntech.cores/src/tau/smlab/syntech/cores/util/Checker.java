@@ -30,138 +30,110 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 
 /**
  * This class performs checks, uses memoization, keeps statistics on actual and non-actual checks
  * Can be sent to various objects to the same time so memoization is mutual
  * The elements we remember are lists, and they are sorted for quick subset computation
- * We keep elements in sorted sets according to their size so we can check only relevant sizes for inclusion
+ * We keep elements in set-tries (see SetTrie) so a lookup depends on the size of the query and not on the number of remembered lists
  * 
  * Important! Order on T and List<T> is defined with toString representation and assumes the string is different for different values
  * 
+ * With a check budget (see CheckBudget) a check may give up and call unknown(). Such a check is deferred: 
+ * it counts as negative, which is conservative for minimization (the element stays), and it is not memoized, so it is checked again later.
+ * Minimizations retry with a larger check budget while checks are deferred (see minimizeWithRetries).
+ * 
  * @author shalom
  *
  */
 
 public abstract class Checker<T> {
-	Memoize mem = null;
-	private int checks = 0;
-	private int actualChecks = 0;
+	// created on first use, so subclasses with their own memo (see IntChecker) do not allocate it
+	private Memoize mem = null;
+	protected int checks = 0;
+	protected int actualChecks = 0;
+	protected SearchBudget budget = null;
+	protected CheckTelemetry telemetry = null;
+	protected CheckBudget checkBudget = null;
+	protected Set<List<T>> deferred = new HashSet<List<T>>();
+	// the parts deferred during the current minimizeWithRetries, null if there is none
+	private Set<List<T>> callDeferred = null;
+	protected int deferredChecks = 0;
+	private boolean unknown = false;
+	
+	/**
+	 * times a minimization is repeated with a larger check budget while checks are deferred
+	 */
+	public static int MAX_RETRIES = 2;
 	
 	/**
 	 * Internal class for memoization
 	 */
 	private class Memoize {
-		protected SortedSet<List<T>> pos = null;
-		protected SortedSet<List<T>> neg = null; 
+		protected SetTrie<T> pos = null;
+		protected SetTrie<T> neg = null; 
 		
 		protected Memoize() {
-			//increasing in list size, break ties with comparison of toString
-			pos = new TreeSet<List<T>>((a,b) -> (a.size()!=b.size()) ? a.size()-b.size() : cmp(a,b));
-			//decreasing in list size, break ties with comparison of toString
-			neg = new TreeSet<List<T>>((a,b) -> (a.size()!=b.size()) ? b.size()-a.size() : cmp(a,b)); 
+			pos = new SetTrie<T>((a,b) -> cmp(a,b));
+			neg = new SetTrie<T>((a,b) -> cmp(a,b));
 		}
 		
 		protected void registerPos(List<T> toRegister) {
-			pos.add(new ArrayList<T>(toRegister));
+			pos.insert(sorted(toRegister));
 		}
 		
 		protected void registerNeg(List<T> toRegister) {
-			neg.add(new ArrayList<T>(toRegister));
+			neg.insert(sorted(toRegister));
 		}
 		
 		/**
-		 * positives are ordered from smaller to bigger. We look for a positive which is a subset up to our size 
+		 * We look for a positive which is a subset of part
 		 * 
-		 * @param part
+		 * @param part sorted
 		 * @return
 		 */
 		protected boolean lookupPos(List<T> part) {
-			List<T> curr = null;
-			Iterator<List<T>> posIter = pos.iterator();
-			while (posIter.hasNext() && part.size() >= (curr=posIter.next()).size()) {
-				if (isSubset(curr, part)) {
-					return true;
-				}
-			}
-			return false;
+			return pos.containsSubsetOf(part);
 		}
 		
 		/**
-		 * negatives  are ordered from bigger to smaller. We look for a negative which is a superset down to our size 
+		 * We look for a negative which is a superset of part
 		 * 
-		 * @param part
+		 * @param part sorted
 		 * @return
 		 */
 		protected boolean lookupNeg(List<T> part) {
-			List<T> curr = null;
-			Iterator<List<T>> negIter = neg.iterator();
-			while (negIter.hasNext() && part.size() <= (curr=negIter.next()).size()) {
-				if (isSubset(part, curr)) {
-					return true;
-				}
-			}
-			return false;			
+			return neg.containsSupersetOf(part);
 		}
 		
 		/**
-		 * Sort to allow efficient subset computations 
-		 * Important! Use the same comparison "cmp" that is used for the subset computation "isSubset"
+		 * registered lists may come from outside unsorted (e.g., cores), so sort a copy of them
 		 * 
 		 * @param elem
+		 * @return
 		 */
-		protected void arrange(List<T> elem) {
-			Collections.sort(elem, (a,b) -> cmp(a,b)); 
-
+		private List<T> sorted(List<T> elem) {
+			List<T> copy = new ArrayList<T>(elem);
+			arrange(copy);
+			return copy;
 		}
 		
 		/**
-		 * This is a linear time subset check implementation that assumes both sets are sorted lists.
-		 * It replaces a simple b.containsAll(a) which is less efficient.
-		 * In order to be able to compare type T which is general we use its toString.
-		 * We usually use this on T=Integer for traces of behaviors, but this way we don't have to assume T is comparable.
-		 * We must use the same compare method for sorting and for this method for correctness
+		 * Sort to allow efficient subset computations 
+		 * Important! Use the same comparison "cmp" that orders the set-tries
 		 * 
-		 * @param a
-		 * @param b
-		 * @return a is a subset of b
+		 * @param elem
 		 */
-		private boolean isSubset(List<T> a, List<T> b) {
-			// we assume |a|<=|b| but don't check it because we wrote the code in a way that grants it.
-			// The implementation is correct either way, only slower for |a|>|b|
-			// assert(a.size()<=b.size());
-
-			Iterator<T> iter = b.iterator();
-
-			for (T ai : a)
-				if (!seek(iter, ai))
-					return false;
-
-			return true;
-		}
+		protected void arrange(List<T> elem) {
+			Collections.sort(elem, (a,b) -> cmp(a,b)); 
 
-		/**
-		 * Seek an element using the iterator. Move the iterator after all smaller than the sought item
-		 * 
-		 * @param iter
-		 * @param sought
-		 * @return true iff the element is found
-		 */
-		private boolean seek(Iterator<T> iter, T sought) {
-			T curr;
-			do {					// skip all items smaller than sought
-				if (!iter.hasNext())
-					return false;
-			} while (cmp(curr = iter.next(), sought)<0);
-			
-			return cmp(curr, sought)==0; //if we got here we must have the one after all smaller than sought
 		}
-
+		
 		/**
 		 * Instead of assuming type T or List<T> are comparable, use their string representation
 		 * We only assume that toString creates different strings for different values, but must be maintained.
@@ -172,7 +144,13 @@ private int cmp(Object a, Object b) {
 	}
 
 	protected Checker() {
-		mem = new Memoize();
+	}
+
+	private Memoize mem() {
+		if (mem == null) {
+			mem = new Memoize();
+		}
+		return mem;
 	}
 	
 	/**
@@ -191,6 +169,143 @@ public int getActualChecks() {
 		return actualChecks;
 	}
 
+	/**
+	 * Limit the actual checks of this checker. Checks throw SearchBudget.Exhausted when it is used up.
+	 * 
+	 * @param budget null for no limit
+	 */
+	public void setBudget(SearchBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Collect fine grained statistics of the checks
+	 * 
+	 * @param telemetry null for none
+	 */
+	public void setTelemetry(CheckTelemetry telemetry) {
+		this.telemetry = telemetry;
+	}
+
+	public CheckTelemetry getTelemetry() {
+		return telemetry;
+	}
+
+	/**
+	 * Limit every actual check, for checks that support it (e.g., by RealizabilityCheck.check)
+	 * 
+	 * @param checkBudget null for no limit
+	 */
+	public void setCheckBudget(CheckBudget checkBudget) {
+		this.checkBudget = checkBudget;
+	}
+
+	public CheckBudget getCheckBudget() {
+		return checkBudget;
+	}
+
+	/**
+	 * @return the number of actual checks that exceeded the check budget, including retried ones
+	 */
+	public int getDeferredChecks() {
+		return deferredChecks;
+	}
+
+	/**
+	 * @return the number of parts whose last check exceeded the check budget
+	 */
+	public int getUnresolved() {
+		return deferred.size();
+	}
+
+	/**
+	 * @param part
+	 * @return true if the last check of part exceeded the check budget
+	 */
+	public boolean isDeferred(List<T> part) {
+		List<T> sorted = new ArrayList<T>(part);
+		mem().arrange(sorted);
+		return deferred.contains(sorted);
+	}
+
+	/**
+	 * Minimize and, while checks were deferred, minimize the result again with a larger check budget.
+	 * The result satisfies the check. It is a local minimum unless checks are still deferred after MAX_RETRIES.
+	 * The deferred parts of this call are kept separately, and remain in the deferred parts of the checker (see getUnresolved)
+	 * until a later check resolves them.
+	 * 
+	 * @param minimize a minimization that checks with this checker
+	 * @param elements
+	 * @return
+	 */
+	public List<T> minimizeWithRetries(UnaryOperator<List<T>> minimize, List<T> elements) {
+		Set<List<T>> outer = callDeferred;
+		Set<List<T>> mine = new HashSet<List<T>>();
+		callDeferred = mine;
+		CheckBudget initial = checkBudget;
+		try {
+			List<T> min = minimize.apply(elements);
+			for (int retry = 0; retry < MAX_RETRIES && checkBudget != null && !mine.isEmpty(); retry++) {
+				mine.clear();
+				checkBudget = checkBudget.larger();
+				min = minimize.apply(min);
+			}
+			return min;
+		} finally {
+			checkBudget = initial;
+			callDeferred = outer;
+			if (outer != null) {
+				outer.addAll(mine);
+			}
+		}
+	}
+
+	/**
+	 * To be called by check when it gave up because of the check budget
+	 * 
+	 * @return false, the conservative result of the check
+	 */
+	protected boolean unknown() {
+		unknown = true;
+		return false;
+	}
+
+	/**
+	 * keep track of the parts whose check is deferred, a part is resolved by a check or a lookup that is not deferred
+	 * 
+	 * @param part sorted
+	 * @param unknown if the check was deferred
+	 * @return unknown
+	 */
+	protected boolean deferred(List<T> part, boolean unknown) {
+		if (unknown) {
+			deferredChecks++;
+			List<T> copy = new ArrayList<T>(part);
+			deferred.add(copy);
+			if (callDeferred != null) {
+				callDeferred.add(copy);
+			}
+			if (telemetry != null) {
+				telemetry.deferred();
+			}
+		} else if (!deferred.isEmpty()) {
+			deferred.remove(part);
+			if (callDeferred != null) {
+				callDeferred.remove(part);
+			}
+		}
+		return unknown;
+	}
+
+	/**
+	 * @return whether the last check called unknown(), reset by the next call
+	 */
+	protected boolean wasUnknown() {
+		boolean res = unknown;
+		unknown = false;
+		return res;
+	}
+
 	/**
 	 * find in lists and if not found apply check and count
 	 * 
@@ -202,27 +317,80 @@ public boolean wrappedCheck(List<T> part) {
 		checks++;
 
 		// sort part before it is compared (to other sorted lists), or registered
-		mem.arrange(part);
+		mem().arrange(part);
 		
-		if (mem.lookupPos(part)) {
+		if (mem().lookupPos(part)) {
+			lookedUp(part.size(), true, false);
+			deferred(part, false);
 			return true;
 		}
 
-		if (mem.lookupNeg(part)) {
+		if (mem().lookupNeg(part)) {
+			lookedUp(part.size(), false, true);
+			deferred(part, false);
 			return false;
 		}
+		lookedUp(part.size(), false, false);
 		
+		if (budget != null) {
+			budget.charge(actualChecks);
+		}
 		actualChecks++;
+		long start = System.nanoTime();
 		boolean isPos = check(part);
+		checked(part.size(), System.nanoTime() - start);
+		if (deferred(part, wasUnknown())) {
+			return false;
+		}
 		register(isPos, part); 
 		return isPos;
 	}
 	
+	/**
+	 * check independent parts, e.g., siblings in a search. 
+	 * Checkers that can check in parallel (see PooledChecker) override this, the default checks one by one.
+	 * 
+	 * @param parts
+	 * @return the check of every part
+	 */
+	public boolean[] wrappedCheckAll(List<List<T>> parts) {
+		boolean[] res = new boolean[parts.size()];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = wrappedCheck(parts.get(i));
+		}
+		return res;
+	}
+	
 	public void register(boolean isPos, List<T> toRegister) {
 		if (isPos) {
-			mem.registerPos(toRegister);
+			mem().registerPos(toRegister);
 		} else {
-			mem.registerNeg(toRegister);
+			mem().registerNeg(toRegister);
+		}
+	}
+
+	protected void lookedUp(int size, boolean posHit, boolean negHit) {
+		if (telemetry != null) {
+			telemetry.lookup(size, posHit, negHit);
+		}
+	}
+
+	protected void checked(int size, long nanos) {
+		if (telemetry != null) {
+			telemetry.check(size, nanos);
+		}
+	}
+
+	/**
+	 * for checks that build a game and solve it, record the time of each
+	 * 
+	 * @param buildNanos
+	 * @param gameNanos
+	 */
+	protected void builtAndSolved(long buildNanos, long gameNanos) {
+		if (telemetry != null) {
+			telemetry.build(buildNanos);
+			telemetry.game(gameNanos);
 		}
 	}
 
@@ -47,7 +47,7 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 	protected PrintStream output = null;
 	
 	public enum Label {
-		BEGIN, CORE, INTERSECT, END
+		BEGIN, CORE, INTERSECT, STOPPED, END
 	}
 	
 	public CoreOutput(String name, PrintStream out) {
@@ -80,6 +80,24 @@ public void writeCore(List<T> core, int checks, int actual) {
 				format(core));
 	}
 
+	/**
+	 * The search stopped before all cores were found
+	 * 
+	 * @param reason
+	 * @param pending unexplored parts of the search space
+	 * @param checks
+	 * @param actual
+	 */
+	public void writeStopped(String reason, int pending, int checks, int actual) {
+		output.println(specName + "," + 
+				Label.STOPPED + "," + 
+				pending + "," + 
+				(System.currentTimeMillis() - startTime) + "," + 
+				checks + "," + 
+				actual + "," +
+				reason);
+	}
+
 	public void writeEnd() {
 		output.println(specName + "," + Label.END);
 	}
@@ -0,0 +1,286 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import net.sf.javabdd.BDD;
+import tau.smlab.syntech.gamemodel.BehaviorInfo;
+import tau.smlab.syntech.gamemodel.GameModel;
+import tau.smlab.syntech.gamemodel.PlayerModule;
+import tau.smlab.syntech.jtlv.Env;
+
+/**
+ * Builds the system module from a subset of its traces, like SysTraceInfoBuilder, but incrementally.
+ * 
+ * Initial and safety BDDs of every trace are conjoined once and kept as leaves of a balanced conjunction tree (one for initials and one for safeties).
+ * A removed trace has TRUE as its leaf. When the set of traces changes only the ancestors of changed leaves are recomputed,
+ * so removing or restoring a trace costs O(log n) conjunctions instead of conjoining all safeties again.
+ * Auxiliary behaviors are always part of the system module.
+ * 
+ * @author shalom
+ *
+ */
+
+public class IncrementalSysBuilder {
+
+	private GameModel gm = null;
+	private List<Integer> traceList = null;
+	private Map<Integer, Integer> index = null;
+	private BDD[] ini = null;
+	private BDD[] safe = null;
+	private List<List<BDD>> justices = null;
+	private List<BDD> auxJustices = null;
+	private List<Integer> auxJusticeIds = null;
+	private ConjunctionTree iniTree = null;
+	private ConjunctionTree safeTree = null;
+	private boolean[] active = null;
+	// returned by getInitial for traces without system behaviors
+	private BDD noInitial = Env.TRUE();
+
+	/**
+	 * A balanced binary tree where every inner node is the conjunction of its children
+	 */
+	private class ConjunctionTree {
+		private BDD[] nodes;
+		private int size;
+
+		/**
+		 * @param leaves the tree takes the BDDs
+		 */
+		private ConjunctionTree(BDD[] leaves) {
+			size = 1;
+			while (size < leaves.length) {
+				size *= 2;
+			}
+			nodes = new BDD[2 * size];
+			for (int i = 0; i < size; i++) {
+				nodes[size + i] = i < leaves.length ? leaves[i] : Env.TRUE();
+			}
+			for (int k = size - 1; k > 0; k--) {
+				nodes[k] = nodes[2 * k].and(nodes[2 * k + 1]);
+			}
+		}
+
+		/**
+		 * replace the given leaves and recompute their ancestors, each ancestor once
+		 * 
+		 * @param changed leaf indices
+		 * @param leaves the new leaves (taken by the tree)
+		 */
+		private void update(List<Integer> changed, List<BDD> leaves) {
+			TreeSet<Integer> dirty = new TreeSet<Integer>();
+			for (int i = 0; i < changed.size(); i++) {
+				int k = size + changed.get(i);
+				nodes[k].free();
+				nodes[k] = leaves.get(i);
+				dirty.add(k / 2);
+			}
+			// children have larger indices than their parents
+			while (!dirty.isEmpty()) {
+				int k = dirty.pollLast();
+				nodes[k].free();
+				nodes[k] = nodes[2 * k].and(nodes[2 * k + 1]);
+				if (k > 1) {
+					dirty.add(k / 2);
+				}
+			}
+		}
+
+		private BDD root() {
+			return nodes[1];
+		}
+
+		private void free() {
+			for (int k = 1; k < nodes.length; k++) {
+				nodes[k].free();
+			}
+		}
+	}
+
+	public IncrementalSysBuilder(GameModel gm) {
+		this.gm = gm;
+		traceList = new ArrayList<Integer>();
+		index = new HashMap<Integer, Integer>();
+		List<BDD> inis = new ArrayList<BDD>();
+		List<BDD> safes = new ArrayList<BDD>();
+		justices = new ArrayList<List<BDD>>();
+
+		for (BehaviorInfo bi : gm.getSysBehaviorInfo()) {
+			Integer i = index.get(bi.traceId);
+			if (i == null) {
+				i = traceList.size();
+				index.put(bi.traceId, i);
+				traceList.add(bi.traceId);
+				inis.add(Env.TRUE());
+				safes.add(Env.TRUE());
+				justices.add(new ArrayList<BDD>());
+			}
+			if (bi.isInitial()) {
+				inis.get(i).andWith(bi.initial.id());
+			}
+			if (bi.isSafety()) {
+				safes.get(i).andWith(bi.safety.id());
+			}
+			if (bi.isJustice()) {
+				justices.get(i).add(bi.justice);
+			}
+		}
+
+		// auxiliary behaviors are a last leaf that is always there
+		BDD auxIni = Env.TRUE();
+		BDD auxSafe = Env.TRUE();
+		auxJustices = new ArrayList<BDD>();
+		auxJusticeIds = new ArrayList<Integer>();
+		for (BehaviorInfo bi : gm.getAuxBehaviorInfo()) {
+			if (bi.isInitial()) {
+				auxIni.andWith(bi.initial.id());
+			}
+			if (bi.isSafety()) {
+				auxSafe.andWith(bi.safety.id());
+			}
+			if (bi.isJustice()) {
+				auxJustices.add(bi.justice);
+				auxJusticeIds.add(bi.traceId);
+			}
+		}
+
+		ini = inis.toArray(new BDD[0]);
+		safe = safes.toArray(new BDD[0]);
+		active = new boolean[traceList.size()];
+		Arrays.fill(active, true);
+		iniTree = new ConjunctionTree(leaves(ini, auxIni));
+		safeTree = new ConjunctionTree(leaves(safe, auxSafe));
+	}
+
+	/**
+	 * @return all system traces
+	 */
+	public List<Integer> getTraceList() {
+		return new ArrayList<Integer>(traceList);
+	}
+
+	/**
+	 * @param trace
+	 * @return conjunction of the initial behaviors of the trace (owned by the builder, do not free), TRUE if it has none
+	 */
+	public BDD getInitial(int trace) {
+		Integer i = index.get(trace);
+		return i == null ? noInitial : ini[i];
+	}
+
+	/**
+	 * Set the system module to the given traces and the auxiliary behaviors
+	 * 
+	 * @param traces
+	 * @return the model
+	 */
+	public GameModel build(List<Integer> traces) {
+		boolean[] next = new boolean[traceList.size()];
+		for (Integer t : traces) {
+			Integer i = index.get(t);
+			if (i != null) {
+				next[i] = true;
+			}
+		}
+
+		List<Integer> changed = new ArrayList<Integer>();
+		List<BDD> iniLeaves = new ArrayList<BDD>();
+		List<BDD> safeLeaves = new ArrayList<BDD>();
+		for (int i = 0; i < next.length; i++) {
+			if (next[i] != active[i]) {
+				changed.add(i);
+				iniLeaves.add(next[i] ? ini[i].id() : Env.TRUE());
+				safeLeaves.add(next[i] ? safe[i].id() : Env.TRUE());
+			}
+		}
+		if (!changed.isEmpty()) {
+			iniTree.update(changed, iniLeaves);
+			safeTree.update(changed, safeLeaves);
+		}
+		active = next;
+
+		PlayerModule sys = gm.getSys();
+		sys.resetInitial();
+		sys.conjunctInitial(iniTree.root().id());
+		sys.resetTrans();
+		sys.conjunctTrans(safeTree.root().id());
+		sys.resetJustice();
+		for (int i = 0; i < active.length; i++) {
+			if (active[i]) {
+				for (BDD j : justices.get(i)) {
+					sys.addJustice(j.id(), traceList.get(i));
+				}
+			}
+		}
+		for (int a = 0; a < auxJustices.size(); a++) {
+			sys.addJustice(auxJustices.get(a).id(), auxJusticeIds.get(a));
+		}
+		return gm;
+	}
+
+	/**
+	 * Set the system module to all its traces
+	 * 
+	 * @return the model
+	 */
+	public GameModel restore() {
+		return build(traceList);
+	}
+
+	/**
+	 * free the cached BDDs (the model is not changed)
+	 */
+	public void free() {
+		for (int i = 0; i < ini.length; i++) {
+			ini[i].free();
+			safe[i].free();
+		}
+		iniTree.free();
+		safeTree.free();
+		noInitial.free();
+	}
+
+	/**
+	 * leaves of all traces (all active) and a last leaf of the auxiliary behaviors
+	 */
+	private BDD[] leaves(BDD[] perTrace, BDD aux) {
+		BDD[] res = new BDD[perTrace.length + 1];
+		for (int i = 0; i < perTrace.length; i++) {
+			res[i] = perTrace[i].id();
+		}
+		res[perTrace.length] = aux;
+		return res;
+	}
+}
@@ -0,0 +1,143 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+package tau.smlab.syntech.cores.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.javabdd.BDD;
+import tau.smlab.syntech.gamemodel.GameModel;
+import tau.smlab.syntech.gamemodel.PlayerModule;
+import tau.smlab.syntech.games.gr1.GR1GameExperiments;
+import tau.smlab.syntech.games.gr1.GR1GameImplC;
+
+/**
+ * Minimizes the initial constraints of an unrealizable system without solving the game again.
+ * 
+ * The winning region of the system does not depend on its initial constraints. It is computed once, 
+ * and a set of initial constraints is realizable iff every initial state of the environment has an initial state of the system in that region.
+ * This is a BDD check, so removing a constraint needs neither a rebuild of the system nor a fixed-point computation.
+ * 
+ * Candidates are removed one by one like in linear minimization. Conjunctions of the candidates not decided yet are computed once (suffixes),
+ * so each decision costs a constant number of BDD operations.
+ * 
+ * @author shalom
+ *
+ */
+
+public class IniMinimizer {
+
+	private PlayerModule env = null;
+	private PlayerModule sys = null;
+	private BDD sysWin = null;
+	private boolean realizable;
+
+	/**
+	 * Solves the game of gm once. The initial constraints of the system module do not matter.
+	 * 
+	 * @param gm
+	 */
+	public IniMinimizer(GameModel gm) {
+		env = gm.getEnv();
+		sys = gm.getSys();
+
+		// the full winning region is needed, not the one of an early stop
+		boolean recycle = GR1GameExperiments.USE_FIXPOINT_RECYCLE;
+		boolean stop = GR1GameExperiments.STOP_WHEN_INITIALS_LOST;
+		GR1GameExperiments.USE_FIXPOINT_RECYCLE = GR1GameExperiments.STOP_WHEN_INITIALS_LOST = false;
+		GR1GameExperiments game = new GR1GameImplC(gm);
+		try {
+			realizable = game.checkRealizability();
+			sysWin = game.sysWinningStates().id();
+		} finally {
+			GR1GameExperiments.USE_FIXPOINT_RECYCLE = recycle;
+			GR1GameExperiments.STOP_WHEN_INITIALS_LOST = stop;
+			game.free();
+		}
+	}
+
+	/**
+	 * @return the result of solving the game with the initial constraints of the system at construction
+	 */
+	public boolean isRealizable() {
+		return realizable;
+	}
+
+	/**
+	 * @param sysIni
+	 * @return true iff from every initial state of the environment the system can choose a winning initial state
+	 */
+	public boolean sysWinAllInitial(BDD sysIni) {
+		BDD winIni = sysIni.and(sysWin);
+		BDD choice = winIni.exist(sys.moduleUnprimeVars());
+		winIni.free();
+		BDD all = env.initial().id().impWith(choice).forAll(env.moduleUnprimeVars());
+		boolean res = all.isOne();
+		all.free();
+		return res;
+	}
+
+	/**
+	 * Find a local minimum of the candidates such that the system, with fixed, does not win from all initial states.
+	 * 
+	 * @param fixed initial constraints that stay
+	 * @param candidates trace IDs, in the order of removal
+	 * @param inis initial constraint of each candidate
+	 * @return the candidates that are needed
+	 */
+	public List<Integer> minimize(BDD fixed, List<Integer> candidates, List<BDD> inis) {
+		int n = candidates.size();
+		// suffix[i] is the conjunction of the candidates from i on
+		BDD[] suffix = new BDD[n + 1];
+		suffix[n] = fixed.id();
+		for (int i = n - 1; i >= 0; i--) {
+			suffix[i] = suffix[i + 1].and(inis.get(i));
+		}
+
+		List<Integer> needed = new ArrayList<Integer>();
+		// fixed and the needed candidates found so far
+		BDD kept = fixed.id();
+		for (int i = 0; i < n; i++) {
+			BDD without = kept.and(suffix[i + 1]);
+			if (sysWinAllInitial(without)) {
+				needed.add(candidates.get(i));
+				kept.andWith(inis.get(i).id());
+			}
+			without.free();
+		}
+		kept.free();
+		for (BDD b : suffix) {
+			b.free();
+		}
+		return needed;
+	}
+
+	public void free() {
+		sysWin.free();
+	}
+}
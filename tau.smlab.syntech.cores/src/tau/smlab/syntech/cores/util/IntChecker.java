@@ -0,0 +1,280 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Int specialization of Checker for trace IDs.
+ * Parts are sorted int arrays ordered numerically, and memoization uses int set-tries,
+ * so lookups neither box integers nor build strings for comparison.
+ * 
+ * It is still a Checker of Integer, so it can be given to anything that expects one.
+ * List based calls are converted once and go through the same int memo and the same checks/actualChecks counters.
+ * Of the checks, getIntChecks() came in as int arrays and so allocated no boxed lists for sorting and memoization.
+ * 
+ * @author shalom
+ *
+ */
+
+public abstract class IntChecker extends Checker<Integer> {
+	private IntSetTrie pos = new IntSetTrie();
+	private IntSetTrie neg = new IntSetTrie();
+	// checks of parts given as lists, which are converted
+	protected int listChecks = 0;
+
+	protected IntChecker() {
+		super();
+	}
+
+	/**
+	 * find in memo and if not found apply check and count
+	 * 
+	 * @param part
+	 * @return
+	 */
+	public boolean wrappedCheck(int[] part) {
+
+		checks++;
+
+		// sort part before it is compared (to other sorted arrays), or registered
+		int[] sorted = IntSets.sorted(part);
+
+		if (pos.containsSubsetOf(sorted)) {
+			lookedUp(sorted.length, true, false);
+			resolved(sorted);
+			return true;
+		}
+
+		if (neg.containsSupersetOf(sorted)) {
+			lookedUp(sorted.length, false, true);
+			resolved(sorted);
+			return false;
+		}
+		lookedUp(sorted.length, false, false);
+
+		if (budget != null) {
+			budget.charge(actualChecks);
+		}
+		actualChecks++;
+		long start = System.nanoTime();
+		boolean isPos = check(sorted);
+		checked(sorted.length, System.nanoTime() - start);
+		boolean unknown = wasUnknown();
+		if ((unknown || !deferred.isEmpty()) && deferred(IntSets.toList(sorted), unknown)) {
+			return false;
+		}
+		(isPos ? pos : neg).insert(sorted);
+		return isPos;
+	}
+
+	/**
+	 * a part found in memo is no longer deferred
+	 * 
+	 * @param sorted
+	 */
+	private void resolved(int[] sorted) {
+		if (!deferred.isEmpty()) {
+			deferred(IntSets.toList(sorted), false);
+		}
+	}
+
+	@Override
+	public boolean wrappedCheck(List<Integer> part) {
+		listChecks++;
+		return wrappedCheck(IntSets.of(part));
+	}
+
+	/**
+	 * @return the checks (see getChecks) of parts given as int arrays, without boxing
+	 */
+	public int getIntChecks() {
+		return checks - listChecks;
+	}
+
+	/**
+	 * Check independent parts. If the checker is parallel, find every part in memo, apply checkAll on the parts not found, 
+	 * and register their results, except for deferred ones (see Checker). Otherwise check one by one, so results of earlier parts are used for later ones.
+	 * 
+	 * @param parts
+	 * @return the check of every part
+	 */
+	public boolean[] wrappedCheckAll(int[][] parts) {
+		boolean[] res = new boolean[parts.length];
+		if (!isParallel()) {
+			for (int i = 0; i < parts.length; i++) {
+				res[i] = wrappedCheck(parts[i]);
+			}
+			return res;
+		}
+
+		List<Integer> unknown = new ArrayList<Integer>();
+		int[][] sorted = new int[parts.length][];
+
+		for (int i = 0; i < parts.length; i++) {
+			checks++;
+			sorted[i] = IntSets.sorted(parts[i]);
+			if (pos.containsSubsetOf(sorted[i])) {
+				lookedUp(sorted[i].length, true, false);
+				resolved(sorted[i]);
+				res[i] = true;
+			} else if (neg.containsSupersetOf(sorted[i])) {
+				lookedUp(sorted[i].length, false, true);
+				resolved(sorted[i]);
+			} else {
+				lookedUp(sorted[i].length, false, false);
+				unknown.add(i);
+			}
+		}
+		if (unknown.isEmpty()) {
+			return res;
+		}
+
+		int[][] toCheck = new int[unknown.size()][];
+		for (int j = 0; j < toCheck.length; j++) {
+			if (budget != null) {
+				budget.charge(actualChecks + j);
+			}
+			toCheck[j] = sorted[unknown.get(j)];
+		}
+		actualChecks += toCheck.length;
+		boolean[] gaveUp = new boolean[toCheck.length];
+		long[] nanos = new long[toCheck.length];
+		boolean[] checked = checkAll(toCheck, gaveUp, nanos);
+		for (int j = 0; j < toCheck.length; j++) {
+			checked(toCheck[j].length, nanos[j]);
+			if ((gaveUp[j] || !deferred.isEmpty()) && deferred(IntSets.toList(toCheck[j]), gaveUp[j])) {
+				continue;
+			}
+			res[unknown.get(j)] = checked[j];
+			(checked[j] ? pos : neg).insert(toCheck[j]);
+		}
+		return res;
+	}
+
+	@Override
+	public boolean isDeferred(List<Integer> part) {
+		return deferred.contains(IntSets.toList(IntSets.of(part)));
+	}
+
+	@Override
+	public boolean[] wrappedCheckAll(List<List<Integer>> parts) {
+		listChecks += parts.size();
+		int[][] arr = new int[parts.size()][];
+		for (int i = 0; i < arr.length; i++) {
+			arr[i] = IntSets.of(parts.get(i));
+		}
+		return wrappedCheckAll(arr);
+	}
+
+	/**
+	 * Look for a part that satisfies the check, in order, e.g., the subsets of a ddmin step.
+	 * A parallel checker checks all parts together, otherwise we stop at the first positive.
+	 * 
+	 * @param parts
+	 * @return index of the first positive part, -1 if none
+	 */
+	public int firstPositive(int[][] parts) {
+		if (isParallel()) {
+			boolean[] res = wrappedCheckAll(parts);
+			for (int i = 0; i < res.length; i++) {
+				if (res[i]) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		for (int i = 0; i < parts.length; i++) {
+			if (wrappedCheck(parts[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public void register(boolean isPos, int[] toRegister) {
+		(isPos ? pos : neg).insert(IntSets.sorted(toRegister));
+	}
+
+	@Override
+	public void register(boolean isPos, List<Integer> toRegister) {
+		register(isPos, IntSets.of(toRegister));
+	}
+
+	/**
+	 * Apply action on every memoized part with the given result, e.g., for persisting the memo
+	 * 
+	 * @param isPos
+	 * @param action receives sorted parts
+	 */
+	public void forEachMemoized(boolean isPos, Consumer<int[]> action) {
+		(isPos ? pos : neg).forEach(action);
+	}
+
+	@Override
+	protected boolean check(List<Integer> part) {
+		return check(IntSets.of(part));
+	}
+
+	/**
+	 * check if part satisfies criterion, e.g., unsatisfiabiliy when looking for unsat cores
+	 * 
+	 * @param part sorted
+	 * @return true if part satisfies criterion
+	 */
+	abstract protected boolean check(int[] part);
+
+	/**
+	 * @return true if checkAll checks parts in parallel
+	 */
+	protected boolean isParallel() {
+		return false;
+	}
+
+	/**
+	 * check parts that are not memoized, one by one unless overridden
+	 * 
+	 * @param parts sorted
+	 * @param unknown set for every part whose check gave up because of the check budget (see unknown())
+	 * @param nanos set to the time of the check of every part
+	 * @return the check of every part
+	 */
+	protected boolean[] checkAll(int[][] parts, boolean[] unknown, long[] nanos) {
+		boolean[] res = new boolean[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			long start = System.nanoTime();
+			res[i] = check(parts[i]);
+			nanos[i] = System.nanoTime() - start;
+			unknown[i] = wasUnknown();
+		}
+		return res;
+	}
+}
@@ -0,0 +1,179 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A set-trie over sorted int arrays, the int specialization of SetTrie.
+ * Children of a node are kept in parallel sorted arrays of keys and nodes so no boxing is needed.
+ * 
+ * @author shalom
+ *
+ */
+
+class IntSetTrie {
+	private static final int[] NO_KEYS = new int[0];
+	private static final Node[] NO_KIDS = new Node[0];
+
+	private Node root = new Node();
+	private int size = 0;
+
+	private static class Node {
+		private int[] keys = NO_KEYS;
+		private Node[] kids = NO_KIDS;
+		private int n = 0;
+		private boolean terminal = false;
+
+		private Node child(int key) {
+			int i = Arrays.binarySearch(keys, 0, n, key);
+			return i < 0 ? null : kids[i];
+		}
+
+		private Node addChild(int key) {
+			int i = Arrays.binarySearch(keys, 0, n, key);
+			if (i >= 0) {
+				return kids[i];
+			}
+			i = -i - 1;
+			if (n == keys.length) {
+				int cap = Math.max(2, n * 2);
+				keys = Arrays.copyOf(keys, cap);
+				kids = Arrays.copyOf(kids, cap);
+			}
+			System.arraycopy(keys, i, keys, i + 1, n - i);
+			System.arraycopy(kids, i, kids, i + 1, n - i);
+			keys[i] = key;
+			kids[i] = new Node();
+			n++;
+			return kids[i];
+		}
+	}
+
+	/**
+	 * @return the number of distinct sets in the trie
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Add a sorted set to the trie
+	 * 
+	 * @param set
+	 */
+	void insert(int[] set) {
+		Node curr = root;
+		for (int elem : set) {
+			curr = curr.addChild(elem);
+		}
+		if (!curr.terminal) {
+			curr.terminal = true;
+			size++;
+		}
+	}
+
+	/**
+	 * @param set sorted
+	 * @return true iff some stored set is a subset of set
+	 */
+	boolean containsSubsetOf(int[] set) {
+		return containsSubsetOf(root, set, 0);
+	}
+
+	/**
+	 * Walk the keys of the node and the rest of set together as both are sorted, and follow only common elements
+	 */
+	private boolean containsSubsetOf(Node node, int[] set, int from) {
+		if (node.terminal) {
+			return true;
+		}
+		int i = from, j = 0;
+		while (i < set.length && j < node.n) {
+			if (set[i] < node.keys[j]) {
+				i++;
+			} else if (set[i] > node.keys[j]) {
+				j++;
+			} else {
+				if (containsSubsetOf(node.kids[j], set, i + 1)) {
+					return true;
+				}
+				i++;
+				j++;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param set sorted
+	 * @return true iff some stored set is a superset of set
+	 */
+	boolean containsSupersetOf(int[] set) {
+		return size > 0 && containsSupersetOf(root, set, 0);
+	}
+
+	/**
+	 * We may skip keys smaller than the next sought element, but never an element of set.
+	 * Every leaf is terminal, so once all of set is matched any node below has a stored superset.
+	 */
+	private boolean containsSupersetOf(Node node, int[] set, int from) {
+		if (from == set.length) {
+			return true;
+		}
+		int sought = set[from];
+		for (int j = 0; j < node.n && node.keys[j] <= sought; j++) {
+			if (containsSupersetOf(node.kids[j], set, node.keys[j] == sought ? from + 1 : from)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Apply action on every stored set (in sorted order of elements)
+	 * 
+	 * @param action
+	 */
+	void forEach(Consumer<int[]> action) {
+		forEach(root, new int[0], action);
+	}
+
+	private void forEach(Node node, int[] prefix, Consumer<int[]> action) {
+		if (node.terminal) {
+			action.accept(prefix);
+		}
+		for (int j = 0; j < node.n; j++) {
+			int[] next = Arrays.copyOf(prefix, prefix.length + 1);
+			next[prefix.length] = node.keys[j];
+			forEach(node.kids[j], next, action);
+		}
+	}
+}
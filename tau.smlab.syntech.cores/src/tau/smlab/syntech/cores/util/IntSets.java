@@ -0,0 +1,152 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helpers for sets of ints kept as sorted arrays without duplicates.
+ * These are used by the int specialization of the checker and the minimizers so trace IDs are not boxed on the hot path.
+ * 
+ * @author shalom
+ *
+ */
+
+public final class IntSets {
+
+	private IntSets() {
+	}
+
+	/**
+	 * @param list
+	 * @return a new sorted array of the distinct values in list
+	 */
+	public static int[] of(List<Integer> list) {
+		int[] res = new int[list.size()];
+		int i = 0;
+		for (Integer v : list) {
+			res[i++] = v;
+		}
+		return sorted(res);
+	}
+
+	/**
+	 * @param set
+	 * @return a new list with the values of set
+	 */
+	public static List<Integer> toList(int[] set) {
+		List<Integer> res = new ArrayList<Integer>(set.length);
+		for (int v : set) {
+			res.add(v);
+		}
+		return res;
+	}
+
+	/**
+	 * Sorts a copy of the array numerically and removes duplicates
+	 * 
+	 * @param elems
+	 * @return
+	 */
+	public static int[] sorted(int[] elems) {
+		int[] res = Arrays.copyOf(elems, elems.length);
+		Arrays.sort(res);
+		int n = 0;
+		for (int i = 0; i < res.length; i++) {
+			if (n == 0 || res[n - 1] != res[i]) {
+				res[n++] = res[i];
+			}
+		}
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	/**
+	 * @param a sorted
+	 * @param b sorted
+	 * @return the sorted union of a and b
+	 */
+	public static int[] union(int[] a, int[] b) {
+		int[] res = new int[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				res[n++] = a[i++];
+			} else if (a[i] > b[j]) {
+				res[n++] = b[j++];
+			} else {
+				res[n++] = a[i++];
+				j++;
+			}
+		}
+		while (i < a.length) {
+			res[n++] = a[i++];
+		}
+		while (j < b.length) {
+			res[n++] = b[j++];
+		}
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	/**
+	 * @param a sorted
+	 * @param b sorted
+	 * @return the sorted elements of a that are not in b
+	 */
+	public static int[] minus(int[] a, int[] b) {
+		int[] res = new int[a.length];
+		int j = 0, n = 0;
+		for (int v : a) {
+			while (j < b.length && b[j] < v) {
+				j++;
+			}
+			if (j == b.length || b[j] != v) {
+				res[n++] = v;
+			}
+		}
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	/**
+	 * @param a sorted
+	 * @param elem
+	 * @return a new array without elem
+	 */
+	public static int[] without(int[] a, int elem) {
+		int i = Arrays.binarySearch(a, elem);
+		if (i < 0) {
+			return a;
+		}
+		int[] res = new int[a.length - 1];
+		System.arraycopy(a, 0, res, 0, i);
+		System.arraycopy(a, i + 1, res, i, a.length - i - 1);
+		return res;
+	}
+}
@@ -0,0 +1,232 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tau.smlab.syntech.gamemodel.BehaviorInfo;
+import tau.smlab.syntech.gamemodel.GameModel;
+import tau.smlab.syntech.jtlv.env.module.ModuleBDDField;
+
+/**
+ * On-disk memo of realizability checks of sets of system behaviors (guarantees), kept across sessions.
+ * 
+ * Every system trace is identified by a fingerprint of the content of its BDDs (see BDDFingerprint) and not by its trace ID, 
+ * so results survive edits that move or change other guarantees. 
+ * The file is chosen by the specification (e.g., its path) and a fingerprint of everything else that affects realizability: 
+ * variables, assumptions, auxiliary behaviors and RealizabilityCheck.checkType. So specifications that share all of these do not overwrite each other's memo.
+ * 
+ * When loading, positives (unrealizable sets) are registered only if all their elements still exist. 
+ * Negatives (realizable sets) are registered restricted to the elements that still exist, as removing guarantees keeps realizability.
+ * The same holds when saving parts with elements that have no fingerprint.
+ * 
+ * @author shalom
+ *
+ */
+
+public class PersistentMemo {
+
+	private static final int MAGIC = 0x53594d4d; // "SYMM"
+	private static final int VERSION = 1;
+
+	private File file = null;
+	private Map<Integer, Long> traceToPrint = null;
+	private Map<Long, Integer> printToTrace = null;
+
+	/**
+	 * Compute fingerprints of the model. Must be called before any builder changes the model.
+	 * 
+	 * @param gm
+	 * @param spec identifies the specification, e.g., its path
+	 * @param folder where memo files are kept
+	 */
+	public PersistentMemo(GameModel gm, String spec, File folder) {
+		traceToPrint = new HashMap<Integer, Long>();
+		printToTrace = new HashMap<Long, Integer>();
+
+		Map<Integer, Long> content = new HashMap<Integer, Long>();
+		List<Integer> traces = new ArrayList<Integer>();
+		for (BehaviorInfo bi : gm.getSysBehaviorInfo()) {
+			if (!content.containsKey(bi.traceId)) {
+				traces.add(bi.traceId);
+				content.put(bi.traceId, 0L);
+			}
+			content.put(bi.traceId, BDDFingerprint.combine(content.get(bi.traceId), fingerprint(bi)));
+		}
+
+		// identical guarantees are interchangeable, so we number them by occurrence to keep identities distinct
+		Map<Long, Integer> occurrences = new HashMap<Long, Integer>();
+		for (Integer t : traces) {
+			long c = content.get(t);
+			int occ = occurrences.containsKey(c) ? occurrences.get(c) + 1 : 0;
+			occurrences.put(c, occ);
+			long print = BDDFingerprint.combine(c, occ);
+			traceToPrint.put(t, print);
+			printToTrace.put(print, t);
+		}
+
+		if (!folder.exists()) {
+			folder.mkdirs();
+		}
+		file = new File(folder, Long.toHexString(BDDFingerprint.combine(spec.hashCode(), context(gm))) + ".memo");
+	}
+
+	/**
+	 * @return the file of the memo for the current model
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Register all known results that apply to the current model in the checker
+	 * 
+	 * @param c
+	 * @return the number of registered results
+	 */
+	public int load(IntChecker c) {
+		if (!file.exists()) {
+			return 0;
+		}
+		int registered = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return 0;
+			}
+			for (boolean isPos : new boolean[] { true, false }) {
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					int n = in.readInt();
+					int[] part = new int[n];
+					int known = 0;
+					for (int j = 0; j < n; j++) {
+						Integer t = printToTrace.get(in.readLong());
+						if (t != null) {
+							part[known++] = t;
+						}
+					}
+					if (known == n || !isPos) {
+						c.register(isPos, known == n ? part : Arrays.copyOf(part, known));
+						registered++;
+					}
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return registered;
+	}
+
+	/**
+	 * Write all results memoized by the checker, as far as their elements have fingerprints
+	 * 
+	 * @param c
+	 */
+	public void save(IntChecker c) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (boolean isPos : new boolean[] { true, false }) {
+				List<long[]> parts = new ArrayList<long[]>();
+				c.forEachMemoized(isPos, p -> {
+					long[] prints = prints(p);
+					if (prints.length == p.length || !isPos) {
+						parts.add(prints);
+					}
+				});
+				out.writeInt(parts.size());
+				for (long[] p : parts) {
+					out.writeInt(p.length);
+					for (long print : p) {
+						out.writeLong(print);
+					}
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @param part
+	 * @return the fingerprints of the elements of part that have one
+	 */
+	private long[] prints(int[] part) {
+		long[] prints = new long[part.length];
+		int known = 0;
+		for (int t : part) {
+			Long print = traceToPrint.get(t);
+			if (print != null) {
+				prints[known++] = print;
+			}
+		}
+		return known == part.length ? prints : Arrays.copyOf(prints, known);
+	}
+
+	private long fingerprint(BehaviorInfo bi) {
+		long h = BDDFingerprint.of(bi.initial);
+		h = BDDFingerprint.combine(h, BDDFingerprint.of(bi.safety));
+		return BDDFingerprint.combine(h, BDDFingerprint.of(bi.justice));
+	}
+
+	/**
+	 * fingerprint of all that is fixed while we check sets of guarantees
+	 * 
+	 * @param gm
+	 * @return
+	 */
+	private long context(GameModel gm) {
+		long h = RealizabilityCheck.checkType.ordinal();
+		List<ModuleBDDField> fields = new ArrayList<ModuleBDDField>(gm.getEnv().getAllFields());
+		fields.addAll(gm.getSys().getAllFields());
+		for (ModuleBDDField f : fields) {
+			h = BDDFingerprint.combine(h, f.toString().hashCode());
+			h = BDDFingerprint.combine(h, f.getDomain().size().longValue());
+		}
+		for (BehaviorInfo bi : gm.getEnvBehaviorInfo()) {
+			h = BDDFingerprint.combine(h, fingerprint(bi));
+		}
+		for (BehaviorInfo bi : gm.getAuxBehaviorInfo()) {
+			h = BDDFingerprint.combine(h, fingerprint(bi));
+		}
+		return h;
+	}
+}
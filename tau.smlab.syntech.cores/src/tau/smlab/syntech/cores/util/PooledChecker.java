@@ -0,0 +1,72 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import tau.smlab.syntech.cores.util.RealizabilityCheck.Result;
+
+/**
+ * A checker of sets of guarantees (true if unrealizable) that dispatches actual checks to a WorkerPool.
+ * Independent checks (see wrappedCheckAll and firstPositive) run concurrently, and their results are registered in the memo of this checker.
+ * Every check is sent with the current check budget, and a worker check that exceeds it is deferred (see Checker).
+ * 
+ * @author shalom
+ *
+ */
+
+public class PooledChecker extends IntChecker {
+
+	private WorkerPool pool = null;
+
+	public PooledChecker(WorkerPool pool) {
+		super();
+		this.pool = pool;
+	}
+
+	@Override
+	protected boolean check(int[] part) {
+		Result res = pool.check(part, checkBudget);
+		return res == Result.UNKNOWN ? unknown() : res == Result.UNREALIZABLE;
+	}
+
+	@Override
+	protected boolean[] checkAll(int[][] parts, boolean[] unknown, long[] nanos) {
+		Result[] checked = pool.checkAll(parts, checkBudget, nanos);
+		boolean[] res = new boolean[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			unknown[i] = checked[i] == Result.UNKNOWN;
+			res[i] = checked[i] == Result.UNREALIZABLE;
+		}
+		return res;
+	}
+
+	@Override
+	protected boolean isParallel() {
+		return pool.size() > 1;
+	}
+}
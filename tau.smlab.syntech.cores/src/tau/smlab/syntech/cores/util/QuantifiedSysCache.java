@@ -0,0 +1,220 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDVarSet;
+import tau.smlab.syntech.gamemodel.GameModel;
+import tau.smlab.syntech.gamemodel.PlayerModule;
+import tau.smlab.syntech.jtlv.Env;
+import tau.smlab.syntech.jtlv.env.module.ModuleBDDField;
+
+/**
+ * Builds the system module with some of its variables existentially quantified, like GameBuilderUtil.buildQuantifiedSys, 
+ * but caches the quantified initial condition, transition relation and justices.
+ * The module is taken as it is when the cache is created (e.g., built from a guarantees core).
+ * 
+ * Cache entries are keyed by the sorted set of removed fields. A new set is derived from its largest cached subset 
+ * by quantifying only the extra fields, since quantifying a union of variables is quantifying one part after the other.
+ * The set of no removed fields (the original module) is always cached. Other entries are evicted least recently used first.
+ * 
+ * @author shalom
+ *
+ */
+
+public class QuantifiedSysCache {
+
+	private static final int DEFAULT_CAPACITY = 32;
+
+	private GameModel gm = null;
+	private List<ModuleBDDField> fields = null;
+	private int justiceNum = 0;
+	private Entry root = null;
+	private Map<String, Entry> cache = null;
+	private int capacity;
+	private int hits = 0;
+	private int derived = 0;
+
+	/**
+	 * the module with the fields of removed quantified
+	 */
+	private class Entry {
+		private int[] removed;
+		private BDD ini;
+		private BDD trans;
+		private BDD[] just;
+
+		private Entry(int[] removed) {
+			this.removed = removed;
+			just = new BDD[justiceNum];
+		}
+
+		private void free() {
+			ini.free();
+			trans.free();
+			for (BDD j : just) {
+				j.free();
+			}
+		}
+	}
+
+	/**
+	 * @param gm
+	 * @param fields the fields that may be removed, e.g., the non auxiliary system fields
+	 */
+	public QuantifiedSysCache(GameModel gm, List<ModuleBDDField> fields) {
+		this(gm, fields, DEFAULT_CAPACITY);
+	}
+
+	public QuantifiedSysCache(GameModel gm, List<ModuleBDDField> fields, int capacity) {
+		this.gm = gm;
+		this.fields = new ArrayList<ModuleBDDField>(fields);
+		this.capacity = capacity;
+		PlayerModule sys = gm.getSys();
+		justiceNum = sys.justiceNum();
+
+		root = new Entry(new int[0]);
+		root.ini = sys.initial().id();
+		root.trans = sys.trans().id();
+		for (int j = 0; j < justiceNum; j++) {
+			root.just[j] = sys.justiceAt(j).id();
+		}
+		cache = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	}
+
+	/**
+	 * Set the system module to the original one with the removed fields quantified
+	 * 
+	 * @param removed
+	 * @return the model
+	 */
+	public GameModel build(List<ModuleBDDField> removed) {
+		Entry e = get(indices(removed));
+
+		PlayerModule sys = gm.getSys();
+		sys.resetInitial();
+		sys.conjunctInitial(e.ini.id());
+		sys.resetTrans();
+		sys.conjunctTrans(e.trans.id());
+		sys.resetJustice();
+		for (int j = 0; j < justiceNum; j++) {
+			sys.addJustice(e.just[j].id());
+		}
+		return gm;
+	}
+
+	private Entry get(int[] removed) {
+		if (removed.length == 0) {
+			return root;
+		}
+		String key = Arrays.toString(removed);
+		Entry e = cache.get(key);
+		if (e != null) {
+			hits++;
+			return e;
+		}
+
+		// the largest cached subset
+		Entry from = root;
+		for (Entry c : cache.values()) {
+			if (c.removed.length > from.removed.length && IntSets.minus(c.removed, removed).length == 0) {
+				from = c;
+			}
+		}
+		e = quantify(from, removed);
+		derived++;
+
+		cache.put(key, e);
+		if (cache.size() > capacity) {
+			Iterator<Entry> eldest = cache.values().iterator();
+			eldest.next().free();
+			eldest.remove();
+		}
+		return e;
+	}
+
+	private Entry quantify(Entry from, int[] removed) {
+		BDDVarSet vars = Env.getEmptySet();
+		for (int f : IntSets.minus(removed, from.removed)) {
+			vars.unionWith(fields.get(f).support().id());
+			vars.unionWith(fields.get(f).other().support().id());
+		}
+		Entry e = new Entry(removed);
+		e.ini = from.ini.exist(vars);
+		e.trans = from.trans.exist(vars);
+		for (int j = 0; j < justiceNum; j++) {
+			e.just[j] = from.just[j].exist(vars);
+		}
+		vars.free();
+		return e;
+	}
+
+	private int[] indices(List<ModuleBDDField> removed) {
+		List<Integer> res = new ArrayList<Integer>();
+		for (ModuleBDDField f : removed) {
+			int i = fields.indexOf(f);
+			if (i != -1) {
+				res.add(i);
+			}
+		}
+		return IntSets.of(res);
+	}
+
+	/**
+	 * @return number of sets found in the cache
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return number of sets derived from a cached subset
+	 */
+	public int getDerived() {
+		return derived;
+	}
+
+	/**
+	 * Free the cached BDDs (the model is not changed)
+	 */
+	public void free() {
+		root.free();
+		for (Entry e : cache.values()) {
+			e.free();
+		}
+		cache.clear();
+	}
+}
@@ -28,6 +28,7 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 
 package tau.smlab.syntech.cores.util;
 
+import net.sf.javabdd.BDD;
 import tau.smlab.syntech.gamemodel.GameModel;
 import tau.smlab.syntech.games.gr1.GR1Game;
 import tau.smlab.syntech.games.gr1.GR1GameExperiments;
@@ -35,6 +36,7 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import tau.smlab.syntech.games.rabin.RabinGame;
 import tau.smlab.syntech.games.rabin.RabinGameExperiments;
 import tau.smlab.syntech.games.rabin.RabinGameImplC;
+import tau.smlab.syntech.jtlv.Env;
 
 /**
  * Realizability checks that considers menu options for cores
@@ -47,8 +49,13 @@ public class RealizabilityCheck {
 	public enum GameType {
 		GR1_GAME, RABIN_GAME
 	}
+	public enum Result {
+		REALIZABLE, UNREALIZABLE, UNKNOWN
+	}
 	public static GameType checkType = GameType.GR1_GAME;
 	public static boolean useCUDD = true;
+	// start GR(1) checks of sets of guarantees from the winning regions of earlier checks (see WarmStartRealizability)
+	public static boolean useWarmStart = false;
 	
 	/**
 	 * Check realizability of model according to the specified game type
@@ -61,6 +68,33 @@ public static boolean isRealizable(GameModel m) {
 				isGR1Realizable(m) : isRabinRealizable(m);
 	}
 	
+	/**
+	 * Check realizability of model within a budget. 
+	 * A limited GR(1) check computes the winning states with the Java fixpoint (see WarmStartRealizability) because it can be interrupted,
+	 * so it does not use the C implementation even if useCUDD is set, and may be slower than an unlimited check.
+	 * The budget is polled between iterations of the fixpoints, so a single iteration may exceed it.
+	 * Rabin checks are not limited.
+	 * 
+	 * @param m
+	 * @param budget null for no limit
+	 * @return UNKNOWN if the budget was exceeded
+	 */
+	public static Result check(GameModel m, CheckBudget budget) {
+		if (budget == null || !budget.isLimited() || checkType != GameType.GR1_GAME) {
+			return isRealizable(m) ? Result.REALIZABLE : Result.UNREALIZABLE;
+		}
+		budget.start();
+		BDD seed = Env.TRUE();
+		BDD win = WarmStartRealizability.sysWin(m, seed, budget);
+		seed.free();
+		if (win == null) {
+			return Result.UNKNOWN;
+		}
+		boolean realizable = WarmStartRealizability.sysWinAllInitial(m, win);
+		win.free();
+		return realizable ? Result.REALIZABLE : Result.UNREALIZABLE;
+	}
+	
 	  /**
 	   * This method checks realizability using a GR1 game
 	   * It takes into account the BDD setting in order to decide if we use the C implementation or not
@@ -0,0 +1,93 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+/**
+ * Limits on a search that is driven by a checker: wall-clock time and number of actual checks.
+ * The checker consults the budget before every actual check and throws Exhausted when it is used up,
+ * so the search unwinds and its callers can report what was found so far.
+ * 
+ * @author shalom
+ *
+ */
+
+public class SearchBudget {
+
+	public static final long NO_LIMIT = 0;
+
+	private long timeLimit = NO_LIMIT;
+	private int maxChecks = (int) NO_LIMIT;
+	private long deadline = Long.MAX_VALUE;
+	private int startChecks = 0;
+
+	/**
+	 * Thrown by the checker when the budget is used up
+	 */
+	public static class Exhausted extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public Exhausted(String reason) {
+			super(reason);
+		}
+	}
+
+	/**
+	 * @param timeLimit milliseconds, or NO_LIMIT
+	 * @param maxChecks actual checks, or NO_LIMIT
+	 */
+	public SearchBudget(long timeLimit, int maxChecks) {
+		this.timeLimit = timeLimit;
+		this.maxChecks = maxChecks;
+	}
+
+	/**
+	 * Start counting time and checks from now
+	 * 
+	 * @param actualChecks the actual checks the checker has already performed
+	 */
+	public void start(int actualChecks) {
+		deadline = timeLimit == NO_LIMIT ? Long.MAX_VALUE : System.currentTimeMillis() + timeLimit;
+		startChecks = actualChecks;
+	}
+
+	/**
+	 * Called before an actual check
+	 * 
+	 * @param actualChecks the actual checks performed so far
+	 * @throws Exhausted if the search must stop
+	 */
+	public void charge(int actualChecks) {
+		if (maxChecks != NO_LIMIT && actualChecks - startChecks >= maxChecks) {
+			throw new Exhausted("reached " + maxChecks + " realizability checks");
+		}
+		if (System.currentTimeMillis() >= deadline) {
+			throw new Exhausted("reached time limit of " + timeLimit + " ms");
+		}
+	}
+}
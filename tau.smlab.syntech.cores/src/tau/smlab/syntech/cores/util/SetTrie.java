@@ -0,0 +1,140 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A set-trie over sorted lists. Every stored set is a path from the root, labeled by its elements in increasing order.
+ * This allows subset and superset queries that depend on the size of the query and the shape of the trie,
+ * and not on the number of stored sets, as in a linear scan.
+ * 
+ * All lists that are inserted or queried must be sorted according to the comparator given to the trie.
+ * 
+ * @author shalom
+ *
+ * @param <T>
+ */
+
+class SetTrie<T> {
+	private Node root = null;
+	private Comparator<? super T> order = null;
+	private int size = 0;
+
+	private class Node {
+		private TreeMap<T, Node> children = new TreeMap<T, Node>(order);
+		private boolean terminal = false;
+	}
+
+	SetTrie(Comparator<? super T> order) {
+		this.order = order;
+		root = new Node();
+	}
+
+	/**
+	 * @return the number of distinct sets in the trie
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Add a sorted set to the trie
+	 * 
+	 * @param set
+	 */
+	void insert(List<T> set) {
+		Node curr = root;
+		for (T elem : set) {
+			Node next = curr.children.get(elem);
+			if (next == null) {
+				next = new Node();
+				curr.children.put(elem, next);
+			}
+			curr = next;
+		}
+		if (!curr.terminal) {
+			curr.terminal = true;
+			size++;
+		}
+	}
+
+	/**
+	 * @param set sorted
+	 * @return true iff some stored set is a subset of set
+	 */
+	boolean containsSubsetOf(List<T> set) {
+		return containsSubsetOf(root, set, 0);
+	}
+
+	/**
+	 * We only follow edges labeled by elements of set, so each path we walk is a subset of set.
+	 */
+	private boolean containsSubsetOf(Node n, List<T> set, int from) {
+		if (n.terminal) {
+			return true;
+		}
+		for (int i = from; i < set.size(); i++) {
+			Node next = n.children.get(set.get(i));
+			if (next != null && containsSubsetOf(next, set, i + 1)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param set sorted
+	 * @return true iff some stored set is a superset of set
+	 */
+	boolean containsSupersetOf(List<T> set) {
+		return size > 0 && containsSupersetOf(root, set, 0);
+	}
+
+	/**
+	 * We may skip elements smaller than the next sought one, but never an element of set.
+	 * Every leaf is terminal, so once all of set is matched any node below has a stored superset.
+	 */
+	private boolean containsSupersetOf(Node n, List<T> set, int from) {
+		if (from == set.size()) {
+			return true;
+		}
+		T sought = set.get(from);
+		for (Map.Entry<T, Node> e : n.children.headMap(sought, true).entrySet()) {
+			int next = order.compare(e.getKey(), sought) == 0 ? from + 1 : from;
+			if (containsSupersetOf(e.getValue(), set, next)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,250 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.sf.javabdd.BDD;
+import tau.smlab.syntech.gamemodel.GameModel;
+import tau.smlab.syntech.gamemodel.PlayerModule;
+import tau.smlab.syntech.jtlv.Env;
+import tau.smlab.syntech.jtlv.lib.FixPoint;
+
+/**
+ * GR(1) realizability checks of sets of system traces that start from the results of earlier checks of neighbouring sets.
+ * 
+ * The system winning region is monotone: removing guarantees can only make it larger. 
+ * So the winning regions of subsets of the checked set are over-approximations of its winning region and the intersection of all of them is one too.
+ * As Z is a greatest fixpoint, we start Z from this intersection instead of TRUE and intersect every iteration with the previous one,
+ * which converges to the same fixpoint in fewer iterations.
+ * Removing justice assumptions (as done by QuickCore) makes the winning region smaller, so stored regions remain valid starting points.
+ * 
+ * Only the last winning regions are kept to bound memory. 
+ * For Rabin realizability checks (see RealizabilityCheck.checkType) there is no warm start and we use RealizabilityCheck.
+ * 
+ * @author shalom
+ *
+ */
+
+public class WarmStartRealizability {
+
+	private static final int MAX_STORED = 16;
+
+	private class Stored {
+		private int[] sys;
+		private BDD win;
+
+		private Stored(int[] sys, BDD win) {
+			this.sys = sys;
+			this.win = win;
+		}
+	}
+
+	// most recent first
+	private LinkedList<Stored> stored = new LinkedList<Stored>();
+	private int warmStarts = 0;
+
+	/**
+	 * Check realizability of a model built from the given system traces
+	 * 
+	 * @param m the model built from sys
+	 * @param sys sorted trace IDs of the system behaviors in m
+	 * @return
+	 */
+	public boolean isRealizable(GameModel m, int[] sys) {
+		return check(m, sys, null) == RealizabilityCheck.Result.REALIZABLE;
+	}
+
+	/**
+	 * Check realizability of a model built from the given system traces within a budget
+	 * 
+	 * @param m the model built from sys
+	 * @param sys sorted trace IDs of the system behaviors in m
+	 * @param budget null for no limit
+	 * @return UNKNOWN if the budget was exceeded
+	 */
+	public RealizabilityCheck.Result check(GameModel m, int[] sys, CheckBudget budget) {
+		if (RealizabilityCheck.checkType != RealizabilityCheck.GameType.GR1_GAME) {
+			return RealizabilityCheck.check(m, budget);
+		}
+		if (budget != null) {
+			budget.start();
+		}
+		BDD seed = seed(sys);
+		BDD win = sysWin(m, seed, budget);
+		seed.free();
+		if (win == null) {
+			return RealizabilityCheck.Result.UNKNOWN;
+		}
+
+		boolean realizable = sysWinAllInitial(m, win);
+		store(sys, win);
+		return realizable ? RealizabilityCheck.Result.REALIZABLE : RealizabilityCheck.Result.UNREALIZABLE;
+	}
+
+	/**
+	 * @param m
+	 * @param win winning states of the system
+	 * @return true iff from every initial state of the environment the system can choose a winning initial state
+	 */
+	static boolean sysWinAllInitial(GameModel m, BDD win) {
+		PlayerModule env = m.getEnv();
+		PlayerModule sysModule = m.getSys();
+		BDD sysIni = sysModule.initial().and(win).exist(sysModule.moduleUnprimeVars());
+		BDD allIni = env.initial().imp(sysIni).forAll(env.moduleUnprimeVars());
+		boolean realizable = allIni.isOne();
+		sysIni.free();
+		allIni.free();
+		return realizable;
+	}
+
+	/**
+	 * @return the number of checks that started from a stored winning region
+	 */
+	public int getWarmStarts() {
+		return warmStarts;
+	}
+
+	/**
+	 * free all stored winning regions
+	 */
+	public void free() {
+		for (Stored s : stored) {
+			s.win.free();
+		}
+		stored.clear();
+	}
+
+	/**
+	 * intersection of the winning regions of all stored subsets of sys
+	 */
+	private BDD seed(int[] sys) {
+		BDD seed = Env.TRUE();
+		boolean found = false;
+		for (Stored s : stored) {
+			if (IntSets.minus(s.sys, sys).length == 0) {
+				seed.andWith(s.win.id());
+				found = true;
+			}
+		}
+		if (found) {
+			warmStarts++;
+		}
+		return seed;
+	}
+
+	private void store(int[] sys, BDD win) {
+		for (Iterator<Stored> iter = stored.iterator(); iter.hasNext();) {
+			Stored s = iter.next();
+			if (Arrays.equals(sys, s.sys)) {
+				s.win.free();
+				iter.remove();
+			}
+		}
+		stored.addFirst(new Stored(sys, win));
+		if (stored.size() > MAX_STORED) {
+			stored.removeLast().win.free();
+		}
+	}
+
+	/**
+	 * The GR(1) fixpoint of the system winning states, where Z starts from seed.
+	 * The budget is polled in every iteration. When it is exceeded all fixpoints stop at once.
+	 * 
+	 * @param m
+	 * @param seed an over-approximation of the winning states
+	 * @param budget null for no limit
+	 * @return null if the budget was exceeded
+	 */
+	static BDD sysWin(GameModel m, BDD seed, CheckBudget budget) {
+		PlayerModule env = m.getEnv();
+		PlayerModule sys = m.getSys();
+
+		List<BDD> sysJustices = justices(sys);
+		List<BDD> envNotJustices = new ArrayList<BDD>();
+		for (BDD j : justices(env)) {
+			envNotJustices.add(j.not());
+		}
+
+		BDD z = seed.id();
+		for (FixPoint iterZ = new FixPoint(true); iterZ.advance(z) && !exceeded(budget, z);) {
+			z = z.id(); // copy to leave BDD in FixedPoint untouched
+			for (BDD sysJ : sysJustices) {
+				BDD yieldZandJ = sysJ.id().andWith(env.yieldStates(sys, z));
+
+				BDD y = Env.FALSE();
+				for (FixPoint iterY = new FixPoint(true); iterY.advance(y) && !exceeded(budget, y);) {
+					BDD start = yieldZandJ.id().orWith(env.yieldStates(sys, y));
+
+					y = Env.FALSE();
+					for (BDD notEnvJ : envNotJustices) {
+						BDD x = z.id();
+						for (FixPoint iterX = new FixPoint(true); iterX.advance(x) && !exceeded(budget, x);) {
+							x = notEnvJ.id().andWith(env.yieldStates(sys, x)).orWith(start.id());
+						}
+						y.orWith(x);
+					}
+					start.free();
+				}
+				yieldZandJ.free();
+
+				// intersecting keeps Z decreasing even if the seed is not a fixpoint of the current game
+				z.andWith(y);
+			}
+		}
+
+		for (BDD b : envNotJustices) {
+			b.free();
+		}
+		if (exceeded(budget, z)) {
+			z.free();
+			return null;
+		}
+		return z;
+	}
+
+	private static boolean exceeded(CheckBudget budget, BDD any) {
+		return budget != null && budget.exceeded(any);
+	}
+
+	private static List<BDD> justices(PlayerModule p) {
+		List<BDD> res = new ArrayList<BDD>();
+		for (int i = 0; i < p.justiceNum(); i++) {
+			res.add(p.justiceAt(i));
+		}
+		if (res.isEmpty()) {
+			res.add(Env.TRUE());
+		}
+		return res;
+	}
+}
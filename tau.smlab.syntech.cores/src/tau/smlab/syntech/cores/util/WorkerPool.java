@@ -0,0 +1,230 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.cores.util;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tau.smlab.syntech.cores.util.RealizabilityCheck.Result;
+import tau.smlab.syntech.gameinput.model.GameInput;
+import tau.smlab.syntech.jtlv.BDDPackage;
+import tau.smlab.syntech.jtlv.BDDPackage.BBDPackageVersion;
+
+/**
+ * A pool of forked JVMs that check realizability of sets of guarantees (see CheckWorker).
+ * Env is a global BDD singleton, so checks cannot run in parallel threads of one JVM, but every worker has its own BDD factory.
+ * Trace IDs are the same in all workers because they are all given the specification that is already loaded and translated.
+ * Checks are sent with the check budget of the checker, so a worker check that exceeds it is deferred as well (see PooledChecker).
+ * 
+ * Realizability settings (game type, warm start) are taken from RealizabilityCheck when the pool is created.
+ * 
+ * @author shalom
+ *
+ */
+
+public class WorkerPool {
+
+	private List<Worker> workers = new ArrayList<Worker>();
+	private BlockingQueue<Worker> idle = null;
+	private ExecutorService executor = null;
+
+	/**
+	 * One worker process and its pipes
+	 */
+	private static class Worker {
+		private Process process = null;
+		private PrintWriter in = null;
+		private BufferedReader out = null;
+
+		private Worker(List<String> command, byte[] spec) throws IOException {
+			ProcessBuilder pb = new ProcessBuilder(command);
+			pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+			process = pb.start();
+			DataOutputStream data = new DataOutputStream(process.getOutputStream());
+			data.writeInt(spec.length);
+			data.write(spec);
+			data.flush();
+			in = new PrintWriter(process.getOutputStream(), true);
+			out = new BufferedReader(new InputStreamReader(process.getInputStream()));
+			if (!CheckWorker.READY.equals(out.readLine())) {
+				process.destroy();
+				throw new IOException("Check worker failed to load the specification");
+			}
+		}
+
+		private Result check(int[] part, CheckBudget budget) throws IOException {
+			in.println(CheckWorker.format(part, budget));
+			String reply = out.readLine();
+			if (reply == null) {
+				throw new IOException("Check worker exited");
+			}
+			return CheckWorker.result(reply);
+		}
+
+		private void quit() {
+			in.println(CheckWorker.QUIT);
+			process.destroy();
+		}
+	}
+
+	/**
+	 * Start the workers. Each one receives the specification and builds its game model before this returns.
+	 * 
+	 * @param size number of workers
+	 * @param classPath class path of the worker JVMs, which must include the classes of CheckWorker and the specification
+	 * @param gi the translated specification, it must be serializable
+	 * @param pkg
+	 * @param version
+	 * @throws IOException if the specification cannot be serialized or a worker cannot be started
+	 */
+	public WorkerPool(int size, String classPath, GameInput gi, BDDPackage pkg, BBDPackageVersion version)
+			throws IOException {
+		ByteArrayOutputStream spec = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(spec)) {
+			oos.writeObject(gi);
+		}
+
+		List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-cp");
+		command.add(classPath);
+		command.add(CheckWorker.class.getName());
+		command.add(pkg.name());
+		command.add(version.name());
+		command.add(RealizabilityCheck.checkType.name());
+		command.add(Boolean.toString(RealizabilityCheck.useWarmStart));
+
+		idle = new ArrayBlockingQueue<Worker>(size);
+		try {
+			for (int i = 0; i < size; i++) {
+				Worker w = new Worker(command, spec.toByteArray());
+				workers.add(w);
+				idle.add(w);
+			}
+		} catch (IOException e) {
+			free();
+			throw e;
+		}
+		executor = Executors.newFixedThreadPool(size);
+	}
+
+	public int size() {
+		return workers.size();
+	}
+
+	/**
+	 * check a set of guarantees on some worker
+	 * 
+	 * @param part sorted
+	 * @param budget null for no limit
+	 * @return UNKNOWN if the check exceeded the budget
+	 */
+	public Result check(int[] part, CheckBudget budget) {
+		return check(part, budget, null, 0);
+	}
+
+	/**
+	 * @param nanos if not null, nanos[i] is set to the time the worker took, not counting the wait for an idle worker
+	 */
+	private Result check(int[] part, CheckBudget budget, long[] nanos, int i) {
+		Worker w = null;
+		try {
+			w = idle.take();
+			long start = System.nanoTime();
+			Result res = w.check(part, budget);
+			if (nanos != null) {
+				nanos[i] = System.nanoTime() - start;
+			}
+			return res;
+		} catch (IOException | InterruptedException e) {
+			throw new RuntimeException("Realizability check worker failed", e);
+		} finally {
+			if (w != null) {
+				idle.add(w);
+			}
+		}
+	}
+
+	/**
+	 * check sets of guarantees in parallel
+	 * 
+	 * @param parts sorted
+	 * @param budget of every check, null for no limit
+	 * @param nanos set to the time of every check
+	 * @return the result of every part
+	 */
+	public Result[] checkAll(int[][] parts, CheckBudget budget, long[] nanos) {
+		Result[] res = new Result[parts.length];
+		if (parts.length == 1) {
+			res[0] = check(parts[0], budget, nanos, 0);
+			return res;
+		}
+
+		List<Future<Result>> results = new ArrayList<Future<Result>>();
+		for (int i = 0; i < parts.length; i++) {
+			final int part = i;
+			results.add(executor.submit(() -> check(parts[part], budget, nanos, part)));
+		}
+		try {
+			for (int i = 0; i < res.length; i++) {
+				res[i] = results.get(i).get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException("Realizability check worker failed", e);
+		}
+		return res;
+	}
+
+	/**
+	 * stop the workers
+	 */
+	public void free() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		for (Worker w : workers) {
+			w.quit();
+		}
+		workers.clear();
+	}
+}
@@ -0,0 +1,261 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable compact (CSR) adjacency representation of a counter-strategy graph.
+ * <p>
+ * Nodes are identified by their key (the index in the maps of the graph) and are stored in dense
+ * positions 0..{@link #size()}-1, in ascending order of key. Successors and predecessors of each
+ * position are stored as ranges of primitive arrays, so both queries take no allocation and
+ * no hashing. The graph is a snapshot: it is not updated when the graph it was built from changes.
+ * </p>
+ */
+public final class CompactGraph {
+
+	private final int[] keys;
+	private final int[] succStart;
+	private final int[] succ;
+	private final int[] predStart;
+	private final int[] pred;
+
+	/**
+	 * Builds the compact graph of the nodes and edges of a JVTS
+	 * @param nodes keys of the nodes
+	 * @param edges out going edges of the nodes
+	 * @return
+	 */
+	public static CompactGraph of(Set<Integer> nodes, Map<Integer, ? extends List<JVGEdge>> edges) {
+		Builder builder = new Builder();
+		for (int node : nodes) {
+			builder.addNode(node);
+		}
+		for (Map.Entry<Integer, ? extends List<JVGEdge>> entry : edges.entrySet()) {
+			for (JVGEdge edge : entry.getValue()) {
+				builder.addEdge(entry.getKey(), edge.destInd);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Collects nodes and edges in primitive arrays and sorts them into a compact graph
+	 */
+	public static class Builder {
+		private int[] nodes = new int[16];
+		private int numNodes;
+		private int[] from = new int[16];
+		private int[] to = new int[16];
+		private int numEdges;
+
+		public Builder addNode(int key) {
+			if (numNodes == nodes.length) {
+				nodes = Arrays.copyOf(nodes, 2 * numNodes);
+			}
+			nodes[numNodes++] = key;
+			return this;
+		}
+
+		/**
+		 * Adds an edge. Nodes of the edge are added if they were not added before.
+		 */
+		public Builder addEdge(int fromKey, int toKey) {
+			if (numEdges == from.length) {
+				from = Arrays.copyOf(from, 2 * numEdges);
+				to = Arrays.copyOf(to, 2 * numEdges);
+			}
+			from[numEdges] = fromKey;
+			to[numEdges] = toKey;
+			numEdges++;
+			addNode(fromKey);
+			addNode(toKey);
+			return this;
+		}
+
+		public CompactGraph build() {
+			int[] keys = Arrays.copyOf(nodes, numNodes);
+			Arrays.sort(keys);
+			int size = 0;
+			for (int i = 0; i < keys.length; i++) {
+				if (size == 0 || keys[size - 1] != keys[i]) {
+					keys[size++] = keys[i];
+				}
+			}
+			keys = Arrays.copyOf(keys, size);
+
+			int[] src = new int[numEdges];
+			int[] dst = new int[numEdges];
+			for (int e = 0; e < numEdges; e++) {
+				src[e] = Arrays.binarySearch(keys, from[e]);
+				dst[e] = Arrays.binarySearch(keys, to[e]);
+			}
+			int[] succStart = new int[size + 1];
+			int[] succ = new int[numEdges];
+			fill(src, dst, succStart, succ);
+			int[] predStart = new int[size + 1];
+			int[] pred = new int[numEdges];
+			fill(dst, src, predStart, pred);
+			return new CompactGraph(keys, succStart, succ, predStart, pred);
+		}
+
+		/**
+		 * Counting sort of the edges by their first end, keeping the order in which edges were added
+		 */
+		private static void fill(int[] first, int[] second, int[] start, int[] adj) {
+			for (int e = 0; e < first.length; e++) {
+				start[first[e] + 1]++;
+			}
+			for (int i = 1; i < start.length; i++) {
+				start[i] += start[i - 1];
+			}
+			int[] next = Arrays.copyOf(start, start.length - 1);
+			for (int e = 0; e < first.length; e++) {
+				adj[next[first[e]]++] = second[e];
+			}
+		}
+	}
+
+	private CompactGraph(int[] keys, int[] succStart, int[] succ, int[] predStart, int[] pred) {
+		this.keys = keys;
+		this.succStart = succStart;
+		this.succ = succ;
+		this.predStart = predStart;
+		this.pred = pred;
+	}
+
+	/**
+	 * @return the same graph, with each node key replaced by its position
+	 */
+	CompactGraph withSequentialKeys() {
+		int[] seq = new int[keys.length];
+		for (int i = 0; i < seq.length; i++) {
+			seq[i] = i;
+		}
+		return new CompactGraph(seq, succStart, succ, predStart, pred);
+	}
+
+	/**
+	 * @return number of nodes
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @return number of edges
+	 */
+	public int edgeCount() {
+		return succ.length;
+	}
+
+	/**
+	 * @param pos position of a node
+	 * @return the key of the node
+	 */
+	public int key(int pos) {
+		return keys[pos];
+	}
+
+	/**
+	 * @param key key of a node
+	 * @return the position of the node, or -1 if there is no such node
+	 */
+	public int positionOf(int key) {
+		int pos = Arrays.binarySearch(keys, key);
+		return pos < 0 ? -1 : pos;
+	}
+
+	public int outDegree(int pos) {
+		return succStart[pos + 1] - succStart[pos];
+	}
+
+	/**
+	 * @param pos position of a node
+	 * @param i index of the out going edge, in the order the edges were added
+	 * @return position of the i-th successor
+	 */
+	public int successor(int pos, int i) {
+		return succ[succStart[pos] + i];
+	}
+
+	public int inDegree(int pos) {
+		return predStart[pos + 1] - predStart[pos];
+	}
+
+	/**
+	 * @param pos position of a node
+	 * @param i index of the incoming edge
+	 * @return position of the i-th predecessor
+	 */
+	public int predecessor(int pos, int i) {
+		return pred[predStart[pos] + i];
+	}
+
+	/**
+	 * @param key key of a node
+	 * @return keys of the successors of the node (empty if there is no such node)
+	 */
+	public int[] successorKeys(int key) {
+		return neighborKeys(key, succStart, succ);
+	}
+
+	/**
+	 * @param key key of a node
+	 * @return keys of the predecessors of the node (empty if there is no such node)
+	 */
+	public int[] predecessorKeys(int key) {
+		return neighborKeys(key, predStart, pred);
+	}
+
+	private int[] neighborKeys(int key, int[] start, int[] adj) {
+		int pos = positionOf(key);
+		if (pos < 0) {
+			return new int[0];
+		}
+		int[] res = new int[start[pos + 1] - start[pos]];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = keys[adj[start[pos] + i]];
+		}
+		return res;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder("CompactGraph: " + size() + " nodes, " + edgeCount() + " edges");
+		for (int pos = 0; pos < size(); pos++) {
+			str.append("\n").append(keys[pos]).append(" -> ").append(Arrays.toString(successorKeys(keys[pos])));
+		}
+		return str.toString();
+	}
+}
@@ -0,0 +1,147 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDD.BDDIterator;
+import net.sf.javabdd.BDDVarSet;
+import tau.smlab.syntech.jtlv.Env;
+
+/**
+ * Lazy iteration over the concrete states of a step, a BDD over the primed variables.
+ * The states are ordered by the environment choice and then by the system choice (the order of the
+ * BDD iterators), so the same step is always iterated in the same order. States are computed only
+ * when requested, and {@link #skip(long)} counts whole environment choices instead of iterating them,
+ * which allows paging through large steps.
+ * <p>
+ * Each state returned is unprimed and owned by the caller. Call {@link #free()} when done.
+ * </p>
+ */
+public class ConcreteStateIterator implements Iterator<BDD> {
+
+	private final BDD step;
+	private final BDDVarSet envVars;
+	private final BDDVarSet sysVars;
+	private final BDDIterator envIter;
+	private BDD envChoice;
+	private BDD stepWithEnvChoice;
+	private BDDIterator sysIter;
+
+	/**
+	 * @param step the step, owned (and freed) by the iterator
+	 * @param envVars primed variables of the environment
+	 * @param sysVars primed variables of the system
+	 */
+	ConcreteStateIterator(BDD step, BDDVarSet envVars, BDDVarSet sysVars) {
+		this.step = step;
+		this.envVars = envVars;
+		this.sysVars = sysVars;
+		this.envIter = step.iterator(envVars);
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (sysIter == null || !sysIter.hasNext()) {
+			if (!nextEnvChoice()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public BDD next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		BDD choice = sysIter.nextBDD().andWith(envChoice.id());
+		BDD state = Env.unprime(choice);
+		choice.free();
+		return state;
+	}
+
+	/**
+	 * Skips the next states without computing them.
+	 * @param n number of states to skip
+	 * @return the number of states skipped, less than n only if there are no more states
+	 */
+	public long skip(long n) {
+		long skipped = 0;
+		while (skipped < n) {
+			if (sysIter != null && sysIter.hasNext()) {
+				sysIter.nextBDD().free();
+				skipped++;
+				continue;
+			}
+			if (!nextEnvChoice()) {
+				break;
+			}
+			BDD sysChoices = stepWithEnvChoice.exist(envVars);
+			double count = sysChoices.satCount(sysVars);
+			sysChoices.free();
+			if (skipped + count <= n) {
+				skipped += (long) count;
+				releaseEnvChoice();
+			}
+		}
+		return skipped;
+	}
+
+	/**
+	 * Frees the BDDs held by the iterator. States already returned are not freed.
+	 */
+	public void free() {
+		releaseEnvChoice();
+		step.free();
+	}
+
+	private boolean nextEnvChoice() {
+		releaseEnvChoice();
+		if (!envIter.hasNext()) {
+			return false;
+		}
+		envChoice = envIter.nextBDD();
+		stepWithEnvChoice = step.and(envChoice);
+		sysIter = stepWithEnvChoice.iterator(sysVars);
+		return true;
+	}
+
+	private void releaseEnvChoice() {
+		if (envChoice != null) {
+			envChoice.free();
+			stepWithEnvChoice.free();
+			envChoice = null;
+			stepWithEnvChoice = null;
+		}
+		sysIter = null;
+	}
+}
@@ -37,6 +37,7 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDDomain;
@@ -224,8 +225,13 @@ static public class CSNode {
 		 * The assumption satisfaction graph.
 		 * Only relevant if this node type is CYCLE and isConcrete == false.
 		 * No need to use it for comparison between nodes.
+		 * <br>It may be computed on demand, so it is null until {@link #getAssumptionsGraph()} is called.
+		 * @deprecated read it through {@link #getAssumptionsGraph()}
 		 */
+		@Deprecated
 		public CSAssumptionSatGraph assumptionsGraph;
+		// computes the assumption satisfaction graph on the first call of getAssumptionsGraph()
+		Supplier<CSAssumptionSatGraph> assumptionsGraphSupplier;
 		
 		public CSNode() {
 			invariants = new ArrayList<CSInvariant>();
@@ -233,6 +239,18 @@ public CSNode() {
 			indexSymbolic = -1;
 		}
 		
+		/**
+		 * @return the assumption satisfaction graph, computed the first time it is asked for
+		 * @throws IllegalStateException if the JVTS it is computed from was freed before
+		 */
+		public CSAssumptionSatGraph getAssumptionsGraph() {
+			if (assumptionsGraph == null && assumptionsGraphSupplier != null) {
+				assumptionsGraph = assumptionsGraphSupplier.get();
+				assumptionsGraphSupplier = null;
+			}
+			return assumptionsGraph;
+		}
+		
 		public String toString() {
 			String str = "\nCSNode:\n-------\nindexSymbolic = " + indexSymbolic + "\nisConcrete = "
 					+ isConcrete + "\ntype = " + type + "\nviolatedJustice = "
@@ -253,7 +271,7 @@ public String toString() {
 				str+= "\nno safeties are violated";
 			}*/
 			if (type == CSNodeType.CYCLE && !isConcrete) {
-				str += "\nassumtpionsGraph = " + assumptionsGraph.toString();
+				str += "\nassumtpionsGraph = " + (assumptionsGraph != null ? assumptionsGraph : "not computed yet");
 			}
 			
 			str += "\n";
@@ -326,7 +344,11 @@ public CSNode clone() {
 			newNode.indexSymbolic = this.indexSymbolic;
 			newNode.isConcrete = this.isConcrete;
 			if (this.type == CSNodeType.CYCLE) {
-				newNode.assumptionsGraph = this.assumptionsGraph.clone();
+				if (this.assumptionsGraph != null) {
+					newNode.assumptionsGraph = this.assumptionsGraph.clone();
+				} else {
+					newNode.assumptionsGraphSupplier = this.assumptionsGraphSupplier;
+				}
 			}
 			return newNode;
 		}
@@ -658,35 +680,45 @@ public int maxNumOutEdgesPerNode() {
 	}
 	
 	public int maxNumInEdgesPerNode() {
+		CompactGraph graph = toCompactGraph();
 		HashMap<Integer, Integer> numInEdges = new HashMap<Integer, Integer>();
-		Iterator<Map.Entry<Integer, CSNode>> itr = this.nodes.entrySet().iterator();
+		Iterator<Integer> itr = this.nodes.keySet().iterator();
 		while (itr.hasNext()) {
-			Map.Entry<Integer, CSNode> entry = 
-					(Map.Entry<Integer, CSNode>) itr.next();
-			if (entry.getKey() == 0) {
+			int currNodeId = itr.next();
+			if (currNodeId == 0) {
 				// ignore marker initial node
 				continue;
 			}
-			int currNodeId = entry.getKey();
-			numInEdges.put(currNodeId, 0);
-			Iterator<Map.Entry<Integer, HashMap<Integer, CSEdge>>> innerItr =
-					this.edges.entrySet().iterator();
-			while (innerItr.hasNext()) {
-				Map.Entry<Integer, HashMap<Integer, CSEdge>> innerEntry = 
-						(Map.Entry<Integer, HashMap<Integer, CSEdge>>) innerItr.next();
-				if (innerEntry.getKey() == currNodeId || innerEntry.getKey() == 0) {
+			int count = 0;
+			for (int predNodeId : graph.predecessorKeys(currNodeId)) {
+				if (predNodeId != currNodeId && predNodeId != 0) {
 					// ignore initial marker node and current node
-					continue;
-				}
-				
-				if (innerEntry.getValue().containsKey(currNodeId)) {
-					numInEdges.put(currNodeId, numInEdges.get(currNodeId) + 1);
+					count++;
 				}
 			}
+			numInEdges.put(currNodeId, count);
 		}
 		
 		return Collections.max(numInEdges.values());
 	}
+
+	/**
+	 * @return a compact snapshot of the nodes and edges of the graph, for fast predecessor queries
+	 */
+	public CompactGraph toCompactGraph() {
+		CompactGraph.Builder builder = new CompactGraph.Builder();
+		for (int node : nodes.keySet()) {
+			builder.addNode(node);
+		}
+		Iterator<Map.Entry<Integer, HashMap<Integer, CSEdge>>> itr = edges.entrySet().iterator();
+		while (itr.hasNext()) {
+			Map.Entry<Integer, HashMap<Integer, CSEdge>> entry = itr.next();
+			for (int destNode : entry.getValue().keySet()) {
+				builder.addEdge(entry.getKey(), destNode);
+			}
+		}
+		return builder.build();
+	}
 	
 	public int numAttractors() {
 		int count = 0;
@@ -0,0 +1,185 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDDomain;
+import net.sf.javabdd.BDDVarSet;
+
+/**
+ * Extracts invariants of the form "var = val" from a BDD.
+ * The literals implied by the BDD (the cube of all of its satisfying assignments) are computed in a
+ * single traversal, and a domain is fixed iff all of its bits are implied. The invariants found are
+ * cached per BDD, since the same node and state BDDs are queried repeatedly.
+ */
+class JVGInvariantExtractor {
+
+	private static final int CACHE_SIZE = 1024;
+
+	/**
+	 * Literals implied by a BDD node: variables that are 1 (resp. 0) in all satisfying assignments
+	 */
+	private static class Implied {
+		final BitSet one;
+		final BitSet zero;
+
+		Implied(BitSet one, BitSet zero) {
+			this.one = one;
+			this.zero = zero;
+		}
+	}
+
+	private final LinkedHashMap<BDD, BDD[]> cache = new LinkedHashMap<BDD, BDD[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<BDD, BDD[]> eldest) {
+			if (size() > CACHE_SIZE) {
+				free(eldest);
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/**
+	 * Returns the invariants of the BDD. Each invariant holds its own reference of the invariant BDD,
+	 * so the caller may free it.
+	 * @param bdd
+	 * @return
+	 */
+	ArrayList<JVGInvariant> extract(BDD bdd) {
+		BDD[] values = cache.get(bdd);
+		if (values == null) {
+			values = fixedValues(bdd);
+			cache.put(bdd.id(), values);
+		}
+		ArrayList<JVGInvariant> invariants = new ArrayList<JVGInvariant>(values.length);
+		for (BDD value : values) {
+			JVGInvariant invariant = new JVGInvariant();
+			invariant.invariant = value.id();
+			invariants.add(invariant);
+		}
+		return invariants;
+	}
+
+	/**
+	 * Frees all cached BDDs
+	 */
+	void clear() {
+		for (Map.Entry<BDD, BDD[]> entry : cache.entrySet()) {
+			free(entry);
+		}
+		cache.clear();
+	}
+
+	private static void free(Map.Entry<BDD, BDD[]> entry) {
+		entry.getKey().free();
+		for (BDD value : entry.getValue()) {
+			value.free();
+		}
+	}
+
+	private static BDD[] fixedValues(BDD bdd) {
+		if (bdd.isZero() || bdd.isOne()) {
+			return new BDD[0];
+		}
+		HashMap<BDD, Implied> memo = new HashMap<BDD, Implied>();
+		Implied implied = implied(bdd.id(), memo);
+		for (BDD node : memo.keySet()) {
+			node.free();
+		}
+
+		ArrayList<BDD> values = new ArrayList<BDD>();
+		BDDVarSet support = bdd.support();
+		for (BDDDomain dom : support.getDomains()) {
+			int[] vars = dom.vars();
+			long val = 0;
+			boolean fixed = true;
+			for (int i = 0; i < vars.length && fixed; i++) {
+				if (implied.one.get(vars[i])) {
+					val |= 1L << i;
+				} else if (!implied.zero.get(vars[i])) {
+					fixed = false;
+				}
+			}
+			if (fixed && val < dom.size().longValue()) {
+				values.add(dom.ithVar(val));
+			}
+		}
+		support.free();
+		return values.toArray(new BDD[values.size()]);
+	}
+
+	/**
+	 * Computes the implied literals of a non-zero node. Takes ownership of the node, which is either
+	 * freed or kept as a key of the memo.
+	 */
+	private static Implied implied(BDD node, HashMap<BDD, Implied> memo) {
+		if (node.isOne()) {
+			node.free();
+			return new Implied(new BitSet(), new BitSet());
+		}
+		Implied res = memo.get(node);
+		if (res != null) {
+			node.free();
+			return res;
+		}
+		int var = node.var();
+		BDD low = node.low();
+		BDD high = node.high();
+		if (low.isZero()) {
+			low.free();
+			Implied h = implied(high, memo);
+			res = new Implied((BitSet) h.one.clone(), h.zero);
+			res.one.set(var);
+		} else if (high.isZero()) {
+			high.free();
+			Implied l = implied(low, memo);
+			res = new Implied(l.one, (BitSet) l.zero.clone());
+			res.zero.set(var);
+		} else {
+			Implied l = implied(low, memo);
+			Implied h = implied(high, memo);
+			BitSet one = (BitSet) l.one.clone();
+			one.and(h.one);
+			BitSet zero = (BitSet) l.zero.clone();
+			zero.and(h.zero);
+			res = new Implied(one, zero);
+		}
+		memo.put(node, res);
+		return res;
+	}
+}
@@ -0,0 +1,287 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+/**
+ * Merge engine of the JVTS attractors. Decides if a child node can be merged into its parent without creating
+ * a cycle, i.e., if the edge between them is the only path from the parent to the child, and keeps the merges.
+ * 
+ * The merges are kept in a union-find structure, where the node that remains after a merge is the representative
+ * of its class. The edges of the JVTS are not changed: the engine keeps its own edge lists of the remaining nodes,
+ * and the destination of an edge is resolved to its class when it is read (see {@link #find(int)}). The graph is
+ * built from the classes once all merges are decided.
+ * 
+ * Instead of enumerating the paths from the parent, the analysis keeps the parents of every node and a
+ * topological order of the graph, both computed once in O(V+E) and updated as nodes are merged. A child
+ * with a single incoming edge is decided in O(1). Otherwise, there is another path iff another parent of the
+ * child is reachable from the parent, which is checked by a search that never passes the topological index
+ * of the parents it looks for.
+ */
+class JVGMergeAnalysis {
+
+	// merged node -> the node it was merged into (union-find links, the remaining nodes have none)
+	private final Map<Integer, Integer> mergedInto;
+	// remaining node -> its edges (the edge objects of the JVTS, with unresolved destinations)
+	private final Map<Integer, List<JVGEdge>> edges;
+	// node -> parent -> number of edges from the parent to the node
+	private final Map<Integer, Map<Integer, Integer>> parents;
+	// topological index of every node, only valid if the graph is acyclic and the order is not stale
+	private final Map<Integer, Integer> order;
+	private boolean acyclic;
+	private boolean stale;
+
+	JVGMergeAnalysis(Set<Integer> nodes, Map<Integer, Vector<JVGEdge>> edges) {
+		this.mergedInto = new HashMap<Integer, Integer>();
+		this.edges = new HashMap<Integer, List<JVGEdge>>();
+		this.parents = new HashMap<Integer, Map<Integer, Integer>>();
+		this.order = new HashMap<Integer, Integer>();
+		for (int node : nodes) {
+			parents.put(node, new HashMap<Integer, Integer>());
+		}
+		for (Map.Entry<Integer, Vector<JVGEdge>> entry : edges.entrySet()) {
+			this.edges.put(entry.getKey(), new ArrayList<JVGEdge>(entry.getValue()));
+			for (JVGEdge edge : entry.getValue()) {
+				parentsOf(edge.destInd).merge(entry.getKey(), 1, Integer::sum);
+			}
+		}
+		computeOrder();
+	}
+
+	/**
+	 * @param node a node of the JVTS
+	 * @return the remaining node that the node was merged into (the node itself if it was not merged)
+	 */
+	int find(int node) {
+		int root = node;
+		Integer next;
+		while ((next = mergedInto.get(root)) != null) {
+			root = next;
+		}
+		// path compression
+		while (node != root) {
+			node = mergedInto.put(node, root);
+		}
+		return root;
+	}
+
+	/**
+	 * @param node a remaining node
+	 * @return the edges of the node (to be resolved with {@link #find(int)}), or null if the node has no edges
+	 */
+	List<JVGEdge> getEdges(int node) {
+		return edges.get(node);
+	}
+
+	/**
+	 * @param source a remaining node
+	 * @param target a remaining node that is a child of source
+	 * @return true iff the edge from source to target is the only path from source to target
+	 */
+	boolean canMerge(int source, int target) {
+		if (source == target) {
+			return false;
+		}
+		Map<Integer, Integer> targetParents = parentsOf(target);
+		if (targetParents.getOrDefault(source, 0) > 1) {
+			return false;
+		}
+		Set<Integer> others = new HashSet<Integer>();
+		for (int p : targetParents.keySet()) {
+			if (p != source && p != target) {
+				others.add(p);
+			}
+		}
+		return others.isEmpty() || !reachesAny(source, others, target);
+	}
+
+	/**
+	 * Merges the node from into the node into: the edge from into to from is removed, and the edges of from are
+	 * moved to into, unless into already has an edge to the same node. The edges to from are redirected to into
+	 * by the union-find links.
+	 * @param into a remaining node
+	 * @param from a remaining node that is a child of into
+	 * @return the children that were added to into
+	 */
+	List<Integer> merge(int into, int from) {
+		List<JVGEdge> intoEdges = edges.get(into);
+		for (int i = 0; i < intoEdges.size(); i++) {
+			if (find(intoEdges.get(i).destInd) == from) {
+				intoEdges.remove(i);
+				break;
+			}
+		}
+
+		List<Integer> added = new ArrayList<Integer>();
+		List<JVGEdge> fromEdges = edges.remove(from);
+		if (fromEdges != null) {
+			Set<Integer> intoChildren = new HashSet<Integer>();
+			for (JVGEdge edge : intoEdges) {
+				intoChildren.add(find(edge.destInd));
+			}
+			for (JVGEdge edge : fromEdges) {
+				if (!intoChildren.contains(find(edge.destInd))) {
+					intoEdges.add(edge);
+					added.add(edge.destInd);
+				}
+			}
+		}
+		mergedInto.put(from, into);
+		for (int i = 0; i < added.size(); i++) {
+			added.set(i, find(added.get(i)));
+		}
+
+		Map<Integer, Integer> fromParents = parents.remove(from);
+		Map<Integer, Integer> intoParents = parentsOf(into);
+		Integer intoInd = order.get(into);
+		for (Map.Entry<Integer, Integer> p : fromParents.entrySet()) {
+			int parent = p.getKey();
+			if (parent == into) {
+				// the merged edge
+				continue;
+			}
+			if (parent == from) {
+				// a self-loop of from is now a self-loop of into, counted with the children of into
+				stale = true;
+				continue;
+			}
+			intoParents.merge(parent, p.getValue(), Integer::sum);
+			Integer parentInd = order.get(parent);
+			if (intoInd == null || parentInd == null || parentInd > intoInd) {
+				// a redirected edge goes against the order
+				stale = true;
+			}
+		}
+		order.remove(from);
+
+		// the children of into now count the edges moved from the node from
+		Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+		for (JVGEdge edge : intoEdges) {
+			counts.merge(find(edge.destInd), 1, Integer::sum);
+		}
+		for (Map.Entry<Integer, Integer> c : counts.entrySet()) {
+			Map<Integer, Integer> childParents = parentsOf(c.getKey());
+			childParents.remove(from);
+			childParents.put(into, c.getValue());
+		}
+		return added;
+	}
+
+	private Map<Integer, Integer> parentsOf(int node) {
+		Map<Integer, Integer> res = parents.get(node);
+		if (res == null) {
+			res = new HashMap<Integer, Integer>();
+			parents.put(node, res);
+		}
+		return res;
+	}
+
+	/**
+	 * Computes a topological order (Kahn's algorithm), in O(V+E)
+	 */
+	private void computeOrder() {
+		order.clear();
+		Map<Integer, Integer> inDegree = new HashMap<Integer, Integer>();
+		ArrayDeque<Integer> ready = new ArrayDeque<Integer>();
+		for (Map.Entry<Integer, Map<Integer, Integer>> entry : parents.entrySet()) {
+			int degree = 0;
+			for (int count : entry.getValue().values()) {
+				degree += count;
+			}
+			inDegree.put(entry.getKey(), degree);
+			if (degree == 0) {
+				ready.add(entry.getKey());
+			}
+		}
+		while (!ready.isEmpty()) {
+			int node = ready.poll();
+			order.put(node, order.size());
+			if (edges.containsKey(node)) {
+				for (JVGEdge edge : edges.get(node)) {
+					int child = find(edge.destInd);
+					int degree = inDegree.get(child) - 1;
+					inDegree.put(child, degree);
+					if (degree == 0) {
+						ready.add(child);
+					}
+				}
+			}
+		}
+		acyclic = order.size() == parents.size();
+		stale = false;
+	}
+
+	/**
+	 * @return true iff one of the nodes in targets is reachable from source by a path that does not pass through
+	 * the node avoid
+	 */
+	private boolean reachesAny(int source, Set<Integer> targets, int avoid) {
+		if (stale) {
+			computeOrder();
+		}
+		int bound = Integer.MAX_VALUE;
+		if (acyclic) {
+			// every path to a target passes only nodes of a lower topological index
+			bound = 0;
+			for (int t : targets) {
+				bound = Math.max(bound, order.get(t));
+			}
+		}
+		Set<Integer> visited = new HashSet<Integer>();
+		ArrayDeque<Integer> stack = new ArrayDeque<Integer>();
+		stack.push(source);
+		visited.add(source);
+		while (!stack.isEmpty()) {
+			int node = stack.pop();
+			if (!edges.containsKey(node)) {
+				continue;
+			}
+			for (JVGEdge edge : edges.get(node)) {
+				int child = find(edge.destInd);
+				if (targets.contains(child)) {
+					return true;
+				}
+				if (child == avoid || visited.contains(child) || (acyclic && order.get(child) > bound)) {
+					continue;
+				}
+				visited.add(child);
+				stack.push(child);
+			}
+		}
+		return false;
+	}
+}
@@ -31,6 +31,7 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.Vector;
 
 import net.sf.javabdd.BDD;
+import tau.smlab.syntech.counterstrategy.model.JusticeViolationGraph.AssumptionGraphInputs;
 import tau.smlab.syntech.counterstrategy.model.JusticeViolationGraph.AssumptionSatisfactionGraph;
 import tau.smlab.syntech.gamemodel.BehaviorInfo;
 import tau.smlab.syntech.jtlv.Env;
@@ -48,8 +49,11 @@ public class JVGNode extends JVGCommonNode {
 	Vector<BehaviorInfo> violatedSafeties;
 	// the environment choices for concrete states inside this JVTS node
 	BDD transitions;
-	// only relevant for cycle nodes
+	// only relevant for cycle nodes, computed on demand from the inputs (see JusticeViolationGraph.getAssumptionGraph)
 	AssumptionSatisfactionGraph assumpGraph;
+	AssumptionGraphInputs assumpGraphInputs;
+	// the inputs were freed before the graph was computed (see JusticeViolationGraph.freeJVGraph)
+	boolean assumpGraphFreed;
 	
 	public JVGNode() {
 		this.type = JVGNodeType.UNKNOWN_NODE;
@@ -94,7 +98,7 @@ public String toString(String space, boolean printBDD) {
 		}
 		
 		if (type == JVGNodeType.CYCLE_NODE) {
-			res += "\n assumpSatMap = " + assumpGraph + "\n";
+			res += "\n assumpSatMap = " + (assumpGraph != null ? assumpGraph : "not computed yet") + "\n";
 		}
 		return res;
 	}
@@ -0,0 +1,84 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+/**
+ * The parts of a JVTS computation that do not depend on the Rabin game solution, handed over from one
+ * graph to the next one computed for the same specification with added environment assumptions
+ * (see {@link JusticeViolationGraph#detachReusable()} and {@link JusticeViolationGraph#reuse(JVGReuse)}).
+ * <p>
+ * Nothing is trusted blindly: the successors of the Ranking graph nodes are kept only for sets of states
+ * whose env transitions did not change, and the partitioned sys transitions only if the sys transitions
+ * did not change. Invariants depend on the BDDs alone and are always kept.
+ * </p>
+ * The Rabin game memory is not part of it, since the game is solved again after adding assumptions.
+ */
+public final class JVGReuse {
+
+	SuccessorCache successors;
+	JVGInvariantExtractor invariantExtractor;
+	PartitionedRelation sysTransRel;
+
+	JVGReuse(SuccessorCache successors, JVGInvariantExtractor invariantExtractor, PartitionedRelation sysTransRel) {
+		this.successors = successors;
+		this.invariantExtractor = invariantExtractor;
+		this.sysTransRel = sysTransRel;
+	}
+
+	/**
+	 * @return true if the results were handed over to a graph (or freed)
+	 */
+	public boolean isTaken() {
+		return successors == null;
+	}
+
+	/**
+	 * Frees the BDDs, unless they were handed over to a graph
+	 */
+	public void free() {
+		if (isTaken()) {
+			return;
+		}
+		successors.clear();
+		invariantExtractor.clear();
+		if (sysTransRel != null) {
+			sysTransRel.free();
+		}
+		take();
+	}
+
+	/**
+	 * Marks the results as handed over, so they are freed by the graph that took them
+	 */
+	void take() {
+		successors = null;
+		invariantExtractor = null;
+		sysTransRel = null;
+	}
+}
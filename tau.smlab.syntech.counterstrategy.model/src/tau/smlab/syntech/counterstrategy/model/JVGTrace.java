@@ -0,0 +1,247 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import java.util.logging.StreamHandler;
+
+/**
+ * Tracing of the JVTS computation.
+ * Messages are given as suppliers and are built only if their level is loggable, so a disabled trace
+ * costs a single level check. In addition, structured events can be written to a binary event log,
+ * which can be read back with {@link #dump(InputStream, PrintStream)} for post-mortem analysis.
+ */
+public class JVGTrace {
+
+	/**
+	 * The structured events of the computation. The fields of each event are longs, in the order given here.
+	 */
+	public enum Event {
+		/** computation started: number of z-ranks, ini node count */
+		COMPUTE_START,
+		/** ranking graph computed: nodes, edges */
+		RANKING_GRAPH,
+		/** process node taken from the work list: RG node index, z-rank, work list size */
+		NODE_START,
+		/** process node handled: RG node index, number of JVTS nodes created, destinations */
+		NODE_END,
+		/** JVTS node added: JVTS node index, type ordinal, z-rank, node count */
+		JVG_NODE,
+		/** assumption satisfaction graph computed: RG node index, nodes */
+		ASSUMPTION_GRAPH,
+		/** computation ended: JVTS nodes, BDD nodes in use */
+		COMPUTE_END
+	}
+
+	private static final int MAGIC = 0x4A564745; // "JVGE"
+	private static final short VERSION = 1;
+
+	private static StreamHandler handler;
+
+	/**
+	 * Prints the records of a binary event log, one event per line.
+	 * @param in the event log
+	 * @param out where to print the events
+	 * @throws IOException if the log can't be read or is not an event log
+	 */
+	public static void dump(InputStream in, PrintStream out) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC || data.readShort() != VERSION) {
+			throw new IOException("not a JVTS event log");
+		}
+		Event[] events = Event.values();
+		while (true) {
+			int ordinal;
+			try {
+				ordinal = data.readUnsignedByte();
+			} catch (EOFException e) {
+				return;
+			}
+			long nanos = data.readLong();
+			long[] fields = new long[data.readUnsignedByte()];
+			for (int i = 0; i < fields.length; i++) {
+				fields[i] = data.readLong();
+			}
+			String name = ordinal < events.length ? events[ordinal].name() : "EVENT_" + ordinal;
+			out.println(String.format("%.3fms %s %s", nanos / 1e6, name, Arrays.toString(fields)));
+		}
+	}
+
+	/**
+	 * Sets the level of the logger and makes it print to the shared console handler.
+	 * The handler is created once and installed at most once per logger.
+	 * @param log the logger
+	 * @param level level of traces to log
+	 */
+	static synchronized void attach(Logger log, Level level) {
+		if (handler == null) {
+			handler = new StreamHandler(System.out, new SimpleFormatter());
+			handler.setLevel(Level.ALL);
+		}
+		log.setUseParentHandlers(false);
+		log.setLevel(level);
+		if (!Arrays.asList(log.getHandlers()).contains(handler)) {
+			log.addHandler(handler);
+		}
+		LogManager.getLogManager().addLogger(log);
+	}
+
+	private final Logger log;
+	private DataOutputStream events;
+	private long start;
+
+	JVGTrace(Logger log) {
+		this.log = log;
+	}
+
+	boolean isLoggable(Level level) {
+		return log.isLoggable(level);
+	}
+
+	void log(Level level, Supplier<String> msg) {
+		if (log.isLoggable(level)) {
+			publish(level, msg.get(), null);
+		}
+	}
+
+	/**
+	 * Logs a parameterized message whose pattern is built only if the level is loggable.
+	 * @param level the level
+	 * @param pattern the pattern, with {0}, {1} etc. for the params
+	 * @param params the params, usually lazy wrappers such as {@link BddStringWrapper}
+	 */
+	void log(Level level, Supplier<String> pattern, Object... params) {
+		if (log.isLoggable(level)) {
+			publish(level, pattern.get(), params);
+		}
+	}
+
+	/**
+	 * Logs the message with the caller of the trace as its source (as if the caller logged it directly)
+	 */
+	private void publish(Level level, String msg, Object[] params) {
+		LogRecord record = new LogRecord(level, msg);
+		record.setParameters(params);
+		record.setLoggerName(log.getName());
+		for (StackTraceElement e : new Throwable().getStackTrace()) {
+			if (!e.getClassName().equals(JVGTrace.class.getName())) {
+				record.setSourceClassName(e.getClassName());
+				record.setSourceMethodName(e.getMethodName());
+				break;
+			}
+		}
+		log.log(record);
+	}
+
+	void info(Supplier<String> msg) {
+		log(Level.INFO, msg);
+	}
+
+	void fine(Supplier<String> msg) {
+		log(Level.FINE, msg);
+	}
+
+	void finer(Supplier<String> msg) {
+		log(Level.FINER, msg);
+	}
+
+	void finest(Supplier<String> msg) {
+		log(Level.FINEST, msg);
+	}
+
+	/**
+	 * Starts writing events to the given stream. The stream is not closed by the trace.
+	 * @param out the stream, or null to stop writing events
+	 * @throws IOException if the header can't be written
+	 */
+	void setEventLog(OutputStream out) throws IOException {
+		flushEvents();
+		if (out == null) {
+			events = null;
+			return;
+		}
+		events = new DataOutputStream(new BufferedOutputStream(out));
+		events.writeInt(MAGIC);
+		events.writeShort(VERSION);
+		start = System.nanoTime();
+	}
+
+	boolean hasEventLog() {
+		return events != null;
+	}
+
+	/**
+	 * Writes an event to the event log, if there is one.
+	 * A failure to write disables the event log rather than failing the computation.
+	 * @param event the event
+	 * @param fields the fields of the event
+	 */
+	void event(Event event, long... fields) {
+		if (events == null) {
+			return;
+		}
+		try {
+			events.writeByte(event.ordinal());
+			events.writeLong(System.nanoTime() - start);
+			events.writeByte(fields.length);
+			for (long f : fields) {
+				events.writeLong(f);
+			}
+		} catch (IOException e) {
+			log.warning("event log disabled - " + e.getMessage());
+			events = null;
+		}
+	}
+
+	void flushEvents() {
+		if (events == null) {
+			return;
+		}
+		try {
+			events.flush();
+		} catch (IOException e) {
+			log.warning("event log disabled - " + e.getMessage());
+			events = null;
+		}
+	}
+}
@@ -29,6 +29,8 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 package tau.smlab.syntech.counterstrategy.model;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -43,13 +45,9 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.TreeSet;
 import java.util.Vector;
 import java.util.logging.Level;
-import java.util.logging.LogManager;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
-import java.util.logging.StreamHandler;
 
 import net.sf.javabdd.BDD;
-import net.sf.javabdd.BDD.BDDIterator;
 import net.sf.javabdd.BDDDomain;
 import net.sf.javabdd.BDDVarSet;
 import tau.smlab.syntech.gamemodel.BehaviorInfo;
@@ -86,6 +84,8 @@ public String toString() {
  */
 public class JusticeViolationGraph {
 	private static final Logger log = Logger.getLogger(JusticeViolationGraph.class.getName());
+	// Messages which are costly to build go through the trace, and are built only if their level is loggable
+	final JVGTrace trace;
 	// The name of an variable added to the specification to differentiate same states when used for 
 	// satisfying different environment assumptions. See "ASSUMP_RANK" in 
 	//"A Symbolic Justice Violations Transition System For Unrealizable GR(1) Specifications" paper.
@@ -94,8 +94,8 @@ public class JusticeViolationGraph {
 	// members
 	HashMap<Integer, JVGNode> nodes;
 	HashMap<Integer, Vector<JVGEdge>> edges;
-	Vector<BDD> memZ; // The Z intermediate results of the Rabin game solution
-	Vector<Vector<Vector<BDD>>> memX; // The X intermediate results of the Rabin game solution
+	RabinMemoryView rabinMem; // The Z and X intermediate results of the Rabin game solution, borrowed from the game
+	List<BDD> memZ; // The Z intermediate results of the Rabin game solution
 	BDD ini; // The input initial states
 	Vector<BehaviorInfo> negatedSafeties; // safeties of the system
 	BDD safetiesBDD; // states violating system safety
@@ -108,6 +108,11 @@ public class JusticeViolationGraph {
 	HashSet<String> auxVars; // Auxiliary variables, provided for the JVTS tool GUI
 	BDDVarSet auxVarsSet; // Auxiliary variables as a BDDVrSet
 	boolean calcAssumpGraph; // Indicating if Assumption Satisfaction Sub-graph should be computed for each JVTS cycle node
+	JVGInvariantExtractor invariantExtractor = new JVGInvariantExtractor(); // Invariants of node and state BDDs, cached per BDD
+	CompactGraph compactGraph; // Compact snapshot of nodes and edges, built on demand and dropped when the graph changes
+	PartitionedRelation transRel; // env and sys transitions partitioned by the safeties, for computing successors
+	PartitionedRelation sysTransRel; // sys transitions partitioned by the safeties, for quantifying the sys choice
+	SuccessorCache successorCache = new SuccessorCache(); // Successors of Ranking graph states, may be reused by the next graph
 	
 	/**
 	 * This class represents the Ranking Graph (aka Ranking Transition System).
@@ -211,19 +216,9 @@ public String toString() {
 		 * this xMatrix is saved in the member nodeXMatrix.
 		 * @param safeties - Deprecated. A BDD representing all states which are deadend for the system 
 		 */
-		void setXMatrix(Vector<Vector<BDD>> xMatrix, BDD safeties) {
+		void setXMatrix(List<List<BDD>> xMatrix, BDD safeties) {
 			log.finer("START");
-			String beforeFilt = "matrix for z-rank " + zRank + " before filtering:\n";
-			int k = 0;
-			ArrayList<BddStringWrapper> beforeBdds = new ArrayList<BddStringWrapper>();
-			for (int i = 0; i < xMatrix.size(); i++) {
-				for (int j = 0; j < xMatrix.get(i).size(); j++) {
-					beforeFilt += "xMatrix[" + i + "][" + j + "] = {" + k + "}\n";
-					beforeBdds.add(new BddStringWrapper(xMatrix.get(i).get(j)));
-					k++;
-				}
-			}
-			log.log(Level.FINER, beforeFilt, beforeBdds.toArray());
+			logMatrix(zRank, "before filtering", "xMatrix", xMatrix);
 
 			// removing duplicate states
 			nodeXMatrix = new Vector<Vector<BDD>>();
@@ -242,18 +237,7 @@ void setXMatrix(Vector<Vector<BDD>> xMatrix, BDD safeties) {
 				nodeXMatrix.add(xRow);
 			}
 		
-			String afterFilt = "matrix for z-rank " + zRank + " after filtering:\n";
-			k = 0;
-			ArrayList<BddStringWrapper> afterBdds = new ArrayList<BddStringWrapper>();
-			for (int i = 0; i < nodeXMatrix.size(); i++) {
-				for (int j = 0; j < nodeXMatrix.get(i).size(); j++) {
-					afterFilt += "xMatrix[" + i + "][" + j + "] = {" + k + "}\n";
-					afterBdds.add(new BddStringWrapper(nodeXMatrix.get(i).get(j)));
-					k++;
-				}
-			}
-			
-			log.log(Level.FINER, afterFilt, afterBdds.toArray());
+			logMatrix(zRank, "after filtering", "xMatrix", nodeXMatrix);
 			log.finer("END");
 		}
 		
@@ -266,17 +250,7 @@ void setXMatrix(Vector<Vector<BDD>> xMatrix, BDD safeties) {
 		 */
 		public void addAssumpRankToXMatrix() {
 			log.finer("START");
-			String beforeAdd = "matrix for z-rank " + zRank + " before adding ASSUMPTION_RANK:\n";
-			int k = 0;
-			ArrayList<BddStringWrapper> beforeBdds = new ArrayList<BddStringWrapper>();
-			for (int i = 0; i < nodeXMatrix.size(); i++) {
-				for (int j = 0; j < nodeXMatrix.get(i).size(); j++) {
-					beforeAdd += "nodeXMatrix[" + i + "][" + j + "] = {" + k + "}\n";
-					beforeBdds.add(new BddStringWrapper(nodeXMatrix.get(i).get(j)));
-					k++;
-				}
-			}
-			log.log(Level.FINER, beforeAdd, beforeBdds.toArray());
+			logMatrix(zRank, "before adding ASSUMPTION_RANK", "nodeXMatrix", nodeXMatrix);
 
 			// add current row marker variable ASSUMPTION_RANK
 			for (int i = 0; i < nodeXMatrix.size(); i++) {
@@ -289,18 +263,7 @@ public void addAssumpRankToXMatrix() {
 				}
 			}
 		
-			String afterAdd = "matrix for z-rank " + zRank + " after adding ASSUMPTION_RANK:\n";
-			k = 0;
-			ArrayList<BddStringWrapper> afterBdds = new ArrayList<BddStringWrapper>();
-			for (int i = 0; i < nodeXMatrix.size(); i++) {
-				for (int j = 0; j < nodeXMatrix.get(i).size(); j++) {
-					afterAdd += "xMatrix[" + i + "][" + j + "] = {" + k + "}\n";
-					afterBdds.add(new BddStringWrapper(nodeXMatrix.get(i).get(j)));
-					k++;
-				}
-			}
-			
-			log.log(Level.FINER, afterAdd, afterBdds.toArray());
+			logMatrix(zRank, "after adding ASSUMPTION_RANK", "xMatrix", nodeXMatrix);
 			log.finer("END");
 		}
 		
@@ -386,6 +349,35 @@ public String toString() {
 		BehaviorInfo satAssump;
 	}
 	
+	/**
+	 * The inputs of the Assumption Satisfaction Sub-graph of a cycle node, kept in the node so the sub-graph
+	 * is computed only when it is first asked for (see {@link JusticeViolationGraph#getAssumptionGraph(JVGNode)})
+	 */
+	class AssumptionGraphInputs {
+		public AssumptionGraphInputs() {
+			this.pointRows = new Vector<Integer>();
+			this.pointStates = new Vector<BDD>();
+		}
+		
+		void free() {
+			cycleStates.free();
+			innerNodeTransitions.free();
+			for (int i = 0; i < pointStates.size(); i++) {
+				pointStates.get(i).free();
+			}
+			pointStates.clear();
+		}
+		
+		int currNodeIndRG; // The Ranking graph node of the cycle node
+		BDD cycleStates;
+		// The xRow of every point of the X paths containing cycle states, in the order of the paths, and
+		// the cycle states in the point
+		Vector<Integer> pointRows;
+		Vector<BDD> pointStates;
+		BDD innerNodeTransitions; // The env choices of the Ranking graph node when the cycle states were computed
+		int numAssumptions;
+	}
+	
 	/**
 	 * A point (i.e. xMatrix cell) in a path computed during traversal over the xMatrix, in the context
 	 * of a specific system justice violation.
@@ -474,7 +466,8 @@ protected JVGXPath clone() throws CloneNotSupportedException {
 
 	/**
 	 * Constructor, calls the second constructor without logging and with computing Assumption Satisfaction Sub-graphs.
-	 * @param rg The Rabin game solution
+	 * @param rg The Rabin game solution. Its memory is borrowed, so the game must not be freed before
+	 * {@link #computeGraph()} returns, unless {@link #ownRabinMemory()} is called first
 	 * @param model The game model, changed by the JVG computation
 	 */
 	public JusticeViolationGraph(RabinGame rg, GameModel model) {
@@ -483,22 +476,17 @@ public JusticeViolationGraph(RabinGame rg, GameModel model) {
 	
 	/**
 	 * 
-	 * @param rg The Rabin game solution
+	 * @param rg The Rabin game solution. Its memory is borrowed, so the game must not be freed before
+	 * {@link #computeGraph()} returns, unless {@link #ownRabinMemory()} is called first
 	 * @param model The game model, changed by the JVG computation
 	 * @param logLevel level of traces to log
 	 * @param calcAssumpGraph flag indicating if the Assumption Satisfaction Sub-graphs should be computed
 	 */
 	public JusticeViolationGraph(RabinGame rg, GameModel model, Level logLevel, boolean calcAssumpGraph) {
-		// initializing the logger
-		log.setUseParentHandlers(false);
-		SimpleFormatter fmt = new SimpleFormatter();
-		StreamHandler sh = new StreamHandler(System.out, fmt);
-		sh.setLevel(logLevel);
-		log.setLevel(logLevel);
-		log.addHandler(sh);
-		LogManager lm = LogManager.getLogManager();
-		lm.addLogger(log);
-		
+		// initializing the logger (the console handler is shared, not added again by every graph)
+		JVGTrace.attach(log, logLevel);
+		this.trace = new JVGTrace(log);
+
 		// initializing the members
 		this.calcAssumpGraph = calcAssumpGraph;
 		this.env = model.getEnv();
@@ -517,30 +505,15 @@ public JusticeViolationGraph(RabinGame rg, GameModel model, Level logLevel, bool
 		this.safetiesBDD = sys.trans().exist(Env.globalPrimeVars()).not();
 		log.log(Level.FINE, "safetiesBDD = {0}", new BddStringWrapper(this.safetiesBDD));
 		
-		// Copying the Rabin game ZMem. After Rabin Game, it contains:
+		// Borrowing the Rabin game memory (no copies, see ownRabinMemory). After Rabin Game, ZMem contains:
 		// in cell i - all states that either violate system justice i or from which the env can force
 		// the system to a state in cell i-1.
 		// (for i = 0 - states from which the env can force the system to violate a system safety)
-		this.memZ = new Vector<BDD>();
-		for (int i = 0; i < rg.getMem().getZMem().size(); i++) {
-			this.memZ.add(rg.getMem().getZMem().get(i).id());
-		}
-		
-		// Copying the Rabin game ZMem. After Rabin Game, XMem contains:
-		// in cell i all the states as in memZ[i], divided to a matrix where each row represent an environment
-		// justice being satisfied. Each cell in the row is a step towards satisfaction of relevant environment justice.
-		this.memX = new Vector<Vector<Vector<BDD>>>();
-		for (int i = 0; i < rg.getMem().getXMem().size(); i++) {
-			Vector<Vector<BDD>> temp = new Vector<Vector<BDD>>();
-			for (int j = 0; j < rg.getMem().getXMem().get(i).size(); j++) {
-				Vector<BDD> temp2 = new Vector<BDD>();
-				for (int k = 0; k < rg.getMem().getXMem().get(i).get(j).size(); k++) {
-					temp2.add(rg.getMem().getXMem().get(i).get(j).get(k).id());
-				}
-				temp.add(temp2);
-			}
-			this.memX.add(temp);
-		}
+		// XMem contains in cell i all the states as in memZ[i], divided to a matrix where each row represent an
+		// environment justice being satisfied. Each cell in the row is a step towards satisfaction of relevant
+		// environment justice.
+		this.rabinMem = RabinMemoryView.borrow(rg);
+		this.memZ = rabinMem.getZMem();
 		
 		// collecting the aux variables, to be used when displaying to the user in the GUI
 		this.auxVars = new HashSet<String>();
@@ -552,6 +525,68 @@ public JusticeViolationGraph(RabinGame rg, GameModel model, Level logLevel, bool
 		
 	}
 	
+	/**
+	 * Hands the ownership of the Rabin game memory over to the graph, so the game can be freed before
+	 * the graph is computed. The memory is released by {@link #freeJVGraph(HashMap, HashMap)}.
+	 */
+	public void ownRabinMemory() {
+		rabinMem.takeOwnership();
+		memZ = rabinMem.getZMem();
+	}
+
+	/**
+	 * Drops the Rabin game memory, e.g., before the game is freed after the graph was computed (the memory is
+	 * released if the graph owns it). The graph can't be computed again afterwards.
+	 */
+	public void releaseRabinMemory() {
+		rabinMem.free();
+		memZ = rabinMem.getZMem();
+	}
+	
+	/**
+	 * Takes the results of a previous graph of the same specification, computed before environment assumptions
+	 * were added, that are still valid for this graph. Successors of Ranking graph states are recomputed only
+	 * for states whose env transitions changed. Call before {@link #computeGraph()}.
+	 * @param previous results detached from the previous graph, taken over (and later freed) by this graph
+	 */
+	public void reuse(JVGReuse previous) {
+		if (previous.isTaken()) {
+			return;
+		}
+		successorCache.clear();
+		successorCache = previous.successors;
+		invariantExtractor.clear();
+		invariantExtractor = previous.invariantExtractor;
+		if (sysTransRel != null) {
+			sysTransRel.free();
+		}
+		sysTransRel = previous.sysTransRel;
+		previous.take();
+	}
+	
+	/**
+	 * Detaches the results that the next graph of the specification, computed after adding environment
+	 * assumptions, can reuse (see {@link #reuse(JVGReuse)}). The graph itself remains usable.
+	 * @return the results, to be either reused or freed
+	 */
+	public JVGReuse detachReusable() {
+		JVGReuse res = new JVGReuse(successorCache, invariantExtractor, sysTransRel);
+		successorCache = new SuccessorCache();
+		invariantExtractor = new JVGInvariantExtractor();
+		sysTransRel = null;
+		return res;
+	}
+	
+	/**
+	 * Sets a binary event log, to which the computation writes structured events (see {@link JVGTrace.Event}).
+	 * The log can be printed with {@link JVGTrace#dump(java.io.InputStream, java.io.PrintStream)}.
+	 * @param out The stream to write the events to (not closed by the graph), or null for no event log
+	 * @throws IOException if the header of the event log can't be written
+	 */
+	public void setEventLog(OutputStream out) throws IOException {
+		trace.setEventLog(out);
+	}
+	
 	/**
 	 * Conjuncting all safeties given
 	 * @param safeties A vector of BehaviorInfo containing the safeties
@@ -618,10 +653,18 @@ private RankingGraph calcRankingGraphHelper(BDD ini,
 		// Initialize Ranking Graph structs
 		RankingGraph rankGraph = new RankingGraph();
 		
+		// Keep only the cached successors which are still valid (e.g., from a previous graph)
+		BDDVarSet unprimeVars = env.moduleUnprimeVars().union(sys.moduleUnprimeVars());
+		successorCache.validate(env.trans(), sys.trans(), unprimeVars, Env.globalPrimeVars());
+		unprimeVars.free();
+		trace.fine(() -> "reusing " + successorCache.size() + " cached successors");
+		
 		// Print the memZ vector (for debugging)
 		log.finest("memZ:");
 		for (int i = 0; i < memZ.size(); i++) {
-			log.log(Level.FINEST, "memZ[" + i + "] = {0}", new BddStringWrapper(memZ.get(i)));
+			if (log.isLoggable(Level.FINEST)) {
+				log.log(Level.FINEST, "memZ[" + i + "] = {0}", new BddStringWrapper(memZ.get(i)));
+			}
 		}
 		
 		// Refine the memZ vector (remove duplicate states)
@@ -631,7 +674,9 @@ private RankingGraph calcRankingGraphHelper(BDD ini,
 		// Print the refined memZ vector (for debugging)
 		log.finest("refinedZ:");
 		for (int i = 0; i < refinedZ.size(); i++) {
-			log.log(Level.FINEST, "refinedZ[" + i + "] = {0}", new BddStringWrapper(refinedZ.get(i)));
+			if (log.isLoggable(Level.FINEST)) {
+				log.log(Level.FINEST, "refinedZ[" + i + "] = {0}", new BddStringWrapper(refinedZ.get(i)));
+			}
 		}
 		
 		// Initialize local temporary vector used for calculation
@@ -644,9 +689,8 @@ private RankingGraph calcRankingGraphHelper(BDD ini,
 		// Calculate initial node
 		RGNode initNode = new RGNode();
 		Vector<RGEdge> initEdges = new Vector<RGEdge>();
-		BDD trans = env.trans().and(sys.trans());
 		calcNodeAndEdgesRG(refinedZ, ini, refinedZ.size() /*z-rank limit*/, tempZ, 
-				safeties, aux, initNode, initEdges, trans);
+				safeties, aux, initNode, initEdges);
 		rankGraph.nodes.put(nodeKeyRG, initNode);
 		rankGraph.edges.put(nodeKeyRG, initEdges);
 		
@@ -667,14 +711,13 @@ private RankingGraph calcRankingGraphHelper(BDD ini,
 				RGNode node = new RGNode();
 				Vector<RGEdge> edges = new Vector<RGEdge>(); 
 				// Calculate the next node and its edges
-				calcNodeAndEdgesRG(refinedZ, tempZ.get(i), i, tempZ, safeties, aux, node, edges, trans);
+				calcNodeAndEdgesRG(refinedZ, tempZ.get(i), i, tempZ, safeties, aux, node, edges);
 				rankGraph.nodes.put(nodeKeyRG, node);
 				rankGraph.edges.put(nodeKeyRG, edges);
 				zRankToRGNodeInd.put(i, nodeKeyRG);
 				nodeKeyRG++;	
 			}
 		}
-		trans.free();
 				
 		// The edges currently contain as destInds the z-rank of the nodes (since we didn't
 		// have the node RG indices when we created the edges).
@@ -695,7 +738,7 @@ private void refineZVector(Vector<BDD> refinedZ) {
 		BDD lower = Env.FALSE();
 		for (int i = 0; i <memZ.size(); i++) {			
 			refinedZ.add(memZ.get(i).id().andWith(lower.not()));
-			lower.orWith(memZ.get(i));
+			lower.orWith(memZ.get(i).id());
 		}
 		lower.free();
 	}
@@ -717,9 +760,9 @@ private void refineZVector(Vector<BDD> refinedZ) {
 	 * @param trans All valid transitions by the specification (passed as a performance optimization)
 	 */
 	private void calcNodeAndEdgesRG(Vector<BDD> refinedZ, BDD currBDD, int zRankLimit, Vector<BDD> tempZ,
-			Vector<BehaviorInfo> safeties, BDD aux, RGNode node, Vector<RGEdge> edges, BDD trans) {
+			Vector<BehaviorInfo> safeties, BDD aux, RGNode node, Vector<RGEdge> edges) {
 		// Print the relevant input - for debugging
-		log.log(Level.FINER, "currBDD = {0}, zRankLimit = " + zRankLimit, new BddStringWrapper(currBDD));
+		trace.log(Level.FINER, () -> "currBDD = {0}, zRankLimit = " + zRankLimit, new BddStringWrapper(currBDD));
 		
 		BDD toIntersect;
 		// When handling the initial node, we want to locate the z-rank nodes where the actual
@@ -731,7 +774,7 @@ private void calcNodeAndEdgesRG(Vector<BDD> refinedZ, BDD currBDD, int zRankLimi
 			log.finest("Handling the initial node");
 			toIntersect = currBDD.id();
 		} else {
-			toIntersect = calcSuccNodeRG(currBDD, trans);
+			toIntersect = calcCachedSuccNodeRG(currBDD);
 		}
 		
 		for (int i = 0; i < zRankLimit; i++) {
@@ -744,7 +787,7 @@ private void calcNodeAndEdgesRG(Vector<BDD> refinedZ, BDD currBDD, int zRankLimi
 				// Get all reachable states inside the current memZ cell
 				FixPoint iter;
 				for (iter = new FixPoint(true); iter.advance(temp.id());) {
-					BDD nextSuccs = calcSuccNodeRG(temp, trans);
+					BDD nextSuccs = calcCachedSuccNodeRG(temp);
 					temp.orWith(nextSuccs.and(refinedZ.get(i)));
 					nextSuccs.free();
 				}
@@ -779,14 +822,81 @@ private void calcNodeAndEdgesRG(Vector<BDD> refinedZ, BDD currBDD, int zRankLimi
 	}
 	
 	/**
-	 * Returning all valid successors of the given set of states (represented by BDD) and a give transition
-	 * relation
+	 * Returning all valid successors of the given set of states (represented by BDD) by the env and sys
+	 * transitions
+	 * @param currNode BDD representing a set of states
+	 * @return BDD representing the successors
+	 */
+	private BDD calcSuccNodeRG(BDD currNode) {
+		BDD step = transitions().relProd(currNode);
+		BDD succ = Env.unprime(step);
+		step.free();
+		return succ;
+	}
+
+	/**
+	 * Like {@link #calcSuccNodeRG(BDD)}, through the successor cache. Used only for the Ranking graph, for
+	 * which the cache is validated (i.e., before the ASSUMPTION_RANK variable is added).
 	 * @param currNode BDD representing a set of states
-	 * @param trans BDD representing a transition relation
 	 * @return BDD representing the successors
 	 */
-	private BDD calcSuccNodeRG(BDD currNode, BDD trans) {
-		return Env.succ(currNode, trans);
+	private BDD calcCachedSuccNodeRG(BDD currNode) {
+		BDD succ = successorCache.get(currNode);
+		if (succ == null) {
+			succ = calcSuccNodeRG(currNode);
+			successorCache.put(currNode, succ);
+		}
+		return succ;
+	}
+
+	/**
+	 * Returns the env and sys transitions, partitioned by the safeties, quantifying the unprimed variables.
+	 * The partitioning is computed again if the transitions or the variables changed (e.g., when adding the
+	 * ASSUMPTION_RANK variable).
+	 */
+	private PartitionedRelation transitions() {
+		BDDVarSet unprimeVars = env.moduleUnprimeVars().union(sys.moduleUnprimeVars());
+		if (transRel == null || !transRel.isFor(unprimeVars, env.trans(), sys.trans())) {
+			if (transRel != null) {
+				transRel.free();
+			}
+			ArrayList<BDD> parts = safetyParts(envBehaviorInfo);
+			parts.addAll(safetyParts(sysBehaviorInfo));
+			parts.addAll(safetyParts(auxBehaviorInfo));
+			transRel = new PartitionedRelation(parts, unprimeVars, env.trans(), sys.trans());
+			trace.fine(() -> "env and sys transitions partitioned to " + transRel.size() + " clusters");
+		}
+		unprimeVars.free();
+		return transRel;
+	}
+
+	/**
+	 * Returns the sys transitions, partitioned by the safeties, quantifying the primed sys variables
+	 * (i.e., the sys choice).
+	 */
+	private PartitionedRelation sysTransitions() {
+		if (sysTransRel == null || !sysTransRel.isFor(sys.modulePrimeVars(), sys.trans())) {
+			if (sysTransRel != null) {
+				sysTransRel.free();
+			}
+			ArrayList<BDD> parts = safetyParts(sysBehaviorInfo);
+			parts.addAll(safetyParts(auxBehaviorInfo));
+			sysTransRel = new PartitionedRelation(parts, sys.modulePrimeVars(), sys.trans());
+			trace.fine(() -> "sys transitions partitioned to " + sysTransRel.size() + " clusters");
+		}
+		return sysTransRel;
+	}
+
+	private static ArrayList<BDD> safetyParts(List<BehaviorInfo> behaviorInfo) {
+		ArrayList<BDD> parts = new ArrayList<BDD>();
+		if (behaviorInfo != null) {
+			for (BehaviorInfo bi : behaviorInfo) {
+				if (bi.isSafety()) {
+					parts.add(bi.safety);
+				}
+			}
+		}
+		return parts;
 	}
 	
 	/**
@@ -898,6 +1008,9 @@ private void convertEdgesRG(HashMap<Integer, Vector<RGEdge>> edges,
 	 * @param graph The Ranking graph to print
 	 */
 	private void printRankingGraph(RankingGraph graph) {
+		if (!log.isLoggable(Level.INFO)) {
+			return;
+		}
 		String str = "";
 		Iterator<Map.Entry<Integer, RGNode>> itr = graph.nodes.entrySet().iterator();
 		ArrayList<Object> params = new ArrayList<Object>();
@@ -927,6 +1040,45 @@ private void printRankingGraph(RankingGraph graph) {
 		log.log(Level.INFO, str, params.toArray());
 	}
 
+	/**
+	 * Logging the cells of a matrix from memX (only built if FINER is loggable)
+	 * @param zRank The z-rank of the matrix
+	 * @param when When the matrix is logged (e.g., "before filtering")
+	 * @param name The name to print for the matrix cells
+	 * @param matrix The matrix to log
+	 */
+	private static void logMatrix(int zRank, String when, String name, List<? extends List<BDD>> matrix) {
+		if (!log.isLoggable(Level.FINER)) {
+			return;
+		}
+		StringBuilder str = new StringBuilder("matrix for z-rank " + zRank + " " + when + ":\n");
+		for (int i = 0; i < matrix.size(); i++) {
+			for (int j = 0; j < matrix.get(i).size(); j++) {
+				str.append(name + "[" + i + "][" + j + "] = ")
+					.append(Env.toNiceSignleLineString(matrix.get(i).get(j))).append("\n");
+			}
+		}
+		log.finer(str.toString());
+	}
+
+	/**
+	 * Logging the elements of a list, one per line (only built if the level is loggable)
+	 * @param level The level to log in
+	 * @param title The first line, may be empty
+	 * @param name The name to print for the elements
+	 * @param elems The elements to log
+	 */
+	private static void logElements(Level level, String title, String name, List<?> elems) {
+		if (!log.isLoggable(level)) {
+			return;
+		}
+		StringBuilder str = new StringBuilder(title);
+		for (int i = 0; i < elems.size(); i++) {
+			str.append(name + "[" + i + "] = ").append(elems.get(i)).append("\n");
+		}
+		log.log(level, str.toString());
+	}
+
 	/**
 	 * Freeing all BDDs composing the nodes in the Ranking graph
 	 * @param graph The Ranking graph to free
@@ -994,18 +1146,30 @@ private boolean handleIniSafetyViolation() {
 	 */
 	public void computeGraph() throws Exception {
 		log.info("START");
+		compactGraph = null;
 		log.log(Level.INFO, "ini = {0}", new BddStringWrapper(ini));
+		if (trace.hasEventLog()) {
+			trace.event(JVGTrace.Event.COMPUTE_START, memZ.size(), ini.nodeCount());
+		}
 		
 		// handle special case where all initial states contain an env choice that can force sys choice 
 		// to violate safeties. Not mentioned in the paper.
 		if (handleIniSafetyViolation()) {
 			addInvariants();
 			log.log(Level.FINE, "initial state can force sys to violate safety");
+			endEvents();
 			return;
 		}
 		
 		// Compute the Ranking Graph
 		RankingGraph rankGraph = calcRankingGraphHelper(ini, negatedSafeties, aux);
+		if (trace.hasEventLog()) {
+			int rgEdges = 0;
+			for (Vector<RGEdge> nodeEdges : rankGraph.edges.values()) {
+				rgEdges += nodeEdges.size();
+			}
+			trace.event(JVGTrace.Event.RANKING_GRAPH, rankGraph.nodes.size(), rgEdges);
+		}
 		log.info("ranking graph: ");
 		printRankingGraph(rankGraph);
 		log.info("ranking graph - end");
@@ -1018,11 +1182,7 @@ public void computeGraph() throws Exception {
 		// where there are initial states). Add all Ranking graph nodes pointed to by the marker node
 		// to the work list.
 		Vector<RGNodeProcessInfo> destinations = handleInitialNode(rankGraph);
-		String destsStr = "destinations:\n";
-		for (int i = 0; i < destinations.size(); i++) {
-			destsStr += "destination[" + i + "] = {" + i + "}\n";
-		}
-		log.log(Level.FINE, destsStr, destinations.toArray());
+		logElements(Level.FINE, "destinations:\n", "destination", destinations);
 		addDestsToWorkList(workList, destinations);
 		int jvgNodeInd = 1;
 		// The main flow: while the work-list is not empty, get a Ranking graph node from it (in the form
@@ -1032,33 +1192,42 @@ public void computeGraph() throws Exception {
 		// work-list is sorted by z-rank from highest to lowest.
 		while (!workList.isEmpty()) {
 			log.fine("workList before iteration:");
-			String beforeWLStr = "";
-			for (int i = 0; i < workList.size(); i++) {
-				beforeWLStr += "worklist[" + i + "] = {" + i + "}\n";
-			}
-			log.log(Level.FINE, beforeWLStr, workList.toArray());
+			logElements(Level.FINE, "", "worklist", workList);
 
 			RGNodeProcessInfo nodeToHandle = workList.pop();
-			log.fine("handling node: " + nodeToHandle.toString());
+			trace.fine(() -> "handling node: " + nodeToHandle.toString());
+			if (trace.hasEventLog()) {
+				trace.event(JVGTrace.Event.NODE_START, nodeToHandle.currNodeIndRG, nodeToHandle.zRank, workList.size());
+			}
 			Vector<Integer> JVGNodesInds = handleNode(nodeToHandle, rankGraph, jvgNodeInd);
 			destinations = handleDestinations(nodeToHandle, rankGraph, JVGNodesInds);
+			if (trace.hasEventLog()) {
+				trace.event(JVGTrace.Event.NODE_END, nodeToHandle.currNodeIndRG, JVGNodesInds.size(), destinations.size());
+			}
 			addDestsToWorkList(workList, destinations);
 			jvgNodeInd += JVGNodesInds.size();
 			
 			log.fine("workList after iteration:");
-			String afterWLStr = "";
-			for (int i = 0; i < workList.size(); i++) {
-				afterWLStr += "worklist[" + i + "] = {" + i + "}\n";
-			}
-			log.log(Level.FINE, afterWLStr, workList.toArray());
+			logElements(Level.FINE, "", "worklist", workList);
 		}
 		
 		// Add invariants to JVG nodes 
 		addInvariants();
 		log.fine("computed Justice Violation Graph:");
 		printJVGraph();
+		endEvents();
 		log.info("END");
 	}
+
+	/**
+	 * Writes the end of the computation to the event log, if there is one, and flushes it
+	 */
+	private void endEvents() {
+		if (trace.hasEventLog()) {
+			trace.event(JVGTrace.Event.COMPUTE_END, nodes.size(), ini.getFactory().getNodeNum());
+			trace.flushEvents();
+		}
+	}
 	
 	/**
 	 * Adds the ASSUMPTION_RANK variable to the specification
@@ -1102,21 +1271,19 @@ private Vector<RGNodeProcessInfo> handleInitialNode(RankingGraph rankGraph) {
 			info.currNodeIndRG = edges.get(i).destInd;
 			info.node = destNode;
 
-			info.setXMatrix(memX.get(destNode.zRankNum), this.safetiesBDD);
+			info.setXMatrix(rabinMem.getXMatrix(destNode.zRankNum), this.safetiesBDD);
 			destsTemp.add(info);
 		}
 
 		Collections.sort(destsTemp);
-		String destsTmpStr = "destsTemp sorted:\n";
-		for (int i = 0; i < destsTemp.size(); i++) {
-			destsTmpStr += "destsTemp[" + i + "] = {" + i + "}\n";
-		}
-		log.log(Level.FINER, destsTmpStr, destsTemp.toArray());
+		logElements(Level.FINER, "destsTemp sorted:\n", "destsTemp", destsTemp);
 		
 		BDD toCheck = initialNode.nodeBDD.id();
 		for (int i = 0; i < destsTemp.size(); i++) {
-			log.log(Level.FINER, "BDD to check for dest of z-rank " + destsTemp.get(i).zRank + ": {0}",
-					new BddStringWrapper(toCheck));
+			if (log.isLoggable(Level.FINER)) {
+				log.log(Level.FINER, "BDD to check for dest of z-rank " + destsTemp.get(i).zRank + ": {0}",
+						new BddStringWrapper(toCheck));
+			}
 			
 			RGNodeProcessInfo currDest = destsTemp.get(i);
 			// The below explanation is less relevant for the initial node (since it doesn't have the cycle states
@@ -1133,8 +1300,10 @@ private Vector<RGNodeProcessInfo> handleInitialNode(RankingGraph rankGraph) {
 			for (int j = 0; j < currDest.nodeXMatrix.size(); j++) {
 				for (int k = 0; k < currDest.nodeXMatrix.get(j).size(); k++) {
 					BDD xCell = currDest.nodeXMatrix.get(j).get(k).and(Env.getBDDValue(ASSUMPTION_RANK, "" + j).id());
-					log.log(Level.FINEST, "xCell["+j+"]["+k+"] = {0}",
-							new BddStringWrapper(xCell));
+					if (log.isLoggable(Level.FINEST)) {
+						log.log(Level.FINEST, "xCell["+j+"]["+k+"] = {0}",
+								new BddStringWrapper(xCell));
+					}
 					log.log(Level.FINEST, "toCheck = {0}", new BddStringWrapper(toCheck));
 					BDD succ = toCheck.and(xCell);
 					if (!succ.isZero()) {
@@ -1186,11 +1355,7 @@ private Vector<RGNodeProcessInfo> handleInitialNode(RankingGraph rankGraph) {
 		initNode.isOnlySafetyViolated = isOnlySafetyViolatedRG(initNode.nodeBDD);		
 		nodes.put(0, initNode);
 		
-		String destsStr = "returning destinations:\n";
-		for (int i = 0; i < destinations.size(); i++) {
-			destsStr += "destination[" + i + "] = {" + i + "}\n";
-		}
-		log.log(Level.FINE, destsStr, destinations.toArray());
+		logElements(Level.FINE, "returning destinations:\n", "destination", destinations);
 		log.fine("END");
 		return destinations;
 	}
@@ -1212,7 +1377,7 @@ private void addDestsToWorkList(LinkedList<RGNodeProcessInfo> workList,
 			while (iter.hasNext()) {
 				RGNodeProcessInfo elem = iter.next();
 				if (elem.currNodeIndRG == currDest.currNodeIndRG) {
-					log.finer("node already in work list - RG Node ind = " + currDest.currNodeIndRG);
+					trace.finer(() -> "node already in work list - RG Node ind = " + currDest.currNodeIndRG);
 					log.finer("update its start points");
 					updateNodeStartPoints(elem, currDest);
 					foundNodeInWorkList = true;
@@ -1237,10 +1402,10 @@ private void addDestsToWorkList(LinkedList<RGNodeProcessInfo> workList,
 	 */
 	private void updateNodeStartPoints(RGNodeProcessInfo nodeToUpdate, RGNodeProcessInfo srcNode) {
 		log.finer("START");
-		ArrayList<RGNodeProcessInfo> inputParams = new ArrayList<RGNodeProcessInfo>();
-		inputParams.add(nodeToUpdate);
-		inputParams.add(srcNode);
-		log.log(Level.FINER, "nodeToUpdate - {0}, srcNode - {1}", inputParams);
+		if (log.isLoggable(Level.FINER)) {
+			log.log(Level.FINER, "nodeToUpdate - {0}, srcNode - {1}",
+					new Object[] {nodeToUpdate, srcNode});
+		}
 		Iterator<Map.Entry<Integer, HashMap<Integer, StartPointInfo>>> iter =
 				srcNode.xCellToStartPointMap.entrySet().iterator();
 		while (iter.hasNext()) {
@@ -1286,7 +1451,7 @@ private void updateNodeStartPoints(RGNodeProcessInfo nodeToUpdate, RGNodeProcess
 			Iterator<Map.Entry<Integer, StartPointInfo>> colIter = elem.getValue().entrySet().iterator();
 			while (colIter.hasNext()) {
 				Map.Entry<Integer, StartPointInfo> colElem = (Map.Entry<Integer, StartPointInfo>) colIter.next();
-				log.log(Level.FINER, "startPoint: [" + elem.getKey() + "][" + colElem.getKey() + "] = {0}\n", elem.getValue());
+				trace.log(Level.FINER, () -> "startPoint: [" + elem.getKey() + "][" + colElem.getKey() + "] = {0}\n", elem.getValue());
 			}
 		}
 		log.finer("END");
@@ -1313,7 +1478,7 @@ private void updateNodeStartPoints(RGNodeProcessInfo nodeToUpdate, RGNodeProcess
 	 */
 	private Vector<Integer> handleNode(RGNodeProcessInfo nodeToHandle, RankingGraph rankGraph,
 			int jvgNodeInd) throws Exception {
-		log.log(Level.FINE, "START - nodeToHandle = {0}, jvgNodeInd = " + jvgNodeInd, nodeToHandle);
+		trace.log(Level.FINE, () -> "START - nodeToHandle = {0}, jvgNodeInd = " + jvgNodeInd, nodeToHandle);
 		
 		log.finer("calculating lower z-rank states");
 		// 1.
@@ -1334,10 +1499,10 @@ private Vector<Integer> handleNode(RGNodeProcessInfo nodeToHandle, RankingGraph
 		BDD cycleStates = calcCycleStates(nodeToHandle, paths, lowerZRank, attrFromCands);
 		log.finer("calculating assumption sat nodes");
 		// 6.
-		AssumptionSatisfactionGraph assumpGraph = new AssumptionSatisfactionGraph();
-		if (this.calcAssumpGraph) {
-			assumpGraph = calcAssumptionGraph(nodeToHandle, paths,
-				cycleStates);
+		// only the inputs, the sub-graph itself is computed on demand
+		AssumptionGraphInputs assumpGraphInputs = null;
+		if (this.calcAssumpGraph && !cycleStates.isZero()) {
+			assumpGraphInputs = calcAssumptionGraphInputs(nodeToHandle, paths, cycleStates);
 		}
 		log.finer("calculating attr to states");
 		// 7.
@@ -1349,12 +1514,12 @@ private Vector<Integer> handleNode(RGNodeProcessInfo nodeToHandle, RankingGraph
 		log.finer("updating nodes in JVG");
 		// 9.
 		Vector<Integer> jvgInds = updateNodesInGraph(nodeToHandle, cycleStates, attractorToStates,
-				attractorFromStates, assumpGraph, jvgNodeInd);
+				attractorFromStates, assumpGraphInputs, jvgNodeInd);
 		
 		log.finer("freeing JVGXPaths");
 		freeJVGXPaths(paths);
 		
-		log.fine("returning jvgInds = " + jvgInds.toString());
+		trace.fine(() -> "returning jvgInds = " + jvgInds.toString());
 		log.fine("END");
 		return jvgInds;
 	}
@@ -1395,10 +1560,10 @@ private BDD calcLowerZRank(RGNodeProcessInfo nodeToHandle, RankingGraph rankGrap
 	 * @return The set of states which are attractor-from-cycle candidates
 	 */
 	private BDD calcAttrFromCands(RGNodeProcessInfo nodeToHandle, BDD lowerZRank) {
-		ArrayList<Object> inputParams = new ArrayList<Object>();
-		inputParams.add(nodeToHandle);
-		inputParams.add(new BddStringWrapper(lowerZRank));
-		log.log(Level.FINE, "START - nodeToHandle = {0}, lowerZRank = {1}", inputParams.toArray());
+		if (log.isLoggable(Level.FINE)) {
+			log.log(Level.FINE, "START - nodeToHandle = {0}, lowerZRank = {1}",
+					new Object[] {nodeToHandle, new BddStringWrapper(lowerZRank)});
+		}
 		
 		BDD attrFromCands = Env.FALSE();		
 		BDD srcStates = nodeToHandle.node.nodeBDD.id();//.and(this.safetiesBDD.not());
@@ -1485,16 +1650,12 @@ private Vector<JVGXPath> calcXPaths(RGNodeProcessInfo nodeToHandle, BDD lowerZRa
 		// 1.
 		LinkedList<JVGXPath> pathWorkList = calcStartPaths(nodeToHandle, attrFromCands);
 		while (!pathWorkList.isEmpty()) {
-			log.fine("workList size before iteration: " + pathWorkList.size());
+			trace.fine(() -> "workList size before iteration: " + pathWorkList.size());
 			
-			String wlBefore = "workList before iteration:\n";
-			for (int i = 0; i < pathWorkList.size(); i++) {
-				wlBefore += "workList[" + i + "] = {" + i + "}\n";
-			}
-			log.log(Level.FINER, wlBefore, pathWorkList.toArray());
+			logElements(Level.FINER, "workList before iteration:\n", "workList", pathWorkList);
 			// 2.
 			JVGXPath currPath = pathWorkList.pop();
-			log.fine("current path size: " + currPath.path.size());
+			trace.fine(() -> "current path size: " + currPath.path.size());
 			log.log(Level.FINER, "current path: {0}", currPath);
 			// 3.
 			if (currPath.isCycle) {
@@ -1510,7 +1671,9 @@ private Vector<JVGXPath> calcXPaths(RGNodeProcessInfo nodeToHandle, BDD lowerZRa
 				nextRowInd = (nextRowInd + 1) % env.justiceNum();
 				nextColInd = nodeToHandle.nodeXMatrix.get(nextRowInd).size();
 			}
-			log.finer("nextRowInd = " + nextRowInd + ", nextColInd = " + nextColInd);
+			if (log.isLoggable(Level.FINER)) {
+				log.finer("nextRowInd = " + nextRowInd + ", nextColInd = " + nextColInd);
+			}
 			// 5.
 			Vector<JVGXPath> newPaths = calcNewXPathsJVG(currPath, nodeToHandle, attrFromCands, 
 					lowerZRank, nextRowInd, nextColInd);
@@ -1523,27 +1686,15 @@ private Vector<JVGXPath> calcXPaths(RGNodeProcessInfo nodeToHandle, BDD lowerZRa
 				throw new RuntimeException("path isn't a cycle and has no successors - shouldn't happen");
 			}
 			
-			String newPathsStr = "new Paths:\n";
-			for (int k = 0; k < newPaths.size(); k++) {
-				newPathsStr += "path[" + k + "] = {" + k + "}\n";
-			}
-			log.log(Level.FINER, newPathsStr, newPaths.toArray());
-			log.fine("number of new paths = " + newPaths.size());
+			logElements(Level.FINER, "new Paths:\n", "path", newPaths);
+			trace.fine(() -> "number of new paths = " + newPaths.size());
 			// 7.
 			pathWorkList.addAll(newPaths);
 			
-			String wlAfter = "workList after iteration:\n";
-			for (int i = 0; i < pathWorkList.size(); i++) {
-				wlAfter += "workList[" + i + "] = {" + i + "}\n";
-			}
-			log.log(Level.FINE, wlAfter, pathWorkList.toArray());
+			logElements(Level.FINE, "workList after iteration:\n", "workList", pathWorkList);
 		}
 		
-		String pathStr = "END - paths:\n";
-		for (int i = 0; i < paths.size(); i ++) {
-			pathStr += "path[" + i + "] = {" + i + "}\n";
-		}
-		log.log(Level.FINE, pathStr, paths.toArray());
+		logElements(Level.FINE, "END - paths:\n", "path", paths);
 		return paths;
 	}
 	
@@ -1581,11 +1732,7 @@ private LinkedList<JVGXPath> calcStartPaths(RGNodeProcessInfo nodeToHandle, BDD
 			}
 		}
 		
-		String pathStr = "END - paths:\n";
-		for (int i = 0; i < paths.size(); i ++) {
-			pathStr += "path[" + i + "] = {" + i + "}\n";
-		}
-		log.log(Level.FINE, pathStr, paths);
+		logElements(Level.FINE, "END - paths:\n", "path", paths);
 		return paths;
 	}
 
@@ -1625,10 +1772,12 @@ private Vector<JVGXPath> calcNewXPathsJVG(JVGXPath path, RGNodeProcessInfo nodeT
 				rowBDD.orWith(currCellBDD.id());
 			}
 			log.log(Level.FINER, "row BDD = {0}", new BddStringWrapper(rowBDD));
-			log.finer("going over columns in row " + nextRowInd + " to get the new paths");
+			trace.finer(() -> "going over columns in row " + nextRowInd + " to get the new paths");
 			rowBDD.orWith(attrFromCands.or(lowerZRank));
 			for (int i = 0; i < nextColInd; i++) {
-				log.finer("current col = " + i);
+				if (log.isLoggable(Level.FINER)) {
+					log.finer("current col = " + i);
+				}
 				BDD currCellBDD = nodeToHandle.nodeXMatrix.get(nextRowInd).get(i).id();
 				log.log(Level.FINER, "currCellBDD = {0}", new BddStringWrapper(currCellBDD));
 				// 2.
@@ -1664,11 +1813,7 @@ private Vector<JVGXPath> calcNewXPathsJVG(JVGXPath path, RGNodeProcessInfo nodeT
 			e.printStackTrace();
 		}
 		
-		String pathStr = "END - returning new paths:\n";
-		for (int i = 0; i < paths.size(); i ++) {
-			pathStr += "path[" + i + "] = {" + i + "}\n";
-		}
-		log.log(Level.FINE, pathStr, paths.toArray());
+		logElements(Level.FINE, "END - returning new paths:\n", "path", paths);
 		return paths;		
 	}
 
@@ -1690,18 +1835,21 @@ private Vector<JVGXPath> calcNewXPathsJVG(JVGXPath path, RGNodeProcessInfo nodeT
 	 * @return The successors, a subset of states in the targetBDD
 	 */
 	private BDD performReverseEnvForceStep(RGNodeProcessInfo nodeToHandle, BDD srcBDD, BDD targetBDD) {
-		ArrayList<Object> inputParams = new ArrayList<Object>();
-		inputParams.add(nodeToHandle);
-		inputParams.add(new BddStringWrapper(srcBDD));
-		inputParams.add(new BddStringWrapper(targetBDD));
-		log.log(Level.FINE, "START - nodeToHandle = {0}, srcBDD = {1}, targetBDD = {2}", inputParams.toArray()); 
+		if (log.isLoggable(Level.FINE)) {
+			log.log(Level.FINE, "START - nodeToHandle = {0}, srcBDD = {1}, targetBDD = {2}",
+					new Object[] {nodeToHandle, new BddStringWrapper(srcBDD), new BddStringWrapper(targetBDD)});
+		}
 
 		// We know that the states in srcBDD will not already have an env choice for them, from the way we calculate
 		// (this is attrFromCands calculation, so we don't have cycles)
 	
 		// need to get a specific env choice for each of the src states that have such a choice
-		BDD tempTrans = env.trans().id().andWith(
-				(sys.trans().not().orWith(sys.trans().id().andWith(Env.prime(targetBDD)))).forAll(sys.modulePrimeVars()));
+		// env choices for which all sys choices lead to targetBDD: there is no sys choice that leads outside targetBDD
+		BDD notTarget = Env.prime(targetBDD).not();
+		BDD sysChoiceOutside = sysTransitions().relProd(notTarget);
+		notTarget.free();
+		BDD tempTrans = env.trans().id().andWith(sysChoiceOutside.not());
+		sysChoiceOutside.free();
 		BDD predStates = Env.FALSE();
 		// 1.
 		BDD step = srcBDD.and(tempTrans);
@@ -1743,13 +1891,11 @@ private BDD performReverseEnvForceStep(RGNodeProcessInfo nodeToHandle, BDD srcBD
 	 */
 	private BDD performInnerNodeStep(RGNodeProcessInfo nodeToHandle, BDD srcBDD, BDD targetBDD,
 			BDD otherSuccs) {
-		ArrayList<Object> inputParams = new ArrayList<Object>();
-		inputParams.add(nodeToHandle);
-		inputParams.add(new BddStringWrapper(srcBDD));
-		inputParams.add(new BddStringWrapper(targetBDD));
-		inputParams.add(new BddStringWrapper(otherSuccs));
-		log.log(Level.FINE, "START - nodeToHandle = {0}, srcBDD = {1}, targetBDD = {2}, otherSuccs = {3}",
-				inputParams.toArray()); 
+		if (log.isLoggable(Level.FINE)) {
+			log.log(Level.FINE, "START - nodeToHandle = {0}, srcBDD = {1}, targetBDD = {2}, otherSuccs = {3}",
+					new Object[] {nodeToHandle, new BddStringWrapper(srcBDD), new BddStringWrapper(targetBDD),
+							new BddStringWrapper(otherSuccs)});
+		}
 
 		// For a given set of src states:
 		// 1. Check if env choice already selected for some of them - if so:
@@ -1766,12 +1912,11 @@ private BDD performInnerNodeStep(RGNodeProcessInfo nodeToHandle, BDD srcBDD, BDD
 		BDD succsForWhichEnvAlreadyChose = Env.FALSE();
 		BDD srcStatesForWhichEnvAlreadyChosen = srcBDD.id().andWith(nodeToHandle.innerNodeTransitions.exist(Env.globalPrimeVars()));
 		if (!srcStatesForWhichEnvAlreadyChosen.isZero()) {
-			BDD stepWithExistingEnvChoice = srcStatesForWhichEnvAlreadyChosen.id().andWith(nodeToHandle.innerNodeTransitions.id().andWith(
-					env.trans().id().andWith(sys.trans().id()))).andWith(
+			BDD stepWithExistingEnvChoice = srcStatesForWhichEnvAlreadyChosen.id().andWith(nodeToHandle.innerNodeTransitions.id()).andWith(
 					Env.prime(targetBDD.id()));
 			log.log(Level.FINEST, "stepWithExistingEnvChoice = {0}", new BddStringWrapper(stepWithExistingEnvChoice));
 			// find successor states in target for states in src for which we already have a specific env choice
-			succsForWhichEnvAlreadyChose = Env.unprime(stepWithExistingEnvChoice.exist(env.moduleUnprimeVars().union(sys.moduleUnprimeVars())));
+			succsForWhichEnvAlreadyChose = calcSuccNodeRG(stepWithExistingEnvChoice);
 			log.log(Level.FINEST, "succsForWhichEnvAlreadyChose = {0}", new BddStringWrapper(succsForWhichEnvAlreadyChose));
 			stepWithExistingEnvChoice.free();
 		}
@@ -1803,9 +1948,9 @@ private BDD performInnerNodeStep(RGNodeProcessInfo nodeToHandle, BDD srcBDD, BDD
 			BDD srcStatesForTakenEnvChoice = (regularStep.id().andWith(envChoice.id())).exist(
 					env.modulePrimeVars().union(sys.modulePrimeVars()));
 			log.log(Level.FINEST, "srcStatesForTakenEnvChoice = {0}", new BddStringWrapper(srcStatesForTakenEnvChoice));
-			BDD succsForThisEnvChoice = (Env.unprime((regularStep.id().andWith(envChoice.id()).andWith(env.trans().id().andWith(
-					sys.trans().id()))).exist(
-							env.moduleUnprimeVars().union(sys.moduleUnprimeVars())))).andWith(targetBDD.id());
+			BDD stepForThisEnvChoice = regularStep.id().andWith(envChoice.id());
+			BDD succsForThisEnvChoice = calcSuccNodeRG(stepForThisEnvChoice).andWith(targetBDD.id());
+			stepForThisEnvChoice.free();
 			log.log(Level.FINEST, "succsForThisEnvChoice = {0}", new BddStringWrapper(succsForThisEnvChoice));
 			nodeToHandle.innerNodeTransitions.orWith(
 					srcStatesForTakenEnvChoice.and(envChoice));
@@ -1932,12 +2077,10 @@ private void cyclePathCheck(JVGXPath path) throws Exception {
 	 */
 	private BDD calcCycleStates(RGNodeProcessInfo nodeToHandle, Vector<JVGXPath> paths, BDD lowerZRank,
 			BDD attrFromCands) {
-		ArrayList<Object> inputParams = new ArrayList<Object>();
-		inputParams.add(nodeToHandle);
-		inputParams.add(new BddStringWrapper(lowerZRank));
-		inputParams.add(new BddStringWrapper(attrFromCands));
-		log.log(Level.INFO, "START - nodeToHandle = {0}, lowerZRank = {1}, attrFromCands = {2}",
-				inputParams.toArray());
+		if (log.isLoggable(Level.INFO)) {
+			log.log(Level.INFO, "START - nodeToHandle = {0}, lowerZRank = {1}, attrFromCands = {2}",
+					new Object[] {nodeToHandle, new BddStringWrapper(lowerZRank), new BddStringWrapper(attrFromCands)});
+		}
 		log.log(Level.INFO, "paths = {0}", paths);
 		
 		BDD cycleStates = Env.FALSE();
@@ -1982,81 +2125,120 @@ private BDD calcCycleStates(RGNodeProcessInfo nodeToHandle, Vector<JVGXPath> pat
 	}
 	
 	/**
-	 * Computing the Assumption Satisfaction subgraph in a cycle node
+	 * Collecting the inputs of the Assumption Satisfaction subgraph in a cycle node, so it can be computed
+	 * later (the X paths are freed after handling the Ranking graph node)
 	 * @param nodeToHandle
 	 * @param paths
 	 * @param cycleStates
 	 * @return
 	 */
-	private AssumptionSatisfactionGraph calcAssumptionGraph(RGNodeProcessInfo nodeToHandle,
+	private AssumptionGraphInputs calcAssumptionGraphInputs(RGNodeProcessInfo nodeToHandle,
 			Vector<JVGXPath> paths, BDD cycleStates) {
-		log.info("START");
-		
-		AssumptionSatisfactionGraph assumpGraph = new AssumptionSatisfactionGraph();
-		// calculating the nodes
-		BDD tempCycleStates = cycleStates.id();
-		log.finer("going over all paths");
-		boolean noMoreCycleStates = false;
+		AssumptionGraphInputs inputs = new AssumptionGraphInputs();
+		inputs.currNodeIndRG = nodeToHandle.currNodeIndRG;
+		inputs.cycleStates = cycleStates.id();
+		inputs.innerNodeTransitions = nodeToHandle.innerNodeTransitions.id();
+		inputs.numAssumptions = nodeToHandle.nodeXMatrix.size();
 		for (int i = 0; i < paths.size(); i++) {
 			JVGXPath currPath = paths.get(i);
-			log.log(Level.FINER, "currPath = {0}", currPath);
-			// go over all points in the path (in order to get also the "in-between" cycle states)
 			for (int j = 0; j < currPath.path.size(); j++) {
-				log.finer("checking point " + j + " in path");
 				JVGXPoint currPoint = currPath.path.get(j);
-				log.log(Level.FINER, "currPoint = {0}", currPoint);
-				BDD tmp = tempCycleStates.and(currPoint.newBDD);
-				if (!tmp.isZero()) {
-					int assumpInd = currPoint.xRow;
-					if (!assumpGraph.nodes.containsKey(assumpInd)) {
-						AssumptionSatNode assumpNode = new AssumptionSatNode();
-						assumpNode.assumptionInd = assumpInd;
-						assumpNode.nodeBDD = Env.FALSE();
-						
-				 		for (int k = 0; k < envBehaviorInfo.size(); k++) {
-							if (envBehaviorInfo.get(k).isJustice()) {
-								if (env.justiceAt(assumpInd).equals(
-										envBehaviorInfo.get(k).justice)) {
-									assumpNode.satAssump = envBehaviorInfo.get(k);
-								}
+				BDD pointCycleStates = cycleStates.and(currPoint.newBDD);
+				if (pointCycleStates.isZero()) {
+					pointCycleStates.free();
+				} else {
+					inputs.pointRows.add(currPoint.xRow);
+					inputs.pointStates.add(pointCycleStates);
+				}
+			}
+		}
+		return inputs;
+	}
+	
+	/**
+	 * Returns the Assumption Satisfaction subgraph of a cycle node. The subgraph is computed the first time
+	 * it is asked for, and kept in the node.
+	 * @param node a JVTS node
+	 * @return the subgraph (empty if the node is not a cycle node or subgraphs are not computed)
+	 * @throws IllegalStateException if the graph was freed before the subgraph was computed
+	 */
+	AssumptionSatisfactionGraph getAssumptionGraph(JVGNode node) {
+		if (node.assumpGraph == null) {
+			if (node.assumpGraphFreed) {
+				throw new IllegalStateException("the JVTS was freed before the assumption graph of this node was computed");
+			}
+			if (node.assumpGraphInputs == null) {
+				node.assumpGraph = new AssumptionSatisfactionGraph();
+			} else {
+				node.assumpGraph = calcAssumptionGraph(node.assumpGraphInputs);
+				if (trace.hasEventLog()) {
+					trace.event(JVGTrace.Event.ASSUMPTION_GRAPH, node.assumpGraphInputs.currNodeIndRG,
+							node.assumpGraph.nodes.size());
+					trace.flushEvents();
+				}
+				node.assumpGraphInputs.free();
+				node.assumpGraphInputs = null;
+			}
+		}
+		return node.assumpGraph;
+	}
+	
+	/**
+	 * Computing the Assumption Satisfaction subgraph in a cycle node
+	 * @param inputs
+	 * @return
+	 */
+	private AssumptionSatisfactionGraph calcAssumptionGraph(AssumptionGraphInputs inputs) {
+		log.info("START");
+		
+		AssumptionSatisfactionGraph assumpGraph = new AssumptionSatisfactionGraph();
+		// calculating the nodes
+		BDD tempCycleStates = inputs.cycleStates.id();
+		log.finer("going over all points of the paths");
+		// (all the points, in order to get also the "in-between" cycle states)
+		for (int i = 0; i < inputs.pointStates.size(); i++) {
+			BDD pointStates = inputs.pointStates.get(i);
+			BDD tmp = tempCycleStates.and(pointStates);
+			if (!tmp.isZero()) {
+				int assumpInd = inputs.pointRows.get(i);
+				if (!assumpGraph.nodes.containsKey(assumpInd)) {
+					AssumptionSatNode assumpNode = new AssumptionSatNode();
+					assumpNode.assumptionInd = assumpInd;
+					assumpNode.nodeBDD = Env.FALSE();
+					
+					for (int k = 0; k < envBehaviorInfo.size(); k++) {
+						if (envBehaviorInfo.get(k).isJustice()) {
+							if (env.justiceAt(assumpInd).equals(
+									envBehaviorInfo.get(k).justice)) {
+								assumpNode.satAssump = envBehaviorInfo.get(k);
 							}
 						}
-				 		if (assumpNode.satAssump == null) {
-				 			assumpNode.satAssump = new BehaviorInfo();
-				 			assumpNode.satAssump.traceId = -1;
-				 			assumpNode.satAssump.justice = Env.TRUE();
-				 		}
-						assumpGraph.nodes.put(assumpInd, assumpNode);
 					}
-					
-					log.log(Level.FINEST, "tempCycleState = {0}",
-							new BddStringWrapper(tempCycleStates));
-					log.log(Level.FINEST, "currPoint.newBDD = {0}",
-							new BddStringWrapper(currPoint.newBDD));
-					log.log(Level.FINEST, "conjunct of above = {0}",
-							new BddStringWrapper(tempCycleStates.and(currPoint.newBDD)));
-					log.log(Level.FINEST, "assump nodeBDD = {0}",
-							new BddStringWrapper(assumpGraph.nodes.get(assumpInd).nodeBDD));
-
-					assumpGraph.nodes.get(assumpInd).nodeBDD.orWith(tempCycleStates.and(currPoint.newBDD));
-					
-					// removing the states from the tempCycleStates
-					tempCycleStates.andWith(currPoint.newBDD.not());
-					if (tempCycleStates.isZero()) {
-						log.finer("no more cycle states to check");
-						noMoreCycleStates = true;
-						break;
+					if (assumpNode.satAssump == null) {
+						assumpNode.satAssump = new BehaviorInfo();
+						assumpNode.satAssump.traceId = -1;
+						assumpNode.satAssump.justice = Env.TRUE();
 					}
+					assumpGraph.nodes.put(assumpInd, assumpNode);
 				}
-				tmp.free();
-				if (noMoreCycleStates) {
-					break;
-				}
+				
+				log.log(Level.FINEST, "tempCycleState = {0}",
+						new BddStringWrapper(tempCycleStates));
+				log.log(Level.FINEST, "point cycle states = {0}",
+						new BddStringWrapper(pointStates));
+				log.log(Level.FINEST, "assump nodeBDD = {0}",
+						new BddStringWrapper(assumpGraph.nodes.get(assumpInd).nodeBDD));
+
+				assumpGraph.nodes.get(assumpInd).nodeBDD.orWith(tmp.id());
+				
+				// removing the states from the tempCycleStates
+				tempCycleStates.andWith(pointStates.not());
 			}
-			
-			if (noMoreCycleStates) {
+			tmp.free();
+			if (tempCycleStates.isZero()) {
+				log.finer("no more cycle states to check");
 				break;
-			}	
+			}
 		}
 		
 		if (!tempCycleStates.isZero()) {
@@ -2066,7 +2248,7 @@ private AssumptionSatisfactionGraph calcAssumptionGraph(RGNodeProcessInfo nodeTo
 		tempCycleStates.free();
 		
 		// calculating the edges
-		int numAssumptions = nodeToHandle.nodeXMatrix.size();
+		int numAssumptions = inputs.numAssumptions;
 		Iterator<Map.Entry<Integer, AssumptionSatNode>> nodeIter =
 				assumpGraph.nodes.entrySet().iterator();
 		while (nodeIter.hasNext()) {
@@ -2085,7 +2267,7 @@ private AssumptionSatisfactionGraph calcAssumptionGraph(RGNodeProcessInfo nodeTo
 				}
 				
 				BDD succ = Env.unprime((elem.getValue().nodeBDD.id().andWith(
-						nodeToHandle.innerNodeTransitions.id().andWith(
+						inputs.innerNodeTransitions.id().andWith(
 								Env.prime(innerElem.getValue().nodeBDD.id())))).exist(
 										env.moduleUnprimeVars().union(
 												sys.moduleUnprimeVars())));
@@ -2097,7 +2279,7 @@ private AssumptionSatisfactionGraph calcAssumptionGraph(RGNodeProcessInfo nodeTo
 								" to " + innerElem.getKey());
 					} else {
 						// add edge
-						log.finer("adding edge from " + elem.getKey() + " to " +
+						trace.finer(() -> "adding edge from " + elem.getKey() + " to " +
 								innerElem.getKey());
 						Vector<JVGEdge> temp = new Vector<JVGEdge>();
 						JVGEdge edge = new JVGEdge();
@@ -2148,11 +2330,15 @@ private BDD calcAttractorToStates(Vector<JVGXPath> paths, BDD cycleStates) {
 				cycleStartInd = currPath.path.size();
 			}
 			
-			log.finer("cycleStartInd = " + cycleStartInd);
+			if (log.isLoggable(Level.FINER)) {
+				log.finer("cycleStartInd = " + cycleStartInd);
+			}
 			log.finer("go over all non-cycle points in the path");
 			// go over all non-cycle points in the path
 			for (int j = 0; j < cycleStartInd; j++) {
-				log.finer("checking point " + j + " in path");
+				if (log.isLoggable(Level.FINER)) {
+					log.finer("checking point " + j + " in path");
+				}
 				JVGXPoint currPoint = currPath.path.get(j);
 				log.log(Level.FINER, "currPoint = {0}", currPoint);
 				// remove from the current point states the "between cycle" states that we already
@@ -2183,13 +2369,11 @@ private BDD calcAttractorToStates(Vector<JVGXPath> paths, BDD cycleStates) {
 	 */
 	private BDD calcAttractorFromStates(BDD attrFromCands, RGNodeProcessInfo nodeToHandle,
 			BDD cycleStates, BDD attractorToStates, BDD lowerZRank) {
-		ArrayList<Object> inputParams = new ArrayList<Object>();
-		inputParams.add(new BddStringWrapper(attrFromCands));
-		inputParams.add(new BddStringWrapper(cycleStates));
-		inputParams.add(new BddStringWrapper(attractorToStates));
-		inputParams.add(nodeToHandle);
-		log.log(Level.INFO, "START - attrFromCands = {0}, cycleStates = {1}, attractorToStates = {2}, nodeToHandle = {3}",
-				inputParams.toArray());
+		if (log.isLoggable(Level.INFO)) {
+			log.log(Level.INFO, "START - attrFromCands = {0}, cycleStates = {1}, attractorToStates = {2}, nodeToHandle = {3}",
+					new Object[] {new BddStringWrapper(attrFromCands), new BddStringWrapper(cycleStates),
+							new BddStringWrapper(attractorToStates), nodeToHandle});
+		}
 		
 		BDD attractorFromStates = Env.FALSE();
 		// find the attractor-from states which are reachable from previous nodes
@@ -2230,21 +2414,19 @@ private BDD calcAttractorFromStates(BDD attrFromCands, RGNodeProcessInfo nodeToH
 	 * @param cycleStates
 	 * @param attractorToStates
 	 * @param attractorFromStates
-	 * @param assumpGraph
+	 * @param assumpGraphInputs the inputs of the Assumption Satisfaction Sub-graph of the cycle node (or null)
 	 * @param jvgNodeInd
 	 * @return
 	 */
 	private Vector<Integer> updateNodesInGraph(RGNodeProcessInfo nodeToHandle, BDD cycleStates,
 			BDD attractorToStates, BDD attractorFromStates, 
-			AssumptionSatisfactionGraph assumpGraph, int jvgNodeInd) {
-		ArrayList<Object> inputParams = new ArrayList<Object>();
-		inputParams.add(nodeToHandle);
-		inputParams.add(new BddStringWrapper(cycleStates));
-		inputParams.add(new BddStringWrapper(attractorToStates));
-		inputParams.add(new BddStringWrapper(attractorFromStates));
-		log.log(Level.INFO, "START - jvgNodeInd = " + jvgNodeInd + ", nodeToHandle = {0}, cycleStates = {1},"
-				+ " attractorToStates = {2}, attractorFromStates = {3}", inputParams.toArray());
-		log.log(Level.FINER, "assumGraph = {0}", assumpGraph);
+			AssumptionGraphInputs assumpGraphInputs, int jvgNodeInd) {
+		if (log.isLoggable(Level.INFO)) {
+			log.log(Level.INFO, "START - jvgNodeInd = " + jvgNodeInd + ", nodeToHandle = {0}, cycleStates = {1},"
+					+ " attractorToStates = {2}, attractorFromStates = {3}",
+					new Object[] {nodeToHandle, new BddStringWrapper(cycleStates), new BddStringWrapper(attractorToStates),
+							new BddStringWrapper(attractorFromStates)});
+		}
 		
 		// update the nodes
 		Vector<Integer> jvgInds = new Vector<Integer>();
@@ -2263,7 +2445,9 @@ private Vector<Integer> updateNodesInGraph(RGNodeProcessInfo nodeToHandle, BDD c
 					//		Env.prime(safetiesBDD.not()))*/;
 			nodes.put(jvgNodeInd, attractorToNode);
 			jvgInds.add(jvgNodeInd);
-			log.log(Level.FINE, "found attractor to node, ind = " + jvgNodeInd + ", node = {0}", attractorToNode);
+			if (log.isLoggable(Level.FINE)) {
+				log.log(Level.FINE, "found attractor to node, ind = " + jvgNodeInd + ", node = {0}", attractorToNode);
+			}
 			jvgNodeInd++;
 		}
 		if (!cycleStates.isZero()) {
@@ -2279,10 +2463,12 @@ private Vector<Integer> updateNodesInGraph(RGNodeProcessInfo nodeToHandle, BDD c
 			cycleNode.transitions = 
 					nodeToHandle.innerNodeTransitions.id().andWith(cycleStates.id()).andWith(env.trans().id());//.and(sys.trans()))/*.and(
 						//	Env.prime(safetiesBDD.not()))*/;
-			cycleNode.assumpGraph = assumpGraph;
+			cycleNode.assumpGraphInputs = assumpGraphInputs;
 			nodes.put(jvgNodeInd, cycleNode);
 			jvgInds.add(jvgNodeInd);
-			log.log(Level.FINE, "found cycle node, ind = " + jvgNodeInd + ", node = {0}", cycleNode);
+			if (log.isLoggable(Level.FINE)) {
+				log.log(Level.FINE, "found cycle node, ind = " + jvgNodeInd + ", node = {0}", cycleNode);
+			}
 			jvgNodeInd++;
 		}
 
@@ -2301,13 +2487,22 @@ private Vector<Integer> updateNodesInGraph(RGNodeProcessInfo nodeToHandle, BDD c
 					//		Env.prime(safetiesBDD.not()))*/;
 			nodes.put(jvgNodeInd, attractorFromNode);
 			jvgInds.add(jvgNodeInd);
-			log.log(Level.FINE, "found attractor from node, ind = " + jvgNodeInd + ", node = {0}", attractorFromNode);
+			if (log.isLoggable(Level.FINE)) {
+				log.log(Level.FINE, "found attractor from node, ind = " + jvgNodeInd + ", node = {0}", attractorFromNode);
+			}
 			jvgNodeInd++;
 		}
 		
+		if (trace.hasEventLog()) {
+			for (int ind : jvgInds) {
+				JVGNode node = nodes.get(ind);
+				trace.event(JVGTrace.Event.JVG_NODE, ind, node.type.ordinal(), node.zRankNum, node.nodeBDD.nodeCount());
+			}
+		}
+		
 		updateEdgesJVG(nodeToHandle, jvgInds);
 		
-		log.info("END - jvgInds = " + jvgInds.toString());
+		trace.info(() -> "END - jvgInds = " + jvgInds.toString());
 		return jvgInds;
 	}
 	
@@ -2317,7 +2512,7 @@ private Vector<Integer> updateNodesInGraph(RGNodeProcessInfo nodeToHandle, BDD c
 	 * @param jvgInds The indices of all the JVG nodes added
 	 */
 	private void updateEdgesJVG(RGNodeProcessInfo nodeToHandle, Vector<Integer> jvgInds) {
-		log.log(Level.INFO, "START - jvgInds = " + jvgInds.toString() + ", nodeToHandle = {0}", nodeToHandle);
+		trace.log(Level.INFO, () -> "START - jvgInds = " + jvgInds.toString() + ", nodeToHandle = {0}", nodeToHandle);
 		
 		Set<Integer> prevNodes = new HashSet<Integer>();
 		// we place in the prevNodes all of the jvgInds. We know that there won't be an edge
@@ -2353,7 +2548,9 @@ private void updateEdgesJVG(RGNodeProcessInfo nodeToHandle, Vector<Integer> jvgI
 				}
 				
 				if (!succ.isZero()) {
-					log.fine("There's an edge from " + prevNodeInd + " to " + jvgInds.get(i));
+					if (log.isLoggable(Level.FINE)) {
+						log.fine("There's an edge from " + prevNodeInd + " to " + jvgInds.get(i));
+					}
 					JVGEdge edge = new JVGEdge();
 					edge.destInd = jvgInds.get(i);
 					edge.type = JVGEdgeType.UNKNOWN_EDGE;
@@ -2381,7 +2578,7 @@ private void updateEdgesJVG(RGNodeProcessInfo nodeToHandle, Vector<Integer> jvgI
 	 */
 	private Vector<RGNodeProcessInfo> handleDestinations(RGNodeProcessInfo nodeToHandle,
 			RankingGraph rankGraph, Vector<Integer> JVGNodesInds) {
-		log.log(Level.FINE, "START - nodeToHandle = {0}, JVGNodesInds = " + JVGNodesInds.toString(), nodeToHandle);
+		trace.log(Level.FINE, () -> "START - nodeToHandle = {0}, JVGNodesInds = " + JVGNodesInds.toString(), nodeToHandle);
 		
 		Vector<RGNodeProcessInfo> destinations = new Vector<RGNodeProcessInfo>();
 		Vector<RGEdge> edges = rankGraph.edges.get(nodeToHandle.currNodeIndRG);
@@ -2393,7 +2590,7 @@ private Vector<RGNodeProcessInfo> handleDestinations(RGNodeProcessInfo nodeToHan
 			info.zRank = destNode.zRankNum;
 			info.currNodeIndRG = edges.get(i).destInd;
 			info.node = destNode;
-			info.setXMatrix(memX.get(destNode.zRankNum), this.safetiesBDD);
+			info.setXMatrix(rabinMem.getXMatrix(destNode.zRankNum), this.safetiesBDD);
 			destsTemp.add(info);
 		}
 		
@@ -2406,12 +2603,16 @@ private Vector<RGNodeProcessInfo> handleDestinations(RGNodeProcessInfo nodeToHan
 		log.finer("iterating over current JVG nodes");
 		for (int i = 0; i < JVGNodesInds.size(); i++) {
 			BDD srcTransBDD = nodes.get(JVGNodesInds.get(i)).transitions.and(sys.trans());
-			log.log(Level.FINER, "Checking JVG node " + JVGNodesInds.get(i) + ", transitionBDD = {0}",
-					new BddStringWrapper(srcTransBDD));
+			if (log.isLoggable(Level.FINER)) {
+				log.log(Level.FINER, "Checking JVG node " + JVGNodesInds.get(i) + ", transitionBDD = {0}",
+						new BddStringWrapper(srcTransBDD));
+			}
 		
 			log.finer("iterating over destinations");
 			for (int j = 0; j < destsTemp.size(); j++) {
-				log.finer("Checking dest of z-rank " + destsTemp.get(j).zRank);
+				if (log.isLoggable(Level.FINER)) {
+					log.finer("Checking dest of z-rank " + destsTemp.get(j).zRank);
+				}
 			
 				RGNodeProcessInfo currDest = destsTemp.get(j);
 				// we go over all of the xMatrix because of the ASSUMPTION_RANK env variable we added:
@@ -2427,8 +2628,10 @@ private Vector<RGNodeProcessInfo> handleDestinations(RGNodeProcessInfo nodeToHan
 				for (int k = 0; k < currDest.nodeXMatrix.size(); k++) {
 					for (int r = 0; r < currDest.nodeXMatrix.get(k).size(); r++) {
 						BDD xCell = currDest.nodeXMatrix.get(k).get(r).and(Env.getBDDValue(ASSUMPTION_RANK, "" + k).id());
-						log.log(Level.FINEST, "xCell["+k+"]["+r+"] = {0}",
-								new BddStringWrapper(xCell));
+						if (log.isLoggable(Level.FINEST)) {
+							log.log(Level.FINEST, "xCell["+k+"]["+r+"] = {0}",
+									new BddStringWrapper(xCell));
+						}
 						BDD succ = Env.unprime((srcTransBDD.id().andWith(Env.prime(xCell.id()))).exist(
 								env.moduleUnprimeVars().union(sys.moduleUnprimeVars())));
 						if (!succ.isZero()) {
@@ -2535,27 +2738,7 @@ private void calcNodeInvariants(HashMap<Integer, ? extends JVGCommonNode> nodes)
 	 */
 	private ArrayList<JVGInvariant> calcInvariantsFromBDD(BDD bdd) {
 		log.log(Level.FINEST, "START - bdd = {0}", new BddStringWrapper(bdd));
-		ArrayList<JVGInvariant> invariants = new ArrayList<JVGInvariant>();
-		BDDDomain[] doms = bdd.support().getDomains();
-		for (BDDDomain dom : doms) {		
-			for (int i = 0; i < dom.size().intValue(); i++) {
-				BDD invariantCand = dom.ithVar(i);
-				log.log(Level.FINEST, "checking invariant: {0}", new BddStringWrapper(invariantCand));
-				BDD tmp = bdd.and(invariantCand);
-				if (tmp.equals(bdd)) {
-					JVGInvariant invariant = new JVGInvariant();
-					invariant.invariant = invariantCand;
-					invariants.add(invariant);
-					tmp.free();
-					break;
-				} else if (!tmp.isZero()) {
-					tmp.free();
-					break;
-				}
-				tmp.free();
-			}
-		}
-		
+		ArrayList<JVGInvariant> invariants = invariantExtractor.extract(bdd);
 		log.finest("END");
 		return invariants;
 	}
@@ -2578,12 +2761,12 @@ private void calcEdgeInvariants(HashMap<Integer, Vector<JVGEdge>> edges,
 		while (itr.hasNext()) {
 			Map.Entry<Integer, Vector<JVGEdge>> entry = (Map.Entry<Integer, Vector<JVGEdge>>) itr.next();
 			BDD srcNodeBDD = nodes.get(entry.getKey()).nodeBDD;
-			log.finer("checking edges of node: " + entry.getKey());
+			trace.finer(() -> "checking edges of node: " + entry.getKey());
 			log.log(Level.FINER, "srcNodeBDD = {0}", new BddStringWrapper(srcNodeBDD));
 			for (int i = 0; i < entry.getValue().size(); i++) {
 				JVGEdge edge = entry.getValue().get(i);
 				BDD destNodeBDD = nodes.get(edge.destInd).nodeBDD;
-				log.finer("checking edge to: " + edge.destInd);
+				trace.finer(() -> "checking edge to: " + edge.destInd);
 				log.log(Level.FINER, "destNodeBDD = {0}", new BddStringWrapper(destNodeBDD));
 				edge.invariants.addAll(getEdgeInvariants(entry.getKey(), srcNodeBDD, destNodeBDD));
 				entry.getValue().set(i, edge);
@@ -2602,7 +2785,7 @@ private void calcEdgeInvariants(HashMap<Integer, Vector<JVGEdge>> edges,
 	 * @return
 	 */
 	private Vector<JVGInvariant> getEdgeInvariants(int srcNodeInd, BDD srcBDD, BDD targetBDD) {
-		log.log(Level.FINER, "START. srcNodeInd = " + srcNodeInd);
+		trace.log(Level.FINER, () -> "START. srcNodeInd = " + srcNodeInd);
 		log.log(Level.FINER, "srcBDD = {0}", new BddStringWrapper(srcBDD));
 		log.log(Level.FINER, "targetBDD = {0}", new BddStringWrapper(targetBDD));
 		
@@ -2645,6 +2828,9 @@ private Vector<JVGInvariant> getEdgeInvariants(int srcNodeInd, BDD srcBDD, BDD t
 	}
 	
 	private void printJVGraph() {
+		if (!log.isLoggable(Level.INFO)) {
+			return;
+		}
 		String graphStr = "";
 		Iterator<Map.Entry<Integer, JVGNode>> itr = nodes.entrySet().iterator();
 		ArrayList<Object> bdds = new ArrayList<Object>();
@@ -2696,6 +2882,11 @@ public void freeJVGraph(HashMap<Integer, JVGNode> nodes,
 					entry.getValue().invariants.get(i).invariant.free();
 				}
 			}
+			if (entry.getValue().assumpGraphInputs != null) {
+				entry.getValue().assumpGraphInputs.free();
+				entry.getValue().assumpGraphInputs = null;
+				entry.getValue().assumpGraphFreed = true;
+			}
 		}
 		nodes.clear();
 		
@@ -2714,7 +2905,18 @@ public void freeJVGraph(HashMap<Integer, JVGNode> nodes,
 			}
 		}
 		edges.clear();
-		
+		invariantExtractor.clear();
+		successorCache.clear();
+		compactGraph = null;
+		if (transRel != null) {
+			transRel.free();
+			transRel = null;
+		}
+		if (sysTransRel != null) {
+			sysTransRel.free();
+			sysTransRel = null;
+		}
+		releaseRabinMemory();
 	}
 	
 
@@ -2725,48 +2927,66 @@ public void freeJVGraph(HashMap<Integer, JVGNode> nodes,
 	// This method gets the prevNode and currNode index, and returns a list of BDDs
 	// of states in the current node to which there's a transition leading from the previous node
 	public ArrayList<BDD> getConcreteStates(int prevNodeInd, int currNodeInd) {
-		log.fine("START. prevNodeInd = " + prevNodeInd + ", currNodeInd = " + currNodeInd);
+		return getConcreteStates(prevNodeInd, currNodeInd, 0, Integer.MAX_VALUE);
+	}
+
+	// This method returns a page of the list returned by getConcreteStates(prevNodeInd, currNodeInd):
+	// at most limit states, starting from the state at the given offset
+	public ArrayList<BDD> getConcreteStates(int prevNodeInd, int currNodeInd, long offset, int limit) {
+		trace.fine(() -> "START. prevNodeInd = " + prevNodeInd + ", currNodeInd = " + currNodeInd
+				+ ", offset = " + offset + ", limit = " + limit);
 		ArrayList<BDD> concreteStates = new ArrayList<BDD>();
 		
-		BDD step = Env.FALSE();
+		ConcreteStateIterator iter = iterateConcreteStates(prevNodeInd, currNodeInd);
+		iter.skip(offset);
+		while (concreteStates.size() < limit && iter.hasNext()) {
+			BDD concreteState = iter.next();
+			log.log(Level.FINER, "concreteState = {0}", new BddStringWrapper(concreteState));
+			concreteStates.add(concreteState);
+		}
+		iter.free();
+		
+		log.fine("concreteStates:");
+		for (int i = 0; i < concreteStates.size(); i++) {
+			if (log.isLoggable(Level.FINE)) {
+				log.log(Level.FINE, "concreteStates["+i+"] = {0}", new BddStringWrapper(concreteStates.get(i)));
+			}
+		}
+		log.fine("END");
+		return concreteStates;
+	}
+
+	// This method gets the prevNode and currNode index, and returns a lazy iterator over the
+	// states in the current node to which there's a transition leading from the previous node.
+	// The caller should free the iterator.
+	public ConcreteStateIterator iterateConcreteStates(int prevNodeInd, int currNodeInd) {
+		BDD step;
 		if (prevNodeInd == 0) {
 			// previous node is the initial node, so we do not look for its successor states,
 			// since the states it represents are in the current node
-			step = Env.prime(nodes.get(prevNodeInd).nodeBDD.and(nodes.get(currNodeInd).nodeBDD));
+			BDD states = nodes.get(prevNodeInd).nodeBDD.and(nodes.get(currNodeInd).nodeBDD);
+			step = Env.prime(states);
+			states.free();
 		} else {
 			BDD prevNodeTransitionsBDD = nodes.get(prevNodeInd).transitions.and(sys.trans());
 			BDD currNodeBDD = nodes.get(currNodeInd).nodeBDD;
 			
 			log.log(Level.FINER, "prevNodeTransitionsBDD = {0}", new BddStringWrapper(prevNodeTransitionsBDD));
 			log.log(Level.FINER, "currNodeBDD = {0}", new BddStringWrapper(currNodeBDD));
-			step = (prevNodeTransitionsBDD.and(Env.prime(currNodeBDD)).exist(
-					env.moduleUnprimeVars().union(sys.moduleUnprimeVars())));			
+			step = primedStep(prevNodeTransitionsBDD.andWith(Env.prime(currNodeBDD)));
 		}
 		
 		log.log(Level.FINEST, "step = {0}", new BddStringWrapper(step));
-		BDDIterator envIter = step.iterator(env.modulePrimeVars());
-		while (envIter.hasNext()) {
-			BDD envChoice = (BDD) envIter.next();
-			log.log(Level.FINER, "envChoice = {0}", new BddStringWrapper(envChoice));
-			BDD stepWithEnvChoice = step.and(envChoice);
-			log.log(Level.FINEST, "stepWithEnvChoice = {0}", new BddStringWrapper(stepWithEnvChoice));
-			BDDIterator sysIter = stepWithEnvChoice.iterator(sys.modulePrimeVars());
-			while (sysIter.hasNext()) {
-				BDD sysChoice = (BDD) sysIter.next();
-				log.log(Level.FINER, "sysChoice = {0}", new BddStringWrapper(sysChoice));
-				BDD concreteState = Env.unprime(envChoice.and(sysChoice));
-				log.log(Level.FINER, "concreteStates = {0}", new BddStringWrapper(concreteState));
-				
-				concreteStates.add(concreteState);
-			}
-		}
-		
-		log.fine("concreteStates:");
-		for (int i = 0; i < concreteStates.size(); i++) {
-			log.log(Level.FINE, "concreteStates["+i+"] = {0}", new BddStringWrapper(concreteStates.get(i)));
-		}
-		log.fine("END");
-		return concreteStates;
+		return new ConcreteStateIterator(step, env.modulePrimeVars(), sys.modulePrimeVars());
+	}
+
+	// Projects transitions (consumed) on the primed variables
+	private BDD primedStep(BDD transitions) {
+		BDDVarSet unprimeVars = env.moduleUnprimeVars().union(sys.moduleUnprimeVars());
+		BDD step = transitions.exist(unprimeVars);
+		unprimeVars.free();
+		transitions.free();
+		return step;
 	}
 	
 	// This method returns all of the initial concrete states
@@ -2799,8 +3019,15 @@ public ArrayList<JVGInvariant> getInvariantsFromBDD(BDD bdd) {
 	// for which there is an edge leading from the given state to them
 	public void getNextStates(int currNodeInd, BDD currBDD,
 			ArrayList<Map.Entry<Integer, Map.Entry<JVGNode, JVGEdge>>> nodesAndEdges) {
-		log.log(Level.FINE, "START. currNodeInd = " + currNodeInd + ", currBDD = {0}", 
-			new BddStringWrapper(currBDD));
+		getNextStates(currNodeInd, currBDD, nodesAndEdges, 0, Integer.MAX_VALUE);
+	}
+
+	// This method returns a page of the neighbors returned by getNextStates(currNodeInd, currBDD, nodesAndEdges):
+	// at most limit neighbors, starting from the neighbor at the given offset
+	public void getNextStates(int currNodeInd, BDD currBDD,
+			ArrayList<Map.Entry<Integer, Map.Entry<JVGNode, JVGEdge>>> nodesAndEdges, long offset, int limit) {
+		trace.log(Level.FINE, () -> "START. currNodeInd = " + currNodeInd + ", offset = " + offset
+				+ ", limit = " + limit + ", currBDD = {0}", new BddStringWrapper(currBDD));
 		BDD currNodeTransitions = nodes.get(currNodeInd).transitions.and(sys.trans());
 		log.log(Level.FINER, "currNodeTransitions = {0}", new BddStringWrapper(currNodeTransitions));
 		
@@ -2816,46 +3043,55 @@ public void getNextStates(int currNodeInd, BDD currBDD,
 				destNodesInds.add(nodeEdges.get(i).destInd);
 			}
 		}
-		log.finer("destNodesInds = " + destNodesInds.toString());
+		trace.finer(() -> "destNodesInds = " + destNodesInds.toString());
 		
-		for (int i = 0; i < destNodesInds.size(); i++) {
-			getNextStatesInNode(currNodeTransitions, currBDD, destNodesInds.get(i), nodesAndEdges);
+		long toSkip = offset;
+		int toAdd = limit;
+		for (int i = 0; i < destNodesInds.size() && toAdd > 0; i++) {
+			ConcreteStateIterator iter = iterateNextStatesInNode(currNodeTransitions, currBDD, destNodesInds.get(i));
+			toSkip -= iter.skip(toSkip);
+			toAdd -= getNextStatesInNode(iter, destNodesInds.get(i), toAdd, nodesAndEdges);
+			iter.free();
 		}
+		currNodeTransitions.free();
 		
-		log.fine("nodesAndEdge:");
-		for (int i = 0; i < nodesAndEdges.size(); i++) {
-			int ind = nodesAndEdges.get(i).getKey();
-			JVGNode jvgNode = nodesAndEdges.get(i).getValue().getKey();
-			JVGEdge jvgEdge = nodesAndEdges.get(i).getValue().getValue();
-			ArrayList<Object> params = new ArrayList<Object>();
-			params.add(jvgNode);
-			params.add(jvgEdge);
-			log.log(Level.FINE, "nodesAndEdges[" + i + "]: ind = " + ind + ", jvgNode = {0}, jvgEdge = {1}",
-					params.toArray());
+		if (log.isLoggable(Level.FINE)) {
+			log.fine("nodesAndEdge:");
+			for (int i = 0; i < nodesAndEdges.size(); i++) {
+				int ind = nodesAndEdges.get(i).getKey();
+				JVGNode jvgNode = nodesAndEdges.get(i).getValue().getKey();
+				JVGEdge jvgEdge = nodesAndEdges.get(i).getValue().getValue();
+				log.log(Level.FINE, "nodesAndEdges[" + i + "]: ind = " + ind + ", jvgNode = {0}, jvgEdge = {1}",
+						new Object[] {jvgNode, jvgEdge});
+			}
 		}
 		
 		log.fine("END");
 	}
-		
-	private void getNextStatesInNode(BDD currNodeTransitions, BDD currBDD, int destNodeInd,
-			ArrayList<Map.Entry<Integer, Map.Entry<JVGNode, JVGEdge>>> nodesAndEdges) {
-		log.finer("START - destNodeInd = " + destNodeInd);
+
+	// Returns a lazy iterator over the neighbor states of currBDD in the destination node
+	private ConcreteStateIterator iterateNextStatesInNode(BDD currNodeTransitions, BDD currBDD, int destNodeInd) {
+		trace.finer(() -> "START - destNodeInd = " + destNodeInd);
 		// get all neighbor states in current node
 		BDD currNodeBDD = nodes.get(destNodeInd).nodeBDD;
 		
 		// Note - we already removed from the symbolic nodes the states that are safety violations
 		
-		BDD currNodeInnerStep = currNodeTransitions.and(currBDD).and(Env.prime(currNodeBDD));
+		BDD currNodeInnerStep = currNodeTransitions.and(currBDD).andWith(Env.prime(currNodeBDD));
 		log.log(Level.FINEST, "currNodeBDD = {0}", new BddStringWrapper(currNodeBDD));
 		log.log(Level.FINEST, "currNodeInnerStep = {0}", new BddStringWrapper(currNodeInnerStep));
-		BDDIterator iter = currNodeInnerStep.iterator(env.modulePrimeVars().union(sys.modulePrimeVars()));
-		while (iter.hasNext()) {
-			// note: there should only be one envChoice since env is deterministic and we
-			// started from a concrete state
-			// But there can be multiple sys choices, which is why this is a "while" loop
-			BDD choice = (BDD) iter.next();
-			log.log(Level.FINER, "choice = {0}", new BddStringWrapper(choice));
-			BDD concreteState = Env.unprime(choice);
+		// note: there should only be one env choice since env is deterministic and we
+		// started from a concrete state
+		// But there can be multiple sys choices
+		return new ConcreteStateIterator(primedStep(currNodeInnerStep), env.modulePrimeVars(), sys.modulePrimeVars());
+	}
+		
+	// Adds at most limit neighbor states from the iterator, and returns the number of states added
+	private int getNextStatesInNode(ConcreteStateIterator iter, int destNodeInd, int limit,
+			ArrayList<Map.Entry<Integer, Map.Entry<JVGNode, JVGEdge>>> nodesAndEdges) {
+		int added = 0;
+		while (added < limit && iter.hasNext()) {
+			BDD concreteState = iter.next();
 			log.log(Level.FINER, "concreteState = {0}", new BddStringWrapper(concreteState));
 			JVGNode jvgNode = new JVGNode();
 			jvgNode.isOnlySafetyViolated = nodes.get(destNodeInd).isOnlySafetyViolated;
@@ -2867,9 +3103,14 @@ private void getNextStatesInNode(BDD currNodeTransitions, BDD currBDD, int destN
 			jvgNode.violatedSafeties = nodes.get(destNodeInd).violatedSafeties;
 			jvgNode.zRankNum = nodes.get(destNodeInd).zRankNum;
 			jvgNode.invariants.addAll(getInvariantsFromBDD(concreteState));
+			concreteState.free();
 			JVGEdge jvgEdge = new JVGEdge();
 			jvgEdge.destInd = destNodeInd;
-			jvgEdge.invariants.addAll(getInvariantsFromBDD(concreteState));
+			for (JVGInvariant inv : jvgNode.invariants) {
+				JVGInvariant edgeInv = new JVGInvariant();
+				edgeInv.invariant = inv.invariant.id();
+				jvgEdge.invariants.add(edgeInv);
+			}
 			// no invariants on edge are needed, since there are concrete states
 			// if we would want invariants, they will be identical to the invariants of the 
 			// destination state
@@ -2879,15 +3120,17 @@ private void getNextStatesInNode(BDD currNodeTransitions, BDD currBDD, int destN
 					new AbstractMap.SimpleEntry<Integer, Map.Entry<JVGNode, JVGEdge>>(
 							destNodeInd, nodeAndEdge);
 			nodesAndEdges.add(entry);
+			added++;
 		}
 		
 		log.finer("END");
+		return added;
 	}
 
 	// This method gets a var and a val strings and returns a JVGInvariant of the form
 	// "var = val"
 	public JVGInvariant convertStringsToInvariant(String var, String val) {
-		log.fine("START - var = " + var + ", val = " + val);
+		trace.fine(() -> "START - var = " + var + ", val = " + val);
 
 		JVGInvariant resInv = new JVGInvariant();	
 		// Using the name, we get the domain
@@ -2922,7 +3165,9 @@ public String getViolatedJustice(JVGNode node) {
 			}
 		}
 		
-		log.fine("END - justice = " + justiceStr);
+		if (log.isLoggable(Level.FINE)) {
+			log.fine("END - justice = " + justiceStr);
+		}
 		return justiceStr;
 	}
 	
@@ -2940,7 +3185,9 @@ public String getSatisfiedAssumptionJustice(AssumptionSatNode assumpSatNode)
 			}
 		}
 		
-		log.fine("END - justice = " + justiceStr);
+		if (log.isLoggable(Level.FINE)) {
+			log.fine("END - justice = " + justiceStr);
+		}
 		return justiceStr;
 	}		
 	
@@ -2971,16 +3218,16 @@ public ArrayList<Map.Entry<String, Boolean>> getAllVars() {
 			res.add(val);
 		}
 		
-		log.fine("END. res = " + res.toString());
+		trace.fine(() -> "END. res = " + res.toString());
 		return res;
 	}
 
 	private ArrayList<String> getValNames(BDDDomain domain, BDD bdd, boolean primeDomain) {
-		log.log(Level.FINE, "START. domain = " + domain.getName() + ", bdd = {0}", new BddStringWrapper(bdd));
+		trace.log(Level.FINE, () -> "START. domain = " + domain.getName() + ", bdd = {0}", new BddStringWrapper(bdd));
 		ArrayList<String> res = new ArrayList<String>();
 		for (long i = 0; i < domain.size().longValue(); i++) {
 			String valName = Env.stringer.elementName(domain, new BigInteger("" + i));
-			log.finest("domain value = " + valName);
+			trace.finest(() -> "domain value = " + valName);
 			BDD domBDD = domain.ithVar(i);
 			if (primeDomain) {
 				domBDD = Env.prime(domBDD);
@@ -2990,14 +3237,14 @@ private ArrayList<String> getValNames(BDDDomain domain, BDD bdd, boolean primeDo
 			}	
 		}
 		
-		log.fine("END. res = " + res);
+		trace.fine(() -> "END. res = " + res);
 		return res;
 	}
 	
 	// This method gets a node, a BDD and a variable and returns all possible values which
 	// can be assigned to this variable and still satisfy the given BDD and the node constraints.
 	public ArrayList<String> getNodeVarValues(int nodeInd, BDD currBDD, String var) {
-		log.log(Level.FINE, "START. nodeInd = " + nodeInd + ", var = " + var + ", curBDD = {0}",
+		trace.log(Level.FINE, () -> "START. nodeInd = " + nodeInd + ", var = " + var + ", curBDD = {0}",
 				new BddStringWrapper(currBDD));
 		
 		BDD currNodeBDD = nodes.get(nodeInd).nodeBDD.and(currBDD);
@@ -3005,14 +3252,14 @@ public ArrayList<String> getNodeVarValues(int nodeInd, BDD currBDD, String var)
 		// Using the name, we get the domain
 		BDDDomain domain =  Env.getVar(var).getDomain();
 		ArrayList<String> res = getValNames(domain, currNodeBDD, false /*primeDomain*/);
-		log.fine("END. res = " + res.toString());
+		trace.fine(() -> "END. res = " + res.toString());
 		return res;
 	}
 	
 	// This method gets a node and a BDD and returns a pair of (index, BDD) which represents a concrete state in the
 	// relevant symbolic node of "index", that also satisfies the given BDD.
 	public Map.Entry<Integer, BDD> getConcreteState(int nodeInd, BDD currBDD) {
-		log.log(Level.FINE, "START. nodeInd = " + nodeInd + ", currBDD = {0}", new BddStringWrapper(currBDD));
+		trace.log(Level.FINE, () -> "START. nodeInd = " + nodeInd + ", currBDD = {0}", new BddStringWrapper(currBDD));
 
 		BDD tmp = nodes.get(nodeInd).nodeBDD.and(currBDD);
 		// if we use the "support" method of the BDD to get the vars, in the case of variables whose domain
@@ -3064,13 +3311,13 @@ public ArrayList<String> convertInvariantToStrings(JVGInvariant invariant) {
 			res.add("aux");
 		}
 		
-		log.fine("END. res = " + res);
+		trace.fine(() -> "END. res = " + res);
 		return res;
 	}
 
 	// This method returns the number of neighbors for a given concrete state
 	public int countNumNeighbors(int nodeInd, BDD currState) {
-		log.log(Level.INFO, "START - nodeInd = " + nodeInd + ", currState = {0}",
+		trace.log(Level.INFO, () -> "START - nodeInd = " + nodeInd + ", currState = {0}",
 				new BddStringWrapper(currState));
 		
 		BDD nodeTransitions = nodes.get(nodeInd).transitions.and(sys.trans());
@@ -3078,12 +3325,12 @@ public int countNumNeighbors(int nodeInd, BDD currState) {
 		double satCount = succ.satCount();
 
 		System.out.println("satCount = " + satCount);
-		log.info("END - satCount = " + satCount);
+		trace.info(() -> "END - satCount = " + satCount);
 		return (int) satCount;
 	}
 	
 	public ArrayList<JVGInvariant> getNodeVarsAndVals(int nodeInd, BDD currBDD) {
-		log.log(Level.INFO, "START - nodeInd = " + nodeInd + ", currBDD = {0}",
+		trace.log(Level.INFO, () -> "START - nodeInd = " + nodeInd + ", currBDD = {0}",
 				new BddStringWrapper(currBDD));
 		ArrayList<JVGInvariant> res = new ArrayList<JVGInvariant>();
 		
@@ -3094,7 +3341,7 @@ public ArrayList<JVGInvariant> getNodeVarsAndVals(int nodeInd, BDD currBDD) {
 		BDDVarSet vars = toCheck.support();
 		BDDDomain[] doms = vars.getDomains();
 		for (BDDDomain dom : doms) {
-			log.finer("Checking variable = " + dom.getName());
+			trace.finer(() -> "Checking variable = " + dom.getName());
 			BDD temp = toCheck.id().exist(vars.minus(dom.set()));
 			double numAssign = temp.satCount(dom.set());
 			if (numAssign == 1) {
@@ -3117,7 +3364,7 @@ public ArrayList<JVGInvariant> getNodeVarsAndVals(int nodeInd, BDD currBDD) {
 	// variable assignments so far)
 	public ArrayList<String> getSuccessorVarValues(int nodeInd, BDD nodeBDD, BDD predBDD,
 			String var) {
-		log.log(Level.INFO, "START - nodeInd = " + nodeInd + ", nodeBDD = {0}, predBDD = {1}",
+		trace.log(Level.INFO, () -> "START - nodeInd = " + nodeInd + ", nodeBDD = {0}, predBDD = {1}",
 				new Object[] { new BddStringWrapper(nodeBDD), new BddStringWrapper(predBDD)});
 		
 		BDD succs = nodes.get(nodeInd).transitions.and(sys.trans()).and(predBDD).and(
@@ -3125,12 +3372,12 @@ public ArrayList<String> getSuccessorVarValues(int nodeInd, BDD nodeBDD, BDD pre
 		// Using the name, we get the domain
 		BDDDomain domain =  Env.getVar(var).getDomain();
 		ArrayList<String> res = getValNames(domain, succs, true /*primeDomain*/);
-		log.fine("END. res = " + res.toString());
+		trace.fine(() -> "END. res = " + res.toString());
 		return res;
 	}
 	
 	public Map.Entry<Integer, BDD> getSuccessorConcreteState(int nodeInd, BDD currBDD, BDD predBDD) {
-		log.log(Level.INFO, "START - nodeInd = " + nodeInd + ", currBDD = {0}, predBDD = {1}",
+		trace.log(Level.INFO, () -> "START - nodeInd = " + nodeInd + ", currBDD = {0}, predBDD = {1}",
 				new Object[] { new BddStringWrapper(currBDD), new BddStringWrapper(predBDD)});
 				
 		BDD tmp = nodes.get(nodeInd).transitions.and(sys.trans()).and(predBDD).and(Env.prime(currBDD));
@@ -3159,12 +3406,14 @@ public Map.Entry<Integer, BDD> getSuccessorConcreteState(int nodeInd, BDD currBD
 		}
 		
 		Map.Entry<Integer, BDD> ret = new AbstractMap.SimpleEntry<Integer, BDD>(succInd, res);
-		log.log(Level.FINE, "END. succInd = " + succInd + ", res = {0}", new BddStringWrapper(res));
+		if (log.isLoggable(Level.FINE)) {
+			log.log(Level.FINE, "END. succInd = " + succInd + ", res = {0}", new BddStringWrapper(res));
+		}
 		return ret;
 	}
 
 	public ArrayList<JVGInvariant> getSuccessorVarsAndVals(int nodeInd, BDD currBDD, BDD predBDD) {
-		log.log(Level.INFO, "START - nodeInd = " + nodeInd + ", currBDD = {0}, predBDD = {1}",
+		trace.log(Level.INFO, () -> "START - nodeInd = " + nodeInd + ", currBDD = {0}, predBDD = {1}",
 				new Object[] { new BddStringWrapper(currBDD), new BddStringWrapper(predBDD) });
 		ArrayList<JVGInvariant> res = new ArrayList<JVGInvariant>();
 
@@ -3172,7 +3421,7 @@ public ArrayList<JVGInvariant> getSuccessorVarsAndVals(int nodeInd, BDD currBDD,
 		BDDVarSet vars = toCheck.support().intersect(Env.globalPrimeVars());
 		BDDDomain[] doms = vars.getDomains();
 		for (BDDDomain dom : doms) {
-			log.finer("Checking variable = " + dom.getName());
+			trace.finer(() -> "Checking variable = " + dom.getName());
 			BDD temp = toCheck.id().exist(vars.minus(dom.set()).union(Env.globalUnprimeVars()));
 			double numAssign = temp.satCount(dom.set());
 			if (numAssign == 1) {
@@ -3194,66 +3443,74 @@ public ArrayList<JVGInvariant> getSuccessorVarsAndVals(int nodeInd, BDD currBDD,
 	 */
 	public void mergedAttractors() {
 		log.info("START");
+		compactGraph = null;
 
 		if (nodes.isEmpty()) {
 			log.fine("symbolic graph is empty - nothing to merge");
 			return;
 		}
 		
-		// merge nodes
+		// decide the merges (the graph is not changed until all merges are decided)
+		JVGMergeAnalysis analysis = new JVGMergeAnalysis(nodes.keySet(), edges);
+		ArrayList<int[]> merges = new ArrayList<int[]>();
 		TreeSet<Integer> workList = new TreeSet<Integer>();
 		workList.add(0); // adding the initial node
 		while (!workList.isEmpty()) {
-			log.finest("workList = " + workList);
-			int currNodeInd = workList.pollFirst();
-			log.finest("currNodeInd = " + currNodeInd);
+			trace.finest(() -> "workList = " + workList);
+			int currNodeInd = analysis.find(workList.pollFirst());
+			trace.finest(() -> "currNodeInd = " + currNodeInd);
 			JVGNode currNode = nodes.get(currNodeInd);
+			List<JVGEdge> edgesVec = analysis.getEdges(currNodeInd);
 			if (currNode.type != JVGNodeType.ATTRACTOR_NODE_FROM_CYCLE &&
 				currNode.type != JVGNodeType.ATTRACTOR_NODE_NOT_FROM_CYCLE) {
-				log.fine("node with ind " + currNodeInd + " is not an attractor");
-				if (edges.containsKey(currNodeInd)) {
-					log.fine("node " + currNodeInd + " has children - adding them to work list");
-					Vector<JVGEdge> edgesVec = edges.get(currNodeInd);
+				trace.fine(() -> "node with ind " + currNodeInd + " is not an attractor");
+				if (edgesVec != null) {
+					trace.fine(() -> "node " + currNodeInd + " has children - adding them to work list");
 					for (int i = 0; i < edgesVec.size(); i++) {
-						int destInd = edgesVec.get(i).destInd;
-						workList.add(destInd);
+						workList.add(analysis.find(edgesVec.get(i).destInd));
 					}
 				}
 			} else {
-				log.fine("node with ind " + currNodeInd + " is an attractor");
-				if (edges.containsKey(currNodeInd)) {
-					log.fine("going over node " + currNodeInd + " children");
-					Vector<JVGEdge> edgesVec = edges.get(currNodeInd);
+				trace.fine(() -> "node with ind " + currNodeInd + " is an attractor");
+				if (edgesVec != null) {
+					trace.fine(() -> "going over node " + currNodeInd + " children");
 					TreeSet<Integer> sortedChildren = new TreeSet<Integer>();
 					for (int i = 0; i < edgesVec.size(); i++) {
-						sortedChildren.add(edgesVec.get(i).destInd);
+						sortedChildren.add(analysis.find(edgesVec.get(i).destInd));
 					}
 					
 					while (!sortedChildren.isEmpty()) {
-						int destInd = sortedChildren.pollFirst();						
+						int destInd = analysis.find(sortedChildren.pollFirst());
+						if (destInd == currNodeInd) {
+							log.finer("self-edge - nothing to merge");
+							continue;
+						}
 						if (workList.contains(destInd)) {
 							workList.remove(destInd);
 						}
 
 						if (nodes.get(destInd).type != JVGNodeType.ATTRACTOR_NODE_FROM_CYCLE &&
 							nodes.get(destInd).type != JVGNodeType.ATTRACTOR_NODE_NOT_FROM_CYCLE) {
-							log.finer("child not an attractor - adding to worklist: " + destInd);
+							trace.finer(() -> "child not an attractor - adding to worklist: " + destInd);
 							workList.add(destInd);
-						} else if (!shouldMerge(currNodeInd, destInd)) {
+						} else if (!analysis.canMerge(currNodeInd, destInd)) {
 							log.finer("child is an attractor, but merging will create a cycle -"
 									+ " not merging and adding to worklist: " + destInd);
 							workList.add(destInd);
 						} else {
-							log.fine("merging node " + destInd + " into node " + currNodeInd);
-							// NOTE: this changes the sortedChildren, updating it with the merged child node's (destInd) children
-							mergeNodes(currNodeInd, destInd, sortedChildren);
+							trace.fine(() -> "merging node " + destInd + " into node " + currNodeInd);
+							// the children added to the current node by the merge are checked as well
+							sortedChildren.addAll(analysis.merge(currNodeInd, destInd));
+							merges.add(new int[] {currNodeInd, destInd});
 						}
-						log.fine("edgesVec = " + edgesVec);
+						trace.fine(() -> "edgesVec = " + edgesVec);
 					}
 				}							
 			}
 		}
 
+		mergeNodes(merges, analysis);
+
 		// after merging the attractors, we might have "holes" in the sequence of node keys. This will change them to
 		// be a single sequence starting at 0.
 		changeNodeKeysToSequentialOrder();
@@ -3263,117 +3520,74 @@ public void mergedAttractors() {
 		log.info("END");
 	}
 	
-	private boolean shouldMerge(int sourceInd, int targetInd) {
-		log.finer("START - sourceInd = " + sourceInd + ", targetInd = " + targetInd);
-		
-		int numPaths = 0;
-		LinkedList<Integer> workList = new LinkedList<Integer>();
-		workList.add(sourceInd);
-		while (!workList.isEmpty()) {
-			int currInd = workList.pop();
-			if (currInd == targetInd) {
-				numPaths++;
-				if (numPaths > 1) {
-					log.finer("more than 1 path from " + sourceInd + " to " + targetInd);
-					return false;
-				}
-			} else {
-				if (edges.containsKey(currInd)) {
-					log.finest("add node children to worklist: " + currInd);
-					for (int i = 0; i < edges.get(currInd).size(); i++) {
-						workList.add(edges.get(currInd).get(i).destInd);
-					}
-				}
-			}
+	/**
+	 * Builds the graph of the merged nodes in a single pass: the properties of the nodes are merged in the order of
+	 * the merges, the BDDs of every class are ORed once into the node that remains, and the edges are taken from the
+	 * merge analysis and redirected to the remaining nodes. The invariants of an edge are computed again only if its
+	 * source or destination is the result of a merge.
+	 * @param merges pairs of (into, from) in the order of the merges
+	 * @param analysis the analysis that decided the merges
+	 */
+	private void mergeNodes(List<int[]> merges, JVGMergeAnalysis analysis) {
+		log.log(Level.FINE, "START. merges = {0}", merges.size());
+		if (merges.isEmpty()) {
+			log.fine("END - nothing to merge");
+			return;
 		}
-		
-		log.finer("END - node " + sourceInd + " has at most 1 path to target " + targetInd);
-		return true;
-	}
-	
-	private void mergeNodes(int mergeInto, int mergeFrom, TreeSet<Integer> sortedChildren) {
-		log.fine("START. mergeInto = " + mergeInto + ", mergeFrom = " + mergeFrom);
-		JVGNode mergeIntoNode = nodes.get(mergeInto);
-		JVGNode mergeFromNode = nodes.get(mergeFrom);
-		
-		mergeIntoNode.nodeBDD = mergeIntoNode.nodeBDD.or(mergeFromNode.nodeBDD);
-		mergeIntoNode.transitions = mergeIntoNode.transitions.or(mergeFromNode.transitions);
-		mergeIntoNode.isOnlySafetyViolated = (mergeIntoNode.isOnlySafetyViolated && mergeFromNode.isOnlySafetyViolated);
-		mergeIntoNode.isSafeyViolated = (mergeIntoNode.isOnlySafetyViolated || mergeFromNode.isSafeyViolated);		
-		HashSet<BehaviorInfo> safeSet = new HashSet<BehaviorInfo>();
-		safeSet.addAll(mergeIntoNode.violatedSafeties);
-		safeSet.addAll(mergeFromNode.violatedSafeties);
-		mergeIntoNode.violatedSafeties.clear();
-		mergeIntoNode.violatedSafeties.addAll(safeSet);
 
-		Vector<JVGInvariant> mergedInvs = mergeInvariants(mergeIntoNode.invariants, mergeFromNode.invariants);
-		mergeIntoNode.invariants.clear();
-		mergeIntoNode.invariants.addAll(mergedInvs);
-		
-		// There might be multiple justices being violated now in the merged node - 
-		// but we only write on it the first justice, since this is an attractor node in any
-		// case, so which justice is violated is less important. Same for the z-rank.
-		// These are attractor nodes - no assumption graph in either of them
-		
-		// update the graph
-		nodes.remove(mergeFrom);
-		
-		Vector<JVGEdge> intoEdges = edges.get(mergeInto);
-		for (int i = 0; i < intoEdges.size(); i++) {
-			if (intoEdges.get(i).destInd == mergeFrom) {
-				intoEdges.remove(i);
-				break;
-			}
+		HashMap<Integer, List<JVGNode>> classes = new HashMap<Integer, List<JVGNode>>();
+		for (int[] merge : merges) {
+			JVGNode mergeIntoNode = nodes.get(merge[0]);
+			JVGNode mergeFromNode = nodes.get(merge[1]);
+			mergeIntoNode.isOnlySafetyViolated = (mergeIntoNode.isOnlySafetyViolated && mergeFromNode.isOnlySafetyViolated);
+			mergeIntoNode.isSafeyViolated = (mergeIntoNode.isOnlySafetyViolated || mergeFromNode.isSafeyViolated);		
+			HashSet<BehaviorInfo> safeSet = new HashSet<BehaviorInfo>();
+			safeSet.addAll(mergeIntoNode.violatedSafeties);
+			safeSet.addAll(mergeFromNode.violatedSafeties);
+			mergeIntoNode.violatedSafeties.clear();
+			mergeIntoNode.violatedSafeties.addAll(safeSet);
+
+			Vector<JVGInvariant> mergedInvs = mergeInvariants(mergeIntoNode.invariants, mergeFromNode.invariants);
+			mergeIntoNode.invariants.clear();
+			mergeIntoNode.invariants.addAll(mergedInvs);
+
+			// There might be multiple justices being violated now in the merged node - 
+			// but we only write on it the first justice, since this is an attractor node in any
+			// case, so which justice is violated is less important. Same for the z-rank.
+			// These are attractor nodes - no assumption graph in either of them
+			classes.computeIfAbsent(analysis.find(merge[0]), k -> new ArrayList<JVGNode>()).add(mergeFromNode);
 		}
 
-		if (edges.containsKey(mergeFrom)) {
-			if (intoEdges.isEmpty()) {
-				log.fine("intoEdges is empty");
-				intoEdges.addAll(edges.get(mergeFrom));
-				for (int i = 0; i < edges.get(mergeFrom).size(); i++) {
-					sortedChildren.add(edges.get(mergeFrom).get(i).destInd);
-				}
-				log.fine("intoEdges = " + intoEdges);
-			} else {
-				log.fine("intoEdges is not empty");
-				Vector<JVGEdge> fromEdges = edges.get(mergeFrom);
-				Vector<JVGEdge> edgesToAdd = new Vector<JVGEdge>();
-				for (int j = 0; j < fromEdges.size(); j++) {
-					boolean edgeFound = false;
-					for (int i = 0; i < intoEdges.size(); i++) {
-						if (intoEdges.get(i).destInd == fromEdges.get(j).destInd) {
-							Vector<JVGInvariant> mergedInvars = mergeInvariants(intoEdges.get(i).invariants,
-									fromEdges.get(j).invariants);
-							intoEdges.get(i).invariants.clear();
-							intoEdges.get(i).invariants.addAll(mergedInvars);
-							edgeFound = true;
-							break;
-						}
-					}
-					if (!edgeFound) {
-						edgesToAdd.add(fromEdges.get(j));
-						sortedChildren.add(fromEdges.get(j).destInd);
-					}
-				}
-				intoEdges.addAll(edgesToAdd);
-				log.fine("intoEdges = " + intoEdges);
+		for (Map.Entry<Integer, List<JVGNode>> entry : classes.entrySet()) {
+			JVGNode node = nodes.get(entry.getKey());
+			BDD nodeBDD = node.nodeBDD.id();
+			BDD transitions = node.transitions.id();
+			for (JVGNode mergeFromNode : entry.getValue()) {
+				nodeBDD.orWith(mergeFromNode.nodeBDD.id());
+				transitions.orWith(mergeFromNode.transitions.id());
 			}
-			edges.remove(mergeFrom);
-		}	
-		
-		// go over all edges and change destInd to new ind, and update invariants
-		BDD destNodeBDD = nodes.get(mergeInto).nodeBDD;
-		Iterator<Map.Entry<Integer, Vector<JVGEdge>>> itr = edges.entrySet().iterator();
-		while (itr.hasNext()) {
-			Map.Entry<Integer, Vector<JVGEdge>> elem =
-					(Map.Entry<Integer, Vector<JVGEdge>>) itr.next();
-			for (int i = 0; i < elem.getValue().size(); i++) {
-				if (elem.getValue().get(i).destInd == mergeFrom) {
-					elem.getValue().get(i).destInd = mergeInto;
-					elem.getValue().get(i).invariants.clear();
-					BDD srcNodeBDD = nodes.get(elem.getKey()).nodeBDD;
-					elem.getValue().get(i).invariants.addAll(getEdgeInvariants(elem.getKey(), srcNodeBDD, destNodeBDD));
+			node.nodeBDD = nodeBDD;
+			node.transitions = transitions;
+		}
+
+		// update the graph
+		for (int[] merge : merges) {
+			nodes.remove(merge[1]);
+			edges.remove(merge[1]);
+		}
+		for (Map.Entry<Integer, Vector<JVGEdge>> entry : edges.entrySet()) {
+			int srcInd = entry.getKey();
+			Vector<JVGEdge> srcEdges = entry.getValue();
+			srcEdges.clear();
+			for (JVGEdge edge : analysis.getEdges(srcInd)) {
+				int destInd = analysis.find(edge.destInd);
+				if (classes.containsKey(srcInd) || classes.containsKey(destInd)) {
+					edge.destInd = destInd;
+					edge.invariants.clear();
+					edge.invariants.addAll(getEdgeInvariants(srcInd, nodes.get(srcInd).nodeBDD,
+							nodes.get(destInd).nodeBDD));
 				}
+				srcEdges.add(edge);
 			}
 		}
 		
@@ -3402,92 +3616,27 @@ private Vector<JVGInvariant> mergeInvariants(Vector<JVGInvariant> into, Vector<J
 	private void changeNodeKeysToSequentialOrder() {
 		log.fine("START");
 		
-		int newNodeInd = 0;
-		Iterator<Map.Entry<Integer, JVGNode>> nodesItr = nodes.entrySet().iterator();
-		HashMap<Integer, Integer> changes = new HashMap<Integer, Integer>();
-		while (nodesItr.hasNext()) {
-			Map.Entry<Integer, JVGNode> entry = (Map.Entry<Integer, JVGNode>) nodesItr.next();
-			if (entry.getKey() == newNodeInd) {
-				newNodeInd++;
-				continue;
-			} else {
-				if (nodes.containsKey(newNodeInd)) {
-					switchNodesIndices(entry.getKey(), newNodeInd);
-				} else {
-					changes.put(entry.getKey(), newNodeInd);
-				}
-				newNodeInd++;
-			}
-		}
-		
-		Iterator<Map.Entry<Integer, Integer>> changesItr = changes.entrySet().iterator();
-		while (changesItr.hasNext()) {
-			Map.Entry<Integer, Integer> entry = (Map.Entry<Integer, Integer>) changesItr.next();
-			int oldKey = entry.getKey();
-			int newKey = entry.getValue();
-			nodes.put(newKey, nodes.get(oldKey));
-			nodes.remove(oldKey);
-			if (edges.get(oldKey) != null) {
-				edges.put(newKey, edges.get(oldKey));
-				edges.remove(oldKey);
-			}
-			Iterator<Map.Entry<Integer, Vector<JVGEdge>>> edgesItr = edges.entrySet().iterator();
-			while (edgesItr.hasNext()) {
-				Map.Entry<Integer, Vector<JVGEdge>> elem = (Map.Entry<Integer, Vector<JVGEdge>>) edgesItr.next();
-				for (int i = 0; i < elem.getValue().size(); i++) {
-					JVGEdge edge = elem.getValue().get(i);
-					if (oldKey == edge.destInd) {
-						edge.destInd = newKey;
-					}
-				}
-			}			
-		}
-		
-		log.fine("END");
-	}
-	
-	// switching the indices of two nodes in the graph
-	private void switchNodesIndices(int firstInd, int secondInd) {
-		log.fine("START");
-		
-		// changing the nodes map
-		JVGNode firstNode = nodes.get(firstInd);
-		nodes.put(firstInd, nodes.get(secondInd));
-		nodes.put(secondInd, firstNode);
-		
-		// changing the edges map
-		// changing out going edges
-		Vector<JVGEdge> firstEdges = edges.get(firstInd);
-		Vector<JVGEdge> secondEdges = edges.get(secondInd);
-		if (firstEdges != null || secondEdges != null) {
-			if (firstEdges != null) {
-				edges.put(secondInd, firstEdges);
-			} else {
-				// if the switch node has no out-going edges, remove it from from edges map
-				edges.remove(secondInd);
-			}
-			if (secondEdges != null) {
-				edges.put(firstInd, secondEdges);
-			} else {
-				// if the switch node has no out-going edges, remove it from from edges map
-				edges.remove(firstInd);
-			}
-		}
-		
-		// changing incoming edges
-		Iterator<Map.Entry<Integer, Vector<JVGEdge>>> edgesItr = edges.entrySet().iterator();
-		while (edgesItr.hasNext()) {
-			Map.Entry<Integer, Vector<JVGEdge>> elem = (Map.Entry<Integer, Vector<JVGEdge>>) edgesItr.next();
-			for (int i = 0; i < elem.getValue().size(); i++) {
-				// we must change both in a single iteration, to avoid a case of double change of the indices
-				JVGEdge edge = elem.getValue().get(i);
-				if (edge.destInd == firstInd) {
-					edge.destInd = secondInd;
-				} else if (edge.destInd == secondInd) {
-					edge.destInd = firstInd;
+		// the node in position i of the compact graph (in ascending order of keys) gets the key i,
+		// so the initial node keeps the key 0
+		CompactGraph graph = getCompactGraph();
+		HashMap<Integer, JVGNode> seqNodes = new HashMap<Integer, JVGNode>();
+		HashMap<Integer, Vector<JVGEdge>> seqEdges = new HashMap<Integer, Vector<JVGEdge>>();
+		for (int pos = 0; pos < graph.size(); pos++) {
+			int key = graph.key(pos);
+			seqNodes.put(pos, nodes.get(key));
+			Vector<JVGEdge> nodeEdges = edges.get(key);
+			if (nodeEdges != null) {
+				for (int i = 0; i < nodeEdges.size(); i++) {
+					nodeEdges.get(i).destInd = graph.positionOf(nodeEdges.get(i).destInd);
 				}
+				seqEdges.put(pos, nodeEdges);
 			}
 		}
+		nodes.clear();
+		nodes.putAll(seqNodes);
+		edges.clear();
+		edges.putAll(seqEdges);
+		compactGraph = graph.withSequentialKeys();
 		
 		log.fine("END");
 	}
@@ -3561,14 +3710,37 @@ public PlayerModule getSys() {
 		return sys;
 	}	
 	
+	/**
+	 * Returns the nodes themselves. The caller may change them, so the compact snapshot is dropped.
+	 * @return
+	 */
 	public HashMap<Integer, JVGNode> getNodes() {
+		compactGraph = null;
 		return nodes;
 	}
 	
+	/**
+	 * Returns the edges themselves. The caller may change them, so the compact snapshot is dropped.
+	 * @return
+	 */
 	public HashMap<Integer, Vector<JVGEdge>> getEdges() {
+		compactGraph = null;
 		return edges;
 	}
 
+	/**
+	 * Returns a compact snapshot of the nodes and edges of the JVTS, with fast successor and
+	 * predecessor queries. The snapshot is built once and shared until the graph is recomputed,
+	 * or its nodes or edges are handed out (see {@link #getNodes()} and {@link #getEdges()}).
+	 * @return
+	 */
+	public CompactGraph getCompactGraph() {
+		if (compactGraph == null) {
+			compactGraph = CompactGraph.of(nodes.keySet(), edges);
+		}
+		return compactGraph;
+	}
+
 	public BDDVarSet getAuxVars() {  
 		BDDVarSet aux_vars = Env.getEmptySet();
 		for (ModuleBDDField aux_f : sys.getAuxFields()) {
@@ -0,0 +1,254 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import net.sf.javabdd.BDDVarSet;
+
+/**
+ * A transition relation kept as a conjunction of partitions, with an early quantification schedule.
+ * <p>
+ * Relational products are computed as a sequence of smaller products over the partitions, where every
+ * variable to quantify is quantified right after the last partition that depends on it. The partitions
+ * are the given parts (e.g., the safeties of the specification) that are implied by the sources of the
+ * relation, and for each source a remainder (the source simplified by its parts), so the conjunction of
+ * the partitions is exactly the relation, which is never built as a single BDD.
+ * Consecutive parts are clustered up to {@link #CLUSTER_SIZE} BDD nodes.
+ * </p>
+ */
+class PartitionedRelation {
+
+	private static final int CLUSTER_SIZE = 5000;
+
+	private final BDD[] sources;
+	private final BDDVarSet quantVars;
+	private final int[] quantVarsArray;
+	private final BDDVarSet quantFirst;
+	private final BDD[] clusters;
+	private final BDDVarSet[] schedule;
+
+	/**
+	 * @param parts candidate partitions, not consumed
+	 * @param quantVars the variables quantified by {@link #relProd(BDD)}
+	 * @param sources the relation, as a conjunction of these BDDs (not consumed)
+	 */
+	PartitionedRelation(List<BDD> parts, BDDVarSet quantVars, BDD... sources) {
+		this.sources = new BDD[sources.length];
+		this.quantVars = quantVars.id();
+		this.quantVarsArray = quantVars.toArray();
+
+		// each source is split to the parts it implies and a remainder, so the relation itself is never built
+		List<BDD> implied = new ArrayList<BDD>();
+		boolean[] taken = new boolean[parts.size()];
+		for (int i = 0; i < sources.length; i++) {
+			this.sources[i] = sources[i].id();
+			BDD conj = sources[i].getFactory().one();
+			for (int j = 0; j < parts.size(); j++) {
+				BDD part = parts.get(j);
+				if (taken[j] || part.isOne()) {
+					continue;
+				}
+				BDD notImplied = sources[i].id().andWith(part.not());
+				if (notImplied.isZero()) {
+					taken[j] = true;
+					implied.add(part.id());
+					conj.andWith(part.id());
+				}
+				notImplied.free();
+			}
+			BDD remainder = sources[i].simplify(conj);
+			conj.free();
+			if (remainder.isOne()) {
+				remainder.free();
+			} else {
+				implied.add(remainder);
+			}
+		}
+		if (implied.isEmpty()) {
+			implied.add(sources[0].getFactory().one());
+		}
+
+		List<BDD> ordered = order(implied, this.quantVars);
+		this.clusters = cluster(ordered);
+
+		// a variable is quantified after the last cluster that depends on it
+		BDDFactory factory = clusters[0].getFactory();
+		BitSet quant = toBitSet(this.quantVars);
+		BitSet later = new BitSet();
+		BDDVarSet[] schedule = new BDDVarSet[clusters.length];
+		for (int i = clusters.length - 1; i >= 0; i--) {
+			BitSet support = support(clusters[i]);
+			BitSet now = (BitSet) support.clone();
+			now.and(quant);
+			now.andNot(later);
+			schedule[i] = factory.makeSet(now.stream().toArray());
+			later.or(support);
+		}
+		BitSet first = (BitSet) quant.clone();
+		first.andNot(later);
+		this.quantFirst = factory.makeSet(first.stream().toArray());
+		this.schedule = schedule;
+	}
+
+	/**
+	 * @return true if this is the partitioning of the given relation and variables
+	 */
+	boolean isFor(BDDVarSet quantVars, BDD... sources) {
+		if (sources.length != this.sources.length || !Arrays.equals(quantVarsArray, quantVars.toArray())) {
+			return false;
+		}
+		for (int i = 0; i < sources.length; i++) {
+			if (!this.sources[i].equals(sources[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the conjunction of the given BDD and the relation, with the variables quantified
+	 * @param from a BDD, not consumed
+	 * @return a new BDD
+	 */
+	BDD relProd(BDD from) {
+		BDD res = from.exist(quantFirst);
+		for (int i = 0; i < clusters.length && !res.isZero(); i++) {
+			BDD next = res.relprod(clusters[i], schedule[i]);
+			res.free();
+			res = next;
+		}
+		return res;
+	}
+
+	int size() {
+		return clusters.length;
+	}
+
+	void free() {
+		for (BDD source : sources) {
+			source.free();
+		}
+		for (int i = 0; i < clusters.length; i++) {
+			clusters[i].free();
+			schedule[i].free();
+		}
+		quantVars.free();
+		quantFirst.free();
+	}
+
+	/**
+	 * Greedy ordering of the parts: each time the part after which the most variables can be quantified
+	 * (fewest variables in its support as a tie breaker)
+	 */
+	private static List<BDD> order(List<BDD> parts, BDDVarSet quantVars) {
+		BitSet quant = toBitSet(quantVars);
+		List<BitSet> supports = new ArrayList<BitSet>();
+		int[] occurrences = new int[0];
+		for (BDD part : parts) {
+			BitSet support = support(part);
+			supports.add(support);
+			if (support.length() > occurrences.length) {
+				occurrences = Arrays.copyOf(occurrences, support.length());
+			}
+			for (int v = support.nextSetBit(0); v >= 0; v = support.nextSetBit(v + 1)) {
+				occurrences[v]++;
+			}
+		}
+
+		List<BDD> remaining = new ArrayList<BDD>(parts);
+		List<BDD> ordered = new ArrayList<BDD>();
+		while (!remaining.isEmpty()) {
+			int best = 0;
+			int bestQuant = -1;
+			for (int i = 0; i < remaining.size(); i++) {
+				BitSet support = supports.get(i);
+				int canQuant = 0;
+				for (int v = support.nextSetBit(0); v >= 0; v = support.nextSetBit(v + 1)) {
+					if (quant.get(v) && occurrences[v] == 1) {
+						canQuant++;
+					}
+				}
+				if (canQuant > bestQuant
+						|| (canQuant == bestQuant && support.cardinality() < supports.get(best).cardinality())) {
+					best = i;
+					bestQuant = canQuant;
+				}
+			}
+			BitSet support = supports.remove(best);
+			for (int v = support.nextSetBit(0); v >= 0; v = support.nextSetBit(v + 1)) {
+				occurrences[v]--;
+			}
+			ordered.add(remaining.remove(best));
+		}
+		return ordered;
+	}
+
+	/**
+	 * Conjoins consecutive parts (consumed) as long as the result is not larger than CLUSTER_SIZE
+	 */
+	private static BDD[] cluster(List<BDD> parts) {
+		List<BDD> clusters = new ArrayList<BDD>();
+		BDD curr = parts.get(0);
+		for (int i = 1; i < parts.size(); i++) {
+			BDD joined = curr.and(parts.get(i));
+			if (joined.nodeCount() > CLUSTER_SIZE) {
+				joined.free();
+				clusters.add(curr);
+				curr = parts.get(i);
+			} else {
+				curr.free();
+				parts.get(i).free();
+				curr = joined;
+			}
+		}
+		clusters.add(curr);
+		return clusters.toArray(new BDD[clusters.size()]);
+	}
+
+	private static BitSet support(BDD bdd) {
+		BDDVarSet support = bdd.support();
+		BitSet res = toBitSet(support);
+		support.free();
+		return res;
+	}
+
+	private static BitSet toBitSet(BDDVarSet vars) {
+		BitSet res = new BitSet();
+		for (int v : vars.toArray()) {
+			res.set(v);
+		}
+		return res;
+	}
+}
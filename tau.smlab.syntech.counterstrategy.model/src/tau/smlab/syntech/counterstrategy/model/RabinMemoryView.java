@@ -0,0 +1,149 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.javabdd.BDD;
+import tau.smlab.syntech.games.rabin.RabinGame;
+
+/**
+ * A read-only view of the memory of a solved Rabin game: the Z vector and the X matrices.
+ * <p>
+ * A view {@link #borrow(RabinGame) borrows} the memory: it refers to the BDDs of the game without
+ * referencing or copying them, so it is only valid until the game is freed. To keep using the memory
+ * after that, ownership is handed off explicitly with {@link #takeOwnership()}, which references the
+ * BDDs on behalf of the view; these references are released by {@link #free()}.
+ * </p>
+ * The BDDs of the view must not be consumed (freed or used as the target of xxxWith operations).
+ */
+public final class RabinMemoryView {
+
+	private List<BDD> zMem;
+	private List<? extends List<? extends List<BDD>>> xMem;
+	private boolean owned;
+
+	/**
+	 * @param rg a solved Rabin game
+	 * @return a view of the memory of the game, valid until the game is freed
+	 */
+	public static RabinMemoryView borrow(RabinGame rg) {
+		return new RabinMemoryView(rg.getMem().getZMem(), rg.getMem().getXMem());
+	}
+
+	private RabinMemoryView(List<BDD> zMem, List<? extends List<? extends List<BDD>>> xMem) {
+		this.zMem = zMem;
+		this.xMem = xMem;
+	}
+
+	/**
+	 * Makes the view independent of the game, so the game can be freed. Does nothing if the
+	 * view already owns the memory.
+	 */
+	public void takeOwnership() {
+		if (owned) {
+			return;
+		}
+		List<BDD> z = new ArrayList<BDD>(zMem.size());
+		for (BDD cell : zMem) {
+			z.add(cell.id());
+		}
+		List<List<List<BDD>>> x = new ArrayList<List<List<BDD>>>(xMem.size());
+		for (List<? extends List<BDD>> matrix : xMem) {
+			List<List<BDD>> m = new ArrayList<List<BDD>>(matrix.size());
+			for (List<BDD> row : matrix) {
+				List<BDD> r = new ArrayList<BDD>(row.size());
+				for (BDD cell : row) {
+					r.add(cell.id());
+				}
+				m.add(r);
+			}
+			x.add(m);
+		}
+		zMem = z;
+		xMem = x;
+		owned = true;
+	}
+
+	public boolean isOwned() {
+		return owned;
+	}
+
+	/**
+	 * Releases the memory if the view owns it. The view can't be used afterwards.
+	 */
+	public void free() {
+		if (owned) {
+			for (BDD cell : zMem) {
+				cell.free();
+			}
+			for (List<? extends List<BDD>> matrix : xMem) {
+				for (List<BDD> row : matrix) {
+					for (BDD cell : row) {
+						cell.free();
+					}
+				}
+			}
+			owned = false;
+		}
+		zMem = Collections.emptyList();
+		xMem = Collections.emptyList();
+	}
+
+	/**
+	 * @return the Z vector: in cell i all states that either violate system justice i or from which the
+	 * env can force the system to a state in cell i-1
+	 */
+	public List<BDD> getZMem() {
+		return Collections.unmodifiableList(zMem);
+	}
+
+	/**
+	 * @param zRank index in the Z vector
+	 * @return the X matrix of the cell: its states divided to rows by the environment justice being
+	 * satisfied, where each cell in a row is a step towards satisfaction of that justice
+	 */
+	public List<List<BDD>> getXMatrix(int zRank) {
+		final List<? extends List<BDD>> matrix = xMem.get(zRank);
+		return new AbstractList<List<BDD>>() {
+			@Override
+			public List<BDD> get(int row) {
+				return Collections.unmodifiableList(matrix.get(row));
+			}
+
+			@Override
+			public int size() {
+				return matrix.size();
+			}
+		};
+	}
+}
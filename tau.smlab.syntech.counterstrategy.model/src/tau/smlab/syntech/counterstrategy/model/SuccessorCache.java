@@ -0,0 +1,151 @@
+/*
+Copyright (c) since 2015, Tel Aviv University and Software Modeling Lab
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of Tel Aviv University and Software Modeling Lab nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Tel Aviv University and Software Modeling Lab 
+BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE 
+GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) 
+HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT 
+LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+*/
+
+package tau.smlab.syntech.counterstrategy.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDVarSet;
+
+/**
+ * Successors of sets of states by the env and sys transitions, cached per set of states.
+ * <p>
+ * The cache can outlive the graph that filled it. When the env transitions change (e.g., after adding
+ * environment assumptions), only the sets that intersect the states whose env transitions changed are
+ * dropped, since the successors of all other sets are the same. If the sys transitions or the variables
+ * changed, everything is dropped.
+ * </p>
+ */
+class SuccessorCache {
+
+	private static final int CACHE_SIZE = 1024;
+
+	private BDD envTrans;
+	private BDD sysTrans;
+	private int[] vars;
+
+	private final LinkedHashMap<BDD, BDD> images = new LinkedHashMap<BDD, BDD>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<BDD, BDD> eldest) {
+			if (size() > CACHE_SIZE) {
+				free(eldest);
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/**
+	 * Makes the cache valid for the given transitions, dropping the successors that may have changed
+	 * @param envTrans the env transitions, not consumed
+	 * @param sysTrans the sys transitions, not consumed
+	 * @param quantVars the variables quantified when computing successors
+	 * @param primeVars all primed variables
+	 */
+	void validate(BDD envTrans, BDD sysTrans, BDDVarSet quantVars, BDDVarSet primeVars) {
+		int[] vars = quantVars.toArray();
+		if (this.envTrans == null || !Arrays.equals(this.vars, vars) || !this.sysTrans.equals(sysTrans)) {
+			clear();
+			this.envTrans = envTrans.id();
+			this.sysTrans = sysTrans.id();
+			this.vars = vars;
+			return;
+		}
+		if (this.envTrans.equals(envTrans)) {
+			return;
+		}
+		// states from which the env transitions were restricted (or extended)
+		BDD changed = this.envTrans.xor(envTrans);
+		BDD region = changed.exist(primeVars);
+		changed.free();
+		Iterator<Map.Entry<BDD, BDD>> itr = images.entrySet().iterator();
+		while (itr.hasNext()) {
+			Map.Entry<BDD, BDD> entry = itr.next();
+			BDD common = entry.getKey().and(region);
+			if (!common.isZero()) {
+				free(entry);
+				itr.remove();
+			}
+			common.free();
+		}
+		region.free();
+		this.envTrans.free();
+		this.envTrans = envTrans.id();
+	}
+
+	/**
+	 * @param states a set of states
+	 * @return a copy of the cached successors of the states, or null if not cached
+	 */
+	BDD get(BDD states) {
+		BDD image = images.get(states);
+		return image == null ? null : image.id();
+	}
+
+	/**
+	 * @param states a set of states, not consumed
+	 * @param image its successors, not consumed
+	 */
+	void put(BDD states, BDD image) {
+		if (!images.containsKey(states)) {
+			images.put(states.id(), image.id());
+		}
+	}
+
+	int size() {
+		return images.size();
+	}
+
+	/**
+	 * Frees all cached BDDs
+	 */
+	void clear() {
+		for (Map.Entry<BDD, BDD> entry : images.entrySet()) {
+			free(entry);
+		}
+		images.clear();
+		if (envTrans != null) {
+			envTrans.free();
+			sysTrans.free();
+			envTrans = null;
+			sysTrans = null;
+		}
+		vars = null;
+	}
+
+	private static void free(Map.Entry<BDD, BDD> entry) {
+		entry.getKey().free();
+		entry.getValue().free();
+	}
+}
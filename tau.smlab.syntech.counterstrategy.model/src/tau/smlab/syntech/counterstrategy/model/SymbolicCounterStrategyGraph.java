@@ -33,10 +33,9 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.Vector;
-import java.util.logging.Handler;
 import java.util.logging.Level;
-import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import net.sf.javabdd.BDD;
 import tau.smlab.syntech.counterstrategy.model.JusticeViolationGraph.AssumptionSatNode;
@@ -51,17 +50,8 @@ public class SymbolicCounterStrategyGraph {
 	boolean isRealizable;
 	
 	public SymbolicCounterStrategyGraph(JusticeViolationGraph jvGraph, Level logLevel) {
-		LogManager lm = LogManager.getLogManager();
-		
-		log.setUseParentHandlers(false);
-//		SimpleFormatter fmt = new SimpleFormatter();
-//		StreamHandler sh = new StreamHandler(System.out, fmt);
-//		sh.setLevel(Level.ALL);
-		log.setLevel(logLevel);
-	//	log.addHandler(sh);
-		Handler[] handler = lm.getLogger(JusticeViolationGraph.class.getName()).getHandlers();
-		log.addHandler(handler[0]);
-		lm.addLogger(log);
+		// printing to the same console handler as the JVG
+		JVGTrace.attach(log, logLevel);
 		jvg = jvGraph;
 	}
 	
@@ -90,27 +80,28 @@ public CounterStrategyGraphStruct getSymbolicGraph() {
 		CounterStrategyGraphStruct graph = new CounterStrategyGraphStruct();
 		
 		graph.type = CounterStrategyGraphStruct.CSType.SYMBOLIC;
-		Iterator<Map.Entry<Integer, JVGNode>> itr = jvg.nodes.entrySet().iterator();
-		while (itr.hasNext()) {
-			Map.Entry<Integer, JVGNode> entry = (Map.Entry<Integer, JVGNode>) itr.next();
-			CounterStrategyGraphStruct.CSNode node = convertNodeToGraphStruct(entry.getKey(), 
-					entry.getValue(), false /*isConcrete*/);
-			graph.nodes.put(entry.getKey(), node);
+		// the compact graph is shared with the JVG, and gives the nodes in ascending order of index
+		CompactGraph compact = jvg.getCompactGraph();
+		for (int pos = 0; pos < compact.size(); pos++) {
+			int index = compact.key(pos);
+			CounterStrategyGraphStruct.CSNode node = convertNodeToGraphStruct(index, 
+					jvg.nodes.get(index), false /*isConcrete*/);
+			graph.nodes.put(index, node);
 			// add out going edges for this node
-			if (!jvg.edges.containsKey(entry.getKey())) {
-				log.fine("JVG does not contain out going edges for node: " + entry.getKey());
+			Vector<JVGEdge> edges = jvg.edges.get(index);
+			if (edges == null) {
+				log.fine("JVG does not contain out going edges for node: " + index);
 				continue;
 			}
-			Vector<JVGEdge> edges = jvg.edges.get(entry.getKey());
 			HashMap<Integer, CounterStrategyGraphStruct.CSEdge> outEdges =
 					new HashMap<Integer, CounterStrategyGraphStruct.CSEdge>();
 			for (int i = 0; i < edges.size(); i++) {
 				CounterStrategyGraphStruct.CSEdge edge = convertEdgeToGraphStruct(
-						entry.getKey(), edges.get(i),
+						index, edges.get(i),
 						CounterStrategyGraphStruct.CSEdgeType.BETWEEN_NODES, false /*isConcrete*/);
 				outEdges.put(edges.get(i).destInd, edge);
 			}
-			graph.edges.put(entry.getKey(), outEdges);
+			graph.edges.put(index, outEdges);
 		}
 				
 		log.fine("END");
@@ -134,12 +125,16 @@ private CounterStrategyGraphStruct.CSNode convertNodeToGraphStruct(int index, JV
 		}
 		
 		if (jvgNode.type == JVGNodeType.CYCLE_NODE && !isConcrete) {
-			resNode.assumptionsGraph = convertAssumptionGraphToGraphStruct(jvgNode.assumpGraph);
+			// computed (and converted) only when first asked for
+			resNode.assumptionsGraphSupplier =
+					() -> convertAssumptionGraphToGraphStruct(jvg.getAssumptionGraph(jvgNode));
 		}
 		
 		resNode.violatedSafeties = jvg.getViolatedSafeties(jvgNode);
 		
-		log.fine("End. resNode = " + resNode.toString());
+		if (log.isLoggable(Level.FINE)) {
+			log.fine("End. resNode = " + resNode.toString());
+		}
 		return resNode;
 	}
 	
@@ -266,7 +261,9 @@ private CounterStrategyGraphStruct.CSEdge convertEdgeToGraphStruct(int fromInd,
 			}
 		}
 		
-		log.fine("End. resEdge = " + resEdge.toString());
+		if (log.isLoggable(Level.FINE)) {
+			log.fine("End. resEdge = " + resEdge.toString());
+		}
 		return resEdge;		
 	}
 	
@@ -294,71 +291,85 @@ private CounterStrategyGraphStruct.CSEdge convertEdgeToGraphStruct(int fromInd,
 	 */
 	public CounterStrategyGraphStruct getInitialStates(CounterStrategyGraphStruct.CSNode currNode,
 			ArrayList<CounterStrategyGraphStruct.CSNode> leadingNodes) {
+		return getInitialStates(currNode, leadingNodes, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Will return a page of the graph returned by {@link #getInitialStates(CounterStrategyGraphStruct.CSNode, ArrayList)}:
+	 * at most <em>limit</em> concrete states, starting from the state at the given <em>offset</em>.
+	 * The states are computed lazily and always come in the same order, so the View module can page
+	 * through nodes with too many concrete states to compute at once.
+	 * 
+	 * @param currNode
+	 * @param leadingNodes
+	 * @param offset
+	 * @param limit
+	 * @return
+	 */
+	public CounterStrategyGraphStruct getInitialStates(CounterStrategyGraphStruct.CSNode currNode,
+			ArrayList<CounterStrategyGraphStruct.CSNode> leadingNodes, long offset, int limit) {
 		// This method gets the current symbolic node and a list of symbolic nodes that have
 		// edges leading to this node. It returns a graph of the concrete states in the currNode
 		// for which there's an incoming edge from some node in the leading nodes
-		log.info("START. currNode = " + currNode.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("START. currNode = " + currNode.toString() + ", offset = " + offset + ", limit = " + limit);
+		}
 		CounterStrategyGraphStruct graph = new CounterStrategyGraphStruct();
 		graph.type = CounterStrategyGraphStruct.CSType.CONCRETE;
 
-		int concreteNodeInd = 0;
+		// pairs of symbolic node from which the states are reached and the symbolic node of the states
+		ArrayList<Integer> prevNodes = new ArrayList<Integer>();
+		ArrayList<CounterStrategyGraphStruct.CSNode> symNodes = new ArrayList<CounterStrategyGraphStruct.CSNode>();
 		log.fine("leadningNodes.size = " + leadingNodes.size());
 		if (currNode.type == CounterStrategyGraphStruct.CSNodeType.INITIAL) {
 			log.fine("handling initial symbolic node - getting the initial concrete states");
-			HashMap<Integer, ArrayList<BDD>> initialConcreteStates =
-					jvg.getInitialConcreteStates();
 			// the initial states should have symbolic index in them which is identical to
 			// the symbolic node in which the state is actually located (and not the "0" which
 			// represents the marker initial symbolic node)
-			Iterator<Map.Entry<Integer, ArrayList<BDD>>> itr =
-					initialConcreteStates.entrySet().iterator();
-			while (itr.hasNext()) {
-				Map.Entry<Integer, ArrayList<BDD>> entry =
-						(Map.Entry<Integer, ArrayList<BDD>>) itr.next();
-				
-				log.finer("initialConcreteStates.size == " + entry.getValue().size());
-				CounterStrategyGraphStruct.CSNode currSymNode =
-						convertNodeToGraphStruct(entry.getKey(), jvg.nodes.get(entry.getKey()),
-								false /*isConcrete*/);
-				addNodesToConcreteGraph(graph, entry.getValue(), currSymNode, concreteNodeInd);
-				concreteNodeInd += initialConcreteStates.size();
+			TreeSet<Integer> initialNodes = new TreeSet<Integer>();
+			for (int destInd : jvg.getCompactGraph().successorKeys(0)) {
+				initialNodes.add(destInd);
+			}
+			for (int destInd : initialNodes) {
+				prevNodes.add(0);
+				symNodes.add(convertNodeToGraphStruct(destInd, jvg.nodes.get(destInd), false /*isConcrete*/));
 			}
 		} else {
 			for (int i = 0; i < leadingNodes.size(); i++) {
-				ArrayList<BDD> concreteStates = jvg.getConcreteStates(leadingNodes.get(i).indexSymbolic,
-						currNode.indexSymbolic);
-				log.finer("concreteStates.size = " + concreteStates.size());
-				addNodesToConcreteGraph(graph, concreteStates, currNode, concreteNodeInd);
-				concreteNodeInd += concreteStates.size();
+				prevNodes.add(leadingNodes.get(i).indexSymbolic);
+				symNodes.add(currNode);
 			}
 		}
-		
-		log.info("END, graph = " + graph.toString());
-		return graph;
-	}
-
-	private void addNodesToConcreteGraph(CounterStrategyGraphStruct graph, ArrayList<BDD> states,
-			CounterStrategyGraphStruct.CSNode symbolicNode, int stateInd) {
-		log.fine("START");
 
-		for (int j = 0; j < states.size(); j++) {
-			log.log(Level.FINER, "states[" + j + "] = {0}",
-					new BddStringWrapper(states.get(j)));
-			CounterStrategyGraphStruct.CSNode node = 
-					constructCSNodeFromBDD(symbolicNode, states.get(j));
-			graph.nodes.put(stateInd, node);
-			stateInd++;
-			// no edges incoming for the initial states
+		int concreteNodeInd = 0;
+		long toSkip = offset;
+		for (int i = 0; i < prevNodes.size() && concreteNodeInd < limit; i++) {
+			ConcreteStateIterator states = jvg.iterateConcreteStates(prevNodes.get(i), symNodes.get(i).indexSymbolic);
+			toSkip -= states.skip(toSkip);
+			while (concreteNodeInd < limit && states.hasNext()) {
+				BDD state = states.next();
+				log.log(Level.FINER, "states[" + concreteNodeInd + "] = {0}", new BddStringWrapper(state));
+				graph.nodes.put(concreteNodeInd, constructCSNodeFromBDD(symNodes.get(i), state));
+				state.free();
+				concreteNodeInd++;
+				// no edges incoming for the initial states
+			}
+			states.free();
 		}
-
-		log.fine("END");
+		
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END, graph = " + graph.toString());
+		}
+		return graph;
 	}
 	
 	private CounterStrategyGraphStruct.CSNode constructCSNodeFromBDD(
 			CounterStrategyGraphStruct.CSNode currNode,
 			BDD bdd) {
-		log.log(Level.FINE, "START - currNode = " + currNode.toString()
-				+ ", bdd = {0}", new BddStringWrapper(bdd));
+		if (log.isLoggable(Level.FINE)) {
+			log.log(Level.FINE, "START - currNode = " + currNode.toString()
+					+ ", bdd = {0}", new BddStringWrapper(bdd));
+		}
 		CounterStrategyGraphStruct.CSNode resNode = new CounterStrategyGraphStruct.CSNode();
 		resNode.isConcrete = true;
 		resNode.type = currNode.type;
@@ -372,7 +383,9 @@ private CounterStrategyGraphStruct.CSNode constructCSNodeFromBDD(
 			resNode.invariants.add(inv);
 		}
 		
-		log.fine("END. resNode = " + resNode.toString());
+		if (log.isLoggable(Level.FINE)) {
+			log.fine("END. resNode = " + resNode.toString());
+		}
 		return resNode;
 	}
 	
@@ -389,7 +402,24 @@ private CounterStrategyGraphStruct.CSNode constructCSNodeFromBDD(
 	 *         <em>currState</em>.
 	 */
 	public CounterStrategyGraphStruct performConcreteStep(CounterStrategyGraphStruct.CSNode currState) {
-		log.info("START - currState " + currState.toString());
+		return performConcreteStep(currState, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Will return a page of the sub-graph returned by {@link #performConcreteStep(CounterStrategyGraphStruct.CSNode)}:
+	 * the given node and at most <em>limit</em> of its neighbors, starting from the neighbor at the
+	 * given <em>offset</em>. The neighbors are computed lazily and always come in the same order.
+	 * 
+	 * @param currState
+	 * @param offset
+	 * @param limit
+	 * @return
+	 */
+	public CounterStrategyGraphStruct performConcreteStep(CounterStrategyGraphStruct.CSNode currState,
+			long offset, int limit) {
+		if (log.isLoggable(Level.INFO)) {
+			log.info("START - currState " + currState.toString() + ", offset = " + offset + ", limit = " + limit);
+		}
 		CounterStrategyGraphStruct graph = new CounterStrategyGraphStruct();
 		graph.type = CounterStrategyGraphStruct.CSType.CONCRETE;
 		int concreteInd = 0;
@@ -402,7 +432,7 @@ public CounterStrategyGraphStruct performConcreteStep(CounterStrategyGraphStruct
 		log.log(Level.FINE, "currBDD = {0}", new BddStringWrapper(currBDD));
 		ArrayList<Map.Entry<Integer, Map.Entry<JVGNode, JVGEdge>>> nodesAndEdges =
 				new ArrayList<Map.Entry<Integer, Map.Entry<JVGNode, JVGEdge>>>();
-		jvg.getNextStates(currState.indexSymbolic, currBDD, nodesAndEdges);
+		jvg.getNextStates(currState.indexSymbolic, currBDD, nodesAndEdges, offset, limit);
 		concreteInd++;
 		for (int i = 0; i < nodesAndEdges.size(); i++) {
 			int symbolicIndex = nodesAndEdges.get(i).getKey();
@@ -426,7 +456,9 @@ public CounterStrategyGraphStruct performConcreteStep(CounterStrategyGraphStruct
 		
 		graph.edges.put(0 /*the given state concreteIndex*/, currNodeOutEdges);
 		
-		log.info("END, graph = " + graph.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END, graph = " + graph.toString());
+		}
 		return graph;
 	}
 	
@@ -445,7 +477,9 @@ public CounterStrategyGraphStruct performConcreteStep(CounterStrategyGraphStruct
 	 * a flag isAux - indicating if it is an aux variable
 	 */
 	public ArrayList<Map.Entry<String, Boolean>> getVarList(CounterStrategyGraphStruct.CSNode node) {
-		log.info("START. node = " + node.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("START. node = " + node.toString());
+		}
 		
 		ArrayList<Map.Entry<String, Boolean>> vars = jvg.getAllVars();
 		ArrayList<Map.Entry<String, Boolean>> res = new ArrayList<Map.Entry<String, Boolean>>();
@@ -464,7 +498,9 @@ public ArrayList<Map.Entry<String, Boolean>> getVarList(CounterStrategyGraphStru
 		}
 		
 		System.out.println("res = " + res.toString());
-		log.info("END. res = " + res.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END. res = " + res.toString());
+		}
 		return res;
 	}
 	
@@ -485,7 +521,9 @@ public ArrayList<Map.Entry<String, Boolean>> getVarList(CounterStrategyGraphStru
 	 * concrete predecessor, with each variable having a flag - isAux (is it auxiliary variable)
 	 */
 	public ArrayList<Map.Entry<String, Boolean>>  getSuccessorVarList(ArrayList<CounterStrategyGraphStruct.CSInvariant> succInvariants) {
-		log.log(Level.INFO, "START - succInvariants = " + succInvariants);
+		if (log.isLoggable(Level.INFO)) {
+			log.log(Level.INFO, "START - succInvariants = " + succInvariants);
+		}
 		
 		ArrayList<Map.Entry<String, Boolean>> vars = jvg.getAllVars();
 		ArrayList<Map.Entry<String, Boolean>> res = new ArrayList<Map.Entry<String, Boolean>>();
@@ -503,7 +541,9 @@ public ArrayList<Map.Entry<String, Boolean>>  getSuccessorVarList(ArrayList<Coun
 			}
 		}
 		
-		log.log(Level.INFO, "END - res = " + res);
+		if (log.isLoggable(Level.INFO)) {
+			log.log(Level.INFO, "END - res = " + res);
+		}
 		return res;
 	}
 	
@@ -519,11 +559,15 @@ public ArrayList<Map.Entry<String, Boolean>>  getSuccessorVarList(ArrayList<Coun
 	 * @return list of valid variable values.
 	 */
 	public ArrayList<String> getValueList(CounterStrategyGraphStruct.CSNode node, String var) {
-		log.info("START. node = " + node.toString() + ", var = " + var);
+		if (log.isLoggable(Level.INFO)) {
+			log.info("START. node = " + node.toString() + ", var = " + var);
+		}
 
 		BDD currBDD = getBDDFromCSNode(node);
 		ArrayList<String> res = jvg.getNodeVarValues(node.indexSymbolic, currBDD, var);
-		log.info("END. res = " + res.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END. res = " + res.toString());
+		}
 		return res;
 	}	
 	
@@ -544,14 +588,18 @@ public ArrayList<String> getValueList(CounterStrategyGraphStruct.CSNode node, St
 	 */
 	public ArrayList<String> getSuccessorValueList(CounterStrategyGraphStruct.CSNode node,
 			CounterStrategyGraphStruct.CSNode predecessor, String var) {
-		log.info("START. node = " + node.toString() + ", predecessor = " +
-			predecessor + ", var = " + var);
+		if (log.isLoggable(Level.INFO)) {
+			log.info("START. node = " + node.toString() + ", predecessor = " +
+				predecessor + ", var = " + var);
+		}
 
 		BDD predBDD = getBDDFromCSNode(predecessor);
 		BDD nodeBDD = getBDDFromCSNode(node);
 
 		ArrayList<String> res = jvg.getSuccessorVarValues(predecessor.indexSymbolic, nodeBDD, predBDD, var);
-		log.info("END. res = " + res.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END. res = " + res.toString());
+		}
 		return res;
 	}	
 	
@@ -564,7 +612,9 @@ public ArrayList<String> getSuccessorValueList(CounterStrategyGraphStruct.CSNode
 	 * @return a concrete state valid for <em>node</em>.
 	 */
 	public CounterStrategyGraphStruct.CSNode getConcreteState(CounterStrategyGraphStruct.CSNode node) {
-		log.info("START - node = " + node.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("START - node = " + node.toString());
+		}
 		
 		BDD currBDD = getBDDFromCSNode(node);
 		Map.Entry<Integer, BDD> concreteState = jvg.getConcreteState(node.indexSymbolic, currBDD);
@@ -577,7 +627,9 @@ public CounterStrategyGraphStruct.CSNode getConcreteState(CounterStrategyGraphSt
 		}
 		CounterStrategyGraphStruct.CSNode res = constructCSNodeFromBDD(symNode,
 				concreteState.getValue());
-		log.info("END - res = " + res.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END - res = " + res.toString());
+		}
 		return res;
 	}
 
@@ -593,7 +645,9 @@ public CounterStrategyGraphStruct.CSNode getConcreteState(CounterStrategyGraphSt
 	 */
 	public CounterStrategyGraphStruct.CSNode getConcreteSuccessorState(
 			CounterStrategyGraphStruct.CSNode node, CounterStrategyGraphStruct.CSNode predecessor) {
-		log.info("START - node = " + node.toString() + ", predecessor = " + predecessor);
+		if (log.isLoggable(Level.INFO)) {
+			log.info("START - node = " + node.toString() + ", predecessor = " + predecessor);
+		}
 		
 		BDD currBDD = getBDDFromCSNode(node);
 		BDD predBDD = getBDDFromCSNode(predecessor);
@@ -601,7 +655,9 @@ public CounterStrategyGraphStruct.CSNode getConcreteSuccessorState(
 		CounterStrategyGraphStruct.CSNode successorNode = convertNodeToGraphStruct(concreteState.getKey(),
 				jvg.nodes.get(concreteState.getKey()), true /*isConcrete*/);
 		CounterStrategyGraphStruct.CSNode res = constructCSNodeFromBDD(successorNode, concreteState.getValue());
-		log.info("END - res = " + res.toString());
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END - res = " + res.toString());
+		}
 		return res;
 	}
 
@@ -626,7 +682,9 @@ BDD getBDDFromCSNode(CounterStrategyGraphStruct.CSNode node) {
 	 * @return int - number of neighbors of given state.
 	 */
 	public int numStateNeighbors(CounterStrategyGraphStruct.CSNode node) {
-		log.log(Level.INFO, "START - node = " + node);
+		if (log.isLoggable(Level.INFO)) {
+			log.log(Level.INFO, "START - node = " + node);
+		}
 		
 		BDD currBDD = getBDDFromCSNode(node);
 		int numNeighbors = jvg.countNumNeighbors(node.indexSymbolic, currBDD);
@@ -644,7 +702,9 @@ public int numStateNeighbors(CounterStrategyGraphStruct.CSNode node) {
 	 */
 	public ArrayList<CounterStrategyGraphStruct.CSInvariant> getVarsAndVals(
 			CounterStrategyGraphStruct.CSNode node) {
-		log.log(Level.INFO, "START - node = " + node);
+		if (log.isLoggable(Level.INFO)) {
+			log.log(Level.INFO, "START - node = " + node);
+		}
 		
 		ArrayList<CounterStrategyGraphStruct.CSInvariant> res =
 				new ArrayList<CounterStrategyGraphStruct.CSInvariant>();
@@ -660,7 +720,9 @@ public ArrayList<CounterStrategyGraphStruct.CSInvariant> getVarsAndVals(
 			}
 		}
 		
-		log.info("END - res = " + res);
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END - res = " + res);
+		}
 		return res;
 	}
 	
@@ -685,7 +747,9 @@ public ArrayList<CounterStrategyGraphStruct.CSInvariant> getVarsAndVals(
 	 */
 	public ArrayList<CounterStrategyGraphStruct.CSInvariant> getSuccessorVarsAndVals(
 			CounterStrategyGraphStruct.CSNode node, CounterStrategyGraphStruct.CSNode predecessor) {
-		log.log(Level.INFO, "START - node = " + node + ", predecessor = " + predecessor);
+		if (log.isLoggable(Level.INFO)) {
+			log.log(Level.INFO, "START - node = " + node + ", predecessor = " + predecessor);
+		}
 		
 		ArrayList<CounterStrategyGraphStruct.CSInvariant> res =
 				new ArrayList<CounterStrategyGraphStruct.CSInvariant>();
@@ -701,7 +765,9 @@ public ArrayList<CounterStrategyGraphStruct.CSInvariant> getSuccessorVarsAndVals
 			}
 		}
 		
-		log.info("END - res = " + res);
+		if (log.isLoggable(Level.INFO)) {
+			log.info("END - res = " + res);
+		}
 		return res;
 	}
 	
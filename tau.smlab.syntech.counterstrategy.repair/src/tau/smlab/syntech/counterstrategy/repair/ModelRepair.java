@@ -43,6 +43,7 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import tau.smlab.syntech.counterstrategy.model.JVGEdge;
 import tau.smlab.syntech.counterstrategy.model.JVGNode;
 import tau.smlab.syntech.counterstrategy.model.JVGNodeType;
+import tau.smlab.syntech.counterstrategy.model.JVGReuse;
 import tau.smlab.syntech.gameinput.model.GameInput;
 import tau.smlab.syntech.gamemodel.GameModel;
 import tau.smlab.syntech.games.gr1.wellseparation.WellSeparationChecker;
@@ -72,6 +73,7 @@ public abstract class ModelRepair extends AbstractRepair {
 	protected int wellSepCount = 0;
 	protected int alpha = 2; // maximum BFS depth.
 	protected List<Long> runtimes = new ArrayList<Long>();	
+	private JVGReuse reuse; // results of the last JVTS still valid after adding assumptions
 	
 	public ModelRepair(GameInput gameInput, int alpha, boolean merge, boolean edgeData, boolean repairCore) {
 		gi = gameInput;
@@ -97,6 +99,10 @@ public void execute() {
 			isRealizable = false;
 			startTime = System.currentTimeMillis(); // ignore runtime for initial realizability check
 			applySearch();
+			if (reuse != null) {
+				reuse.free();
+				reuse = null;
+			}
 		}
 		runtimeCount = currTime();	
 		computeWellSepStats();
@@ -229,13 +235,17 @@ protected List<BasicAssumption> assumptionFinderOneLevel(JusticeViolationGraph c
 	}
 	
 	/**
-	 * 
+	 * Computes the JVTS, reusing the results of the previous one which are still valid
+	 * (the specifications of the search differ only in added assumptions)
 	 * @param m
 	 * @param rg is consumed (freed)
 	 * @return
 	 */
 	protected JusticeViolationGraph computeCS(GameModel m, RabinGame rg) {
 		JusticeViolationGraph csg = new JusticeViolationGraph(rg, m);
+		if (reuse != null) {
+			csg.reuse(reuse);
+		}
 		// disable reorder to compute JVTS faster
 		Env.disableReorder();
 		try {
@@ -243,12 +253,15 @@ protected JusticeViolationGraph computeCS(GameModel m, RabinGame rg) {
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+		// the graph borrows the memory of the game
+		csg.releaseRabinMemory();
 		rg.free();
 		
 		Env.enableReorder();
 		if (mergeNodes) {
 			csg.mergedAttractors();
 		}
+		reuse = csg.detachReusable();
 
 		return csg;
 	}
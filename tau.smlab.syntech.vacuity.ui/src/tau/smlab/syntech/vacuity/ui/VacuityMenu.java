@@ -129,6 +129,7 @@ public void run(VacuityActionID actionID, IFile specFile) {
 		computeCores = tau.smlab.syntech.vacuity.ui.preferences.PreferencePage.getComputeVacCores();
 		useCReduction = tau.smlab.syntech.vacuity.ui.preferences.PreferencePage.getUseCReduction();
 		computationType = useCReduction ? VacuityComputation.C_REDUCTION : VacuityComputation.JAVA_IMPLEMENTATION;
+		Vacuity.setAdaptiveCores(tau.smlab.syntech.vacuity.ui.preferences.PreferencePage.getAdaptiveCores());
 
 		ImplicationChecks imp = new ImplicationChecks();
 		UnreachableValues unreach = new UnreachableValues();
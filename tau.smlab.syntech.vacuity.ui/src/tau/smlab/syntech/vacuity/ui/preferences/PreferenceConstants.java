@@ -38,4 +38,6 @@ public class PreferenceConstants {
 	
 	public static final String USE_C_REALIZABILITY_REDUCTION = "UseC";
 	
+	public static final String ADAPTIVE_CORES = "AdaptiveCores";
+	
 }
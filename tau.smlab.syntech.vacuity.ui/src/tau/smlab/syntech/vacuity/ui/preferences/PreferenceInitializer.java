@@ -44,6 +44,7 @@ public void initializeDefaultPreferences() {
 		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
 		store.setDefault(PreferenceConstants.COMPUTE_VACUITY_CORES, true);
 		store.setDefault(PreferenceConstants.USE_C_REALIZABILITY_REDUCTION, true);
+		store.setDefault(PreferenceConstants.ADAPTIVE_CORES, false);
 	}
 
 }
\ No newline at end of file
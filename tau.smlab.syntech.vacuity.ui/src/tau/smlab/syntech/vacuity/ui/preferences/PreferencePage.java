@@ -61,6 +61,7 @@ public PreferencePage() {
 
 	private BooleanFieldEditor computeVacCores;
 	private BooleanFieldEditor useCRealReduction;
+	private BooleanFieldEditor adaptiveCores;
 
 	public void createFieldEditors() {
 		computeVacCores = new BooleanFieldEditor(PreferenceConstants.COMPUTE_VACUITY_CORES,
@@ -69,9 +70,14 @@ public void createFieldEditors() {
 		useCRealReduction = new BooleanFieldEditor(PreferenceConstants.USE_C_REALIZABILITY_REDUCTION,
 				"Compute vacuities using a reduction to C realizability", getFieldEditorParent());
 		
+		adaptiveCores = new BooleanFieldEditor(PreferenceConstants.ADAPTIVE_CORES,
+				"Choose the minimizer of vacuity cores by a probe of the checks", getFieldEditorParent());
+		
 		addField(computeVacCores);
 		
 		addField(useCRealReduction);
+		
+		addField(adaptiveCores);
 	}
 
 	public void init(IWorkbench workbench) {
@@ -85,5 +91,9 @@ public static boolean getUseCReduction() {
 		return Activator.getDefault().getPreferenceStore().getBoolean(PreferenceConstants.USE_C_REALIZABILITY_REDUCTION);
 	}
 
+	public static boolean getAdaptiveCores() {
+		return Activator.getDefault().getPreferenceStore().getBoolean(PreferenceConstants.ADAPTIVE_CORES);
+	}
+
 
 }
\ No newline at end of file
@@ -33,11 +33,18 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import java.util.Map;
 
 import tau.smlab.syntech.checks.ddmin.AbstractDdmin;
+import tau.smlab.syntech.checks.ddmin.Minimizer;
+import tau.smlab.syntech.cores.domainagnostic.AdaptiveChoice.Decision;
+import tau.smlab.syntech.cores.domainagnostic.AdaptiveMin;
+import tau.smlab.syntech.cores.domainagnostic.MinimizerFactory;
+import tau.smlab.syntech.cores.domainagnostic.MinimizerType;
+import tau.smlab.syntech.cores.util.Checker;
 import tau.smlab.syntech.gamemodel.BehaviorInfo;
 
 /**
  * This class computes the local minimum of the behaviors needed to imply other behaviors, according to traceId.
  * In the implying behaviors we may have auxiliary behaviors that come from the implied. In this case we take them as a basis and compute the core on the others.
+ * Minimizes with ddmin by default. Other minimizer types (e.g., ADAPTIVE) check through a memoizing Checker.
  *  
  * @author shalom
  *
@@ -49,7 +56,8 @@ public class ImplicationCore extends AbstractDdmin<Integer> {
 	private Map<Integer, List<BehaviorInfo>> implying;
 	private List<BehaviorInfo> implied;
 	private List<BehaviorInfo> base;
-
+	private MinimizerType mtype = MinimizerType.DDMIN;
+	private Decision decision = null;
 	
 	public ImplicationCore(Map<Integer, List<BehaviorInfo>> implying, List<BehaviorInfo> imp) {
 		this.implying = implying;
@@ -63,6 +71,35 @@ public ImplicationCore(Map<Integer, List<BehaviorInfo>> implying, List<BehaviorI
 		}
 	}
 	
+	public void setMinimizerType(MinimizerType mtype) {
+		this.mtype = mtype;
+	}
+
+	/**
+	 * @return the choice of the adaptive minimizer, null for other types
+	 */
+	public Decision getDecision() {
+		return decision;
+	}
+
+	@Override
+	public List<Integer> minimize(List<Integer> elements) {
+		if (mtype == MinimizerType.DDMIN) {
+			return super.minimize(elements);
+		}
+		Minimizer<Integer> m = new MinimizerFactory<Integer>().makeMinimizer(mtype, new Checker<Integer>() {
+			@Override
+			protected boolean check(List<Integer> part) {
+				return ImplicationCore.this.check(part);
+			}
+		});
+		List<Integer> min = m.minimize(elements);
+		if (m instanceof AdaptiveMin) {
+			decision = ((AdaptiveMin<Integer>) m).getDecision();
+		}
+		return min;
+	}
+
 	protected boolean check(List<Integer> part) {
 		List<BehaviorInfo> ofPart = new ArrayList<BehaviorInfo>(base);
 		for (Integer i : part) {
@@ -40,6 +40,7 @@ LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
 import tau.smlab.syntech.bddgenerator.BDDGenerator;
 import tau.smlab.syntech.checks.BDDBuilder;
 import tau.smlab.syntech.checks.GR1Implication;
+import tau.smlab.syntech.cores.domainagnostic.MinimizerType;
 import tau.smlab.syntech.gameinput.model.GameInput;
 import tau.smlab.syntech.gamemodel.BehaviorInfo;
 import tau.smlab.syntech.gamemodel.GameModel;
@@ -61,6 +62,7 @@ public class Vacuity {
 	
 	//private static boolean useCReduction = true;
 	private static VacuityComputation computationType;
+	private static boolean adaptiveCores = false;
 	
 	public enum VacuityComputation {JAVA_IMPLEMENTATION, C_IMPLEMENTATION, C_REDUCTION}
 	
@@ -104,6 +106,13 @@ public void free() {
 		}
 	}
 	
+	/**
+	 * @param adaptive choose the minimizer of cores by a probe of the implication checks (see AdaptiveChoice) instead of ddmin
+	 */
+	public static void setAdaptiveCores(boolean adaptive) {
+		adaptiveCores = adaptive;
+	}
+
 	public static GameModel getModel() {
 		return gm;
 	}
@@ -119,6 +128,9 @@ protected static List<Integer> coreOfBehavior(List<BehaviorInfo> rel, List<Behav
 		if (core && !isTrivial(gm, b)) {
 			Map<Integer, List<BehaviorInfo>> bundled = bundle(rel);
 			ImplicationCore coreFinder = new ImplicationCore(bundled, b);
+			if (adaptiveCores) {
+				coreFinder.setMinimizerType(MinimizerType.ADAPTIVE);
+			}
 			impCore = coreFinder.minimize(new ArrayList<Integer>(bundled.keySet()));
 		} else {
 			impCore = new ArrayList<Integer>();